@@ -2,8 +2,10 @@ package com.arplanets.auth;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.session.SessionAutoConfiguration;
 
-@SpringBootApplication
+// Redis Session 只在 auth.authorization.store=redis 時由 SessionConfig 啟用
+@SpringBootApplication(exclude = SessionAutoConfiguration.class)
 public class SpringauthserverApplication {
 
 	public static void main(String[] args) {
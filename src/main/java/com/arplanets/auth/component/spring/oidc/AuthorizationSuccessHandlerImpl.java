@@ -11,6 +11,7 @@ import jakarta.servlet.http.HttpSession;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
@@ -37,6 +38,7 @@ public class AuthorizationSuccessHandlerImpl implements AuthenticationSuccessHan
 
     private final AuthActivityService authActivityService;
     private final OAuth2AuthorizationService authorizationService;
+    private final ClientRegistrationRepository clientRegistrationRepository;
     private final RedirectStrategy redirectStrategy = new DefaultRedirectStrategy();
 
     @Override
@@ -76,6 +78,11 @@ public class AuthorizationSuccessHandlerImpl implements AuthenticationSuccessHan
             authorization = OAuth2Authorization.from(authorization)
                     .attribute(StringUtil.AUTH_SESSION_ID, getSessionId(request))
                     .build();
+
+            // 預先計算 Token Claims，簽發與 Refresh Token 時直接沿用
+            authorization = OAuth2Authorization.from(authorization)
+                    .attribute(AuthorizationTokenClaims.ATTRIBUTE_NAME, AuthorizationTokenClaims.from(authorization, clientRegistrationRepository))
+                    .build();
             authorizationService.save(authorization);
 
             // 紀錄登入狀態
@@ -0,0 +1,63 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationTokens;
+import com.arplanets.auth.utils.StringUtil;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.Base64;
+
+/**
+ * 登入後即不再變動的 Token Claims (uuid、registration_id、sid、auth_id)
+ * 於登入成功時計算一次並存入 OAuth2Authorization 的屬性，簽發與 Refresh Token 時直接沿用
+ * OAuth2Authorization 本身可序列化，其屬性也必須可序列化
+ */
+public record AuthorizationTokenClaims(
+        @Nullable String uuid,
+        @Nullable String registrationId,
+        @Nullable String sid,
+        @Nullable String authId) implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final String ATTRIBUTE_NAME = AuthorizationTokenClaims.class.getName();
+
+    /**
+     * 取得已計算的 Claims
+     */
+    @Nullable
+    public static AuthorizationTokenClaims get(OAuth2Authorization authorization) {
+        return authorization.getAttribute(ATTRIBUTE_NAME);
+    }
+
+    /**
+     * 由 Authorization 的登入資訊計算 Claims
+     */
+    public static AuthorizationTokenClaims from(OAuth2Authorization authorization, ClientRegistrationRepository clientRegistrationRepository) {
+        String uuid = null;
+        String registrationId = null;
+        Object principal = authorization.getAttribute(Principal.class.getName());
+        if (principal instanceof OAuth2AuthenticationToken oauth2Token && oauth2Token.getAuthorizedClientRegistrationId() != null) {
+            registrationId = oauth2Token.getAuthorizedClientRegistrationId();
+            ClientRegistration clientRegistration = clientRegistrationRepository.findByRegistrationId(registrationId);
+            if (clientRegistration != null && oauth2Token.getPrincipal() instanceof OidcUser oidcUser) {
+                uuid = clientRegistration.getClientName() + "_" + oidcUser.getSubject();
+            }
+        }
+
+        String sessionId = authorization.getAttribute(StringUtil.AUTH_SESSION_ID);
+        String sid = sessionId != null
+                ? Base64.getUrlEncoder().withoutPadding().encodeToString(OAuth2AuthorizationTokens.hash(sessionId))
+                : null;
+
+        return new AuthorizationTokenClaims(uuid, registrationId, sid, authorization.getId());
+    }
+}
@@ -0,0 +1,28 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * 處理 AuthorizationTokenClaims 的序列化和反序列化過程
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+@JsonAutoDetect(
+        fieldVisibility = JsonAutoDetect.Visibility.ANY,
+        getterVisibility = JsonAutoDetect.Visibility.NONE,
+        isGetterVisibility = JsonAutoDetect.Visibility.NONE
+)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public abstract class AuthorizationTokenClaimsMixin {
+
+    @JsonCreator
+    AuthorizationTokenClaimsMixin(
+            @JsonProperty("uuid") String uuid,
+            @JsonProperty("registrationId") String registrationId,
+            @JsonProperty("sid") String sid,
+            @JsonProperty("authId") String authId) {
+    }
+}
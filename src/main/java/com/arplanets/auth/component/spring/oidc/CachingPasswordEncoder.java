@@ -0,0 +1,95 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.util.Assert;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * 快取 Client Secret 驗證成功的結果，避免每次 Client 認證都重新執行 BCrypt
+ * 快取 key 為 HMAC(加密後的 Secret, 明文 Secret)，HMAC 金鑰於每次啟動時隨機產生，記憶體中不保留明文
+ * Secret 變更後加密值不同，舊的快取自然不會再命中；只快取驗證成功的結果
+ */
+public class CachingPasswordEncoder implements PasswordEncoder {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final Cache<String, Boolean> verified;
+    private final ThreadLocal<Mac> macs;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, long maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+        Assert.notNull(ttl, "ttl cannot be null");
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        SecretKeySpec key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+        this.macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(HMAC_ALGORITHM + " is not available", e);
+            }
+        });
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, this.verified, "client_secret_verification");
+        }
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return this.delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return this.delegate.matches(rawPassword, encodedPassword);
+        }
+
+        String cacheKey = cacheKey(rawPassword, encodedPassword);
+        if (this.verified.getIfPresent(cacheKey) != null) {
+            return true;
+        }
+
+        boolean matches = this.delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            this.verified.put(cacheKey, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return this.delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private String cacheKey(CharSequence rawPassword, String encodedPassword) {
+        Mac mac = this.macs.get();
+        mac.update(encodedPassword.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        mac.update(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().encodeToString(mac.doFinal());
+    }
+}
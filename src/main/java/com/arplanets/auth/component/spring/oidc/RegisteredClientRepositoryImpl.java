@@ -1,35 +1,145 @@
 package com.arplanets.auth.component.spring.oidc;
 
+import com.arplanets.auth.model.UserPoolContext;
+import com.arplanets.auth.model.UserPoolContextHolder;
 import com.arplanets.auth.repository.persistence.RegisteredClientPersistentRepository;
+import com.arplanets.auth.service.inmemory.InMemoryClientUserPoolService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.lang.Nullable;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.function.Function;
+
 /**
  * Spring 用來操作 oauth2_registered_client
+ * 依 (user_pool_id, id) 與 (user_pool_id, client_id) 快取 RegisteredClient，save 時移除快取並更新 client_id -> User Pool 索引
  */
 @Component
 @RequiredArgsConstructor
 public class RegisteredClientRepositoryImpl implements RegisteredClientRepository {
 
     private final RegisteredClientPersistentRepository registeredClientPersistentRepository;
+    private final InMemoryClientUserPoolService inMemoryClientUserPoolService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.registered-client.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${auth.registered-client.cache.ttl:10m}")
+    private Duration cacheTtl;
+
+    private record ClientKey(String userPoolId, String value) {
+    }
+
+    private Cache<ClientKey, RegisteredClient> clientsById;
+    private Cache<ClientKey, RegisteredClient> clientsByClientId;
+
+    @PostConstruct
+    public void initializeCaches() {
+        this.clientsById = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        this.clientsByClientId = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, clientsById, "registered_client_by_id");
+        CaffeineCacheMetrics.monitor(meterRegistry, clientsByClientId, "registered_client_by_client_id");
+    }
 
     @Override
     public void save(RegisteredClient registeredClient) {
-        registeredClientPersistentRepository.save(registeredClient);
+        String userPoolId = currentUserPoolId();
+        RegisteredClient existingClient = userPoolId != null ? registeredClientPersistentRepository.findById(registeredClient.getId()) : null;
+        try {
+            registeredClientPersistentRepository.save(registeredClient);
+        } finally {
+            if (userPoolId != null) {
+                invalidate(userPoolId, registeredClient);
+            }
+        }
+
+        // 更新 client_id -> User Pool 索引
+        if (existingClient != null && !existingClient.getClientId().equals(registeredClient.getClientId())) {
+            inMemoryClientUserPoolService.remove(existingClient.getClientId(), userPoolId);
+        }
+        inMemoryClientUserPoolService.put(registeredClient.getClientId(), userPoolId);
     }
 
     @Nullable
     @Override
     public RegisteredClient findById(String id) {
-        return registeredClientPersistentRepository.findById(id);
+        return find(clientsById, id, registeredClientPersistentRepository::findById);
     }
 
     @Nullable
     @Override
     public RegisteredClient findByClientId(String clientId) {
-        return registeredClientPersistentRepository.findByClientId(clientId);
+        return find(clientsByClientId, clientId, registeredClientPersistentRepository::findByClientId);
+    }
+
+    /**
+     * 移除指定 User Pool 中該 Client 的快取 (含修改前的 client_id)
+     */
+    public void invalidate(String userPoolId, RegisteredClient registeredClient) {
+        RegisteredClient cached = clientsById.asMap().remove(new ClientKey(userPoolId, registeredClient.getId()));
+        clientsByClientId.invalidate(new ClientKey(userPoolId, registeredClient.getClientId()));
+        if (cached != null) {
+            clientsByClientId.invalidate(new ClientKey(userPoolId, cached.getClientId()));
+        }
+    }
+
+    /**
+     * 套用其他機器對 Client 的異動：移除快取並更新 client_id -> User Pool 索引
+     */
+    public void refresh(String userPoolId, String id, String clientId, boolean active) {
+        RegisteredClient cached = clientsById.asMap().remove(new ClientKey(userPoolId, id));
+        clientsByClientId.invalidate(new ClientKey(userPoolId, clientId));
+        if (cached != null && !cached.getClientId().equals(clientId)) {
+            clientsByClientId.invalidate(new ClientKey(userPoolId, cached.getClientId()));
+            inMemoryClientUserPoolService.remove(cached.getClientId(), userPoolId);
+        }
+
+        if (active) {
+            inMemoryClientUserPoolService.put(clientId, userPoolId);
+        } else {
+            inMemoryClientUserPoolService.remove(clientId, userPoolId);
+        }
+    }
+
+    /**
+     * 移除所有快取
+     */
+    public void invalidateAll() {
+        clientsById.invalidateAll();
+        clientsByClientId.invalidateAll();
+    }
+
+    @Nullable
+    private RegisteredClient find(Cache<ClientKey, RegisteredClient> cache, String value, Function<String, RegisteredClient> loader) {
+        String userPoolId = currentUserPoolId();
+        if (userPoolId == null) {
+            return loader.apply(value);
+        }
+        // 查無資料時 loader 回傳 null，不會寫入快取
+        return cache.get(new ClientKey(userPoolId, value), key -> loader.apply(key.value()));
+    }
+
+    @Nullable
+    private static String currentUserPoolId() {
+        UserPoolContext context = UserPoolContextHolder.getContext();
+        return context != null ? context.userPoolId() : null;
     }
 }
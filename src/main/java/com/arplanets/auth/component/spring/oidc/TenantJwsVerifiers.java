@@ -0,0 +1,105 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.arplanets.auth.component.spring.oidc.jose.Ed25519Keys;
+import com.arplanets.auth.component.spring.oidc.jose.JdkEd25519Verifier;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.util.Base64URL;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.Assert;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 單一 Tenant 的 JWS 驗證器
+ * 建立時即由 JWKSet 中的公鑰建好 JWSVerifier 並依 kid 索引，驗證 Token 時不需再選擇 JWK 或轉換公鑰
+ */
+@Slf4j
+public final class TenantJwsVerifiers {
+
+    private record Verifier(JWSVerifier verifier, Instant expiresAt) {
+
+        private boolean supports(JWSHeader header, Instant now) {
+            return verifier.supportedJWSAlgorithms().contains(header.getAlgorithm())
+                    && (expiresAt == null || expiresAt.isAfter(now));
+        }
+    }
+
+    // kid -> 驗證器
+    private final Map<String, List<Verifier>> verifiersByKeyId = new HashMap<>();
+
+    // 沒有 kid 的 Token 依序嘗試
+    private final List<Verifier> verifiers = new ArrayList<>();
+
+    public TenantJwsVerifiers(JWKSet jwkSet) {
+        Assert.notNull(jwkSet, "jwkSet cannot be null");
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse())) {
+                continue;
+            }
+
+            JWSVerifier jwsVerifier;
+            try {
+                jwsVerifier = createVerifier(jwk);
+            } catch (JOSEException e) {
+                log.warn("Skip JWK '{}' for verification: {}", jwk.getKeyID(), e.getMessage());
+                continue;
+            }
+            if (jwsVerifier == null) {
+                continue;
+            }
+
+            Verifier verifier = new Verifier(jwsVerifier,
+                    jwk.getExpirationTime() != null ? jwk.getExpirationTime().toInstant() : null);
+            if (jwk.getKeyID() != null) {
+                verifiersByKeyId.computeIfAbsent(jwk.getKeyID(), key -> new ArrayList<>(1)).add(verifier);
+            }
+            verifiers.add(verifier);
+        }
+    }
+
+    /**
+     * 以 kid 對應 (或沒有 kid 時所有支援該演算法) 的金鑰驗證簽章，任一把通過即成功
+     */
+    public boolean verify(JWSHeader header, byte[] signingInput, Base64URL signature) throws JOSEException {
+        List<Verifier> candidates = header.getKeyID() != null
+                ? verifiersByKeyId.getOrDefault(header.getKeyID(), List.of())
+                : verifiers;
+
+        Instant now = Instant.now();
+        for (Verifier verifier : candidates) {
+            if (verifier.supports(header, now) && verifier.verifier().verify(header, signingInput, signature)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static JWSVerifier createVerifier(JWK jwk) throws JOSEException {
+        if (jwk instanceof RSAKey rsaKey) {
+            return new RSASSAVerifier(rsaKey.toRSAPublicKey());
+        } else if (jwk instanceof ECKey ecKey) {
+            return new ECDSAVerifier(ecKey.toECPublicKey());
+        } else if (Ed25519Keys.isEd25519(jwk)) {
+            return new JdkEd25519Verifier(Ed25519Keys.toPublicKey((OctetKeyPair) jwk));
+        } else if (jwk instanceof OctetSequenceKey octetSequenceKey) {
+            return new MACVerifier(octetSequenceKey);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,163 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationTokens;
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.service.inmemory.TenantLoader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidatorResult;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
+import org.springframework.util.Assert;
+
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 依當前 Issuer 以該 Tenant 預先建好的驗證器解碼 JWT
+ * 驗證通過的 Token 以 SHA-256 摘要短暫快取 (不超過 Token 的 exp)，同一個 Token 再次出現時不需重新驗證簽章
+ * 快取依 User Pool 區分，Tenant 的 JWKSet 被替換後快取即失效；命中時若已過 exp 仍會重新驗證
+ */
+public final class TenantJwtDecoder implements JwtDecoder {
+
+    private static final String DECODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to decode the Jwt: %s";
+
+    private record ValidatedToken(TenantJwsVerifiers jwsVerifiers, Jwt jwt) {
+    }
+
+    private final TenantLoader tenantLoader;
+    private final Duration cacheTtl;
+    private final Converter<Map<String, Object>, Map<String, Object>> claimSetConverter = MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+    private OAuth2TokenValidator<Jwt> jwtValidator = JwtValidators.createDefault();
+    private Clock clock = Clock.systemUTC();
+
+    // User Pool ID + Token 摘要 -> 驗證結果
+    private final Cache<String, ValidatedToken> validatedTokens;
+
+    public TenantJwtDecoder(TenantLoader tenantLoader, long cacheMaximumSize, Duration cacheTtl, MeterRegistry meterRegistry) {
+        Assert.notNull(tenantLoader, "tenantLoader cannot be null");
+        this.tenantLoader = tenantLoader;
+        this.cacheTtl = cacheTtl;
+        this.validatedTokens = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, validatedTokens, "validated_jwt");
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        TenantRuntime tenantRuntime = tenantLoader.resolve();
+        if (tenantRuntime == null) {
+            throw new JwtException("JwtDecoder not found for the current issuer. Ensure the tenant is registered.");
+        }
+
+        String key = tenantRuntime.userPoolId() + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(OAuth2AuthorizationTokens.hash(token));
+        ValidatedToken validatedToken = validatedTokens.getIfPresent(key);
+        if (validatedToken != null && validatedToken.jwsVerifiers() == tenantRuntime.jwsVerifiers() && !isExpired(validatedToken.jwt())) {
+            return validatedToken.jwt();
+        }
+
+        Jwt jwt = verify(token, tenantRuntime.jwsVerifiers());
+        validatedTokens.put(key, new ValidatedToken(tenantRuntime.jwsVerifiers(), jwt));
+        return jwt;
+    }
+
+    /**
+     * 與 NimbusJwtDecoder#setJwtValidator 相同，取代預設的 Claims 檢核
+     */
+    public void setJwtValidator(OAuth2TokenValidator<Jwt> jwtValidator) {
+        Assert.notNull(jwtValidator, "jwtValidator cannot be null");
+        this.jwtValidator = jwtValidator;
+    }
+
+    /**
+     * 判斷快取是否過期使用的時鐘
+     */
+    public void setClock(Clock clock) {
+        Assert.notNull(clock, "clock cannot be null");
+        this.clock = clock;
+    }
+
+    private boolean isExpired(Jwt jwt) {
+        return jwt.getExpiresAt() != null && !clock.instant().isBefore(jwt.getExpiresAt());
+    }
+
+    private Jwt verify(String token, TenantJwsVerifiers jwsVerifiers) {
+        SignedJWT signedJwt;
+        Map<String, Object> claims;
+        try {
+            signedJwt = SignedJWT.parse(token);
+            claims = signedJwt.getJWTClaimsSet().getClaims();
+        } catch (ParseException e) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Malformed token"), e);
+        }
+
+        try {
+            if (!jwsVerifiers.verify(signedJwt.getHeader(), signedJwt.getSigningInput(), signedJwt.getSignature())) {
+                throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, "Signed JWT rejected: Invalid signature"));
+            }
+        } catch (JOSEException e) {
+            throw new BadJwtException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, e.getMessage()), e);
+        }
+
+        // 與 NimbusJwtDecoder 相同的 Claims 轉換與檢核
+        Jwt jwt = Jwt.withTokenValue(token)
+                .headers(headers -> headers.putAll(signedJwt.getHeader().toJSONObject()))
+                .claims(jwtClaims -> jwtClaims.putAll(claimSetConverter.convert(claims)))
+                .build();
+        OAuth2TokenValidatorResult result = jwtValidator.validate(jwt);
+        if (result.hasErrors()) {
+            String description = result.getErrors().iterator().next().getDescription();
+            throw new JwtValidationException(String.format(DECODING_ERROR_MESSAGE_TEMPLATE, description), result.getErrors());
+        }
+        return jwt;
+    }
+
+    /**
+     * 快取時間為 TTL 與 Token 剩餘效期取較短者
+     */
+    private final class TokenExpiry implements Expiry<String, ValidatedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, ValidatedToken value, long currentTime) {
+            Duration ttl = cacheTtl;
+            Instant expiresAt = value.jwt().getExpiresAt();
+            if (expiresAt != null) {
+                Duration remaining = Duration.between(clock.instant(), expiresAt);
+                if (remaining.compareTo(ttl) < 0) {
+                    ttl = remaining.isNegative() ? Duration.ZERO : remaining;
+                }
+            }
+            return ttl.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, ValidatedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, ValidatedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
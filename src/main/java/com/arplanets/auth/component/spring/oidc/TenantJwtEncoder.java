@@ -0,0 +1,341 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.arplanets.auth.component.spring.oidc.jose.Ed25519Keys;
+import com.arplanets.auth.component.spring.oidc.jose.JdkEd25519Signer;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JOSEObjectType;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.factories.DefaultJWSSignerFactory;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyType;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.util.Base64;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JoseHeaderNames;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.text.ParseException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 單一 Tenant 的 JwtEncoder
+ * 建立時即由 JWKSet 中的私鑰建好 JWSSigner (依 kid 與演算法索引)，簽發 Token 時不需再選擇 JWK 或轉換私鑰
+ * 未指定 kid 時使用已生效 (nbf) 且最新的支援該演算法金鑰；Tenant 沒有該演算法的金鑰時 (例如 Client 預設要求 RS256，
+ * 但 Tenant 只有 EC 或 Ed25519 金鑰)，改用 JWKSet 第一把金鑰的演算法
+ * nbf 尚未到的金鑰只發布於 JWKS 不簽章；已有較新金鑰生效的舊金鑰不再簽章，exp 到期前仍發布供驗證
+ */
+public final class TenantJwtEncoder implements JwtEncoder {
+
+    private static final String ENCODING_ERROR_MESSAGE_TEMPLATE = "An error occurred while attempting to encode the Jwt: %s";
+
+    private static final DefaultJWSSignerFactory JWS_SIGNER_FACTORY = new DefaultJWSSignerFactory();
+
+    private static final Set<String> REGISTERED_HEADER_NAMES = Set.of(
+            JoseHeaderNames.ALG, JoseHeaderNames.JKU, JoseHeaderNames.JWK, JoseHeaderNames.KID,
+            JoseHeaderNames.X5U, JoseHeaderNames.X5C, JoseHeaderNames.X5T, JoseHeaderNames.X5T_S256,
+            JoseHeaderNames.TYP, JoseHeaderNames.CTY, JoseHeaderNames.CRIT);
+
+    private static final Set<String> REGISTERED_CLAIM_NAMES = Set.of(
+            JwtClaimNames.ISS, JwtClaimNames.SUB, JwtClaimNames.AUD, JwtClaimNames.EXP,
+            JwtClaimNames.NBF, JwtClaimNames.IAT, JwtClaimNames.JTI);
+
+    private record SigningKey(JWK jwk, JWSSigner signer, Set<JWSAlgorithm> algorithms, Instant activatesAt, Instant expiresAt) {
+
+        private boolean isUsable(Instant now) {
+            return !activatesAt.isAfter(now) && (expiresAt == null || expiresAt.isAfter(now));
+        }
+    }
+
+    /**
+     * Spring 的 SignatureAlgorithm 不含 EdDSA
+     */
+    private enum EdDsaAlgorithm implements JwsAlgorithm {
+        EDDSA;
+
+        @Override
+        public String getName() {
+            return JWSAlgorithm.EdDSA.getName();
+        }
+    }
+
+    // kid -> 簽章金鑰
+    private final Map<String, SigningKey> signingKeysByKeyId = new HashMap<>();
+
+    // 演算法 -> 簽章金鑰 (依生效時間由新到舊)，依 JWKSet 順序
+    private final Map<JWSAlgorithm, List<SigningKey>> signingKeysByAlgorithm = new LinkedHashMap<>();
+
+    // 未指定或不支援所要求的演算法時使用
+    private final JWSAlgorithm preferredAlgorithm;
+
+    public TenantJwtEncoder(JWKSet jwkSet) throws JOSEException {
+        Assert.notNull(jwkSet, "jwkSet cannot be null");
+        JWSAlgorithm preferred = null;
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (!jwk.isPrivate() || (jwk.getKeyUse() != null && !KeyUse.SIGNATURE.equals(jwk.getKeyUse()))) {
+                continue;
+            }
+
+            // Nimbus 的 Ed25519 簽章需要 Tink，改用 JDK 實作
+            JWSSigner signer = Ed25519Keys.isEd25519(jwk)
+                    ? new JdkEd25519Signer((OctetKeyPair) jwk)
+                    : JWS_SIGNER_FACTORY.createJWSSigner(jwk);
+            JWSAlgorithm keyAlgorithm = defaultAlgorithm(jwk);
+            Set<JWSAlgorithm> algorithms = new LinkedHashSet<>();
+            if (keyAlgorithm != null && signer.supportedJWSAlgorithms().contains(keyAlgorithm)) {
+                algorithms.add(keyAlgorithm);
+            }
+            if (jwk.getAlgorithm() == null) {
+                algorithms.addAll(signer.supportedJWSAlgorithms());
+            }
+            if (algorithms.isEmpty()) {
+                continue;
+            }
+
+            SigningKey signingKey = new SigningKey(jwk, signer, Set.copyOf(algorithms),
+                    jwk.getNotBeforeTime() != null ? jwk.getNotBeforeTime().toInstant() : Instant.EPOCH,
+                    jwk.getExpirationTime() != null ? jwk.getExpirationTime().toInstant() : null);
+            if (jwk.getKeyID() != null) {
+                signingKeysByKeyId.putIfAbsent(jwk.getKeyID(), signingKey);
+            }
+            algorithms.forEach(algorithm -> signingKeysByAlgorithm.computeIfAbsent(algorithm, key -> new ArrayList<>()).add(signingKey));
+            if (preferred == null) {
+                preferred = algorithms.iterator().next();
+            }
+        }
+        Assert.state(!signingKeysByAlgorithm.isEmpty(), "JWKSet does not contain any signing key");
+        // 生效時間相同時維持 JWKSet 順序
+        signingKeysByAlgorithm.values().forEach(keys -> keys.sort(Comparator.comparing(SigningKey::activatesAt).reversed()));
+        this.preferredAlgorithm = preferred;
+    }
+
+    /**
+     * 可用於簽章的演算法，第一個為預設演算法
+     */
+    public Set<JWSAlgorithm> getSupportedAlgorithms() {
+        return Collections.unmodifiableSet(signingKeysByAlgorithm.keySet());
+    }
+
+    /**
+     * 預設簽章演算法 (JWKSet 第一把簽章金鑰的演算法)
+     */
+    public JWSAlgorithm getPreferredAlgorithm() {
+        return preferredAlgorithm;
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        Assert.notNull(parameters, "parameters cannot be null");
+
+        JwsHeader headers = parameters.getJwsHeader();
+        if (headers == null) {
+            headers = JwsHeader.with(SignatureAlgorithm.RS256).build();
+        }
+        JwtClaimsSet claims = parameters.getClaims();
+
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(headers.getAlgorithm().getName());
+        Instant now = Instant.now();
+        SigningKey signingKey;
+        if (headers.getKeyId() != null) {
+            signingKey = signingKeysByKeyId.get(headers.getKeyId());
+        } else {
+            signingKey = currentSigningKey(algorithm, now);
+            if (signingKey == null && !signingKeysByAlgorithm.containsKey(algorithm)) {
+                algorithm = preferredAlgorithm;
+                signingKey = currentSigningKey(algorithm, now);
+            }
+        }
+        if (signingKey == null || !signingKey.algorithms().contains(algorithm) || !signingKey.isUsable(now)) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE, "Failed to select a JWK signing key"));
+        }
+
+        // 與 NimbusJwtEncoder 相同，補上金鑰的 kid 與 x5t#S256
+        JwsHeader.Builder headersBuilder = JwsHeader.from(headers);
+        if (!algorithm.getName().equals(headers.getAlgorithm().getName())) {
+            headersBuilder.algorithm(toJwsAlgorithm(algorithm));
+        }
+        if (headers.getKeyId() == null && signingKey.jwk().getKeyID() != null) {
+            headersBuilder.keyId(signingKey.jwk().getKeyID());
+        }
+        if (headers.getX509SHA256Thumbprint() == null && signingKey.jwk().getX509CertSHA256Thumbprint() != null) {
+            headersBuilder.x509SHA256Thumbprint(signingKey.jwk().getX509CertSHA256Thumbprint().toString());
+        }
+        headers = headersBuilder.build();
+
+        SignedJWT signedJwt = new SignedJWT(convert(algorithm, headers), convert(claims));
+        try {
+            signedJwt.sign(signingKey.signer());
+        } catch (JOSEException e) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "Failed to sign the JWT -> " + e.getMessage()), e);
+        }
+
+        return new Jwt(signedJwt.serialize(), claims.getIssuedAt(), claims.getExpiresAt(), headers.getHeaders(), claims.getClaims());
+    }
+
+    /**
+     * 已生效且未到期的最新金鑰，通常為清單第一筆
+     */
+    private SigningKey currentSigningKey(JWSAlgorithm algorithm, Instant now) {
+        List<SigningKey> signingKeys = signingKeysByAlgorithm.get(algorithm);
+        if (signingKeys != null) {
+            for (SigningKey signingKey : signingKeys) {
+                if (signingKey.isUsable(now)) {
+                    return signingKey;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 金鑰的預設演算法：JWK 有指定 alg 時使用 alg，否則依金鑰類型與曲線決定
+     */
+    private static JWSAlgorithm defaultAlgorithm(JWK jwk) {
+        if (jwk.getAlgorithm() != null) {
+            return JWSAlgorithm.parse(jwk.getAlgorithm().getName());
+        }
+        if (KeyType.RSA.equals(jwk.getKeyType())) {
+            return JWSAlgorithm.RS256;
+        } else if (jwk instanceof ECKey ecKey) {
+            Curve curve = ecKey.getCurve();
+            if (Curve.P_256.equals(curve)) {
+                return JWSAlgorithm.ES256;
+            } else if (Curve.P_384.equals(curve)) {
+                return JWSAlgorithm.ES384;
+            } else if (Curve.P_521.equals(curve)) {
+                return JWSAlgorithm.ES512;
+            }
+        } else if (Ed25519Keys.isEd25519(jwk)) {
+            return JWSAlgorithm.EdDSA;
+        } else if (KeyType.OCT.equals(jwk.getKeyType())) {
+            return JWSAlgorithm.HS256;
+        }
+        return null;
+    }
+
+    private static JwsAlgorithm toJwsAlgorithm(JWSAlgorithm algorithm) {
+        if (JWSAlgorithm.EdDSA.equals(algorithm)) {
+            return EdDsaAlgorithm.EDDSA;
+        }
+        SignatureAlgorithm signatureAlgorithm = SignatureAlgorithm.from(algorithm.getName());
+        return signatureAlgorithm != null ? signatureAlgorithm : MacAlgorithm.from(algorithm.getName());
+    }
+
+    private static JWSHeader convert(JWSAlgorithm algorithm, JwsHeader headers) {
+        JWSHeader.Builder builder = new JWSHeader.Builder(algorithm);
+        try {
+            if (headers.getJwkSetUrl() != null) {
+                builder.jwkURL(headers.getJwkSetUrl().toURI());
+            }
+            if (!CollectionUtils.isEmpty(headers.getJwk())) {
+                builder.jwk(JWK.parse(headers.getJwk()));
+            }
+            if (headers.getX509Url() != null) {
+                builder.x509CertURL(headers.getX509Url().toURI());
+            }
+        } catch (URISyntaxException | ParseException e) {
+            throw new JwtEncodingException(String.format(ENCODING_ERROR_MESSAGE_TEMPLATE,
+                    "Failed to convert JWS header -> " + e.getMessage()), e);
+        }
+
+        if (StringUtils.hasText(headers.getKeyId())) {
+            builder.keyID(headers.getKeyId());
+        }
+        if (!CollectionUtils.isEmpty(headers.getX509CertificateChain())) {
+            builder.x509CertChain(headers.getX509CertificateChain().stream().map(Base64::new).toList());
+        }
+        if (StringUtils.hasText(headers.getX509SHA1Thumbprint())) {
+            builder.x509CertThumbprint(new Base64URL(headers.getX509SHA1Thumbprint()));
+        }
+        if (StringUtils.hasText(headers.getX509SHA256Thumbprint())) {
+            builder.x509CertSHA256Thumbprint(new Base64URL(headers.getX509SHA256Thumbprint()));
+        }
+        if (StringUtils.hasText(headers.getType())) {
+            builder.type(new JOSEObjectType(headers.getType()));
+        }
+        if (StringUtils.hasText(headers.getContentType())) {
+            builder.contentType(headers.getContentType());
+        }
+        if (!CollectionUtils.isEmpty(headers.getCritical())) {
+            builder.criticalParams(headers.getCritical());
+        }
+
+        Map<String, Object> customHeaders = new LinkedHashMap<>();
+        headers.getHeaders().forEach((name, value) -> {
+            if (!REGISTERED_HEADER_NAMES.contains(name)) {
+                customHeaders.put(name, value);
+            }
+        });
+        if (!customHeaders.isEmpty()) {
+            builder.customParams(customHeaders);
+        }
+        return builder.build();
+    }
+
+    private static JWTClaimsSet convert(JwtClaimsSet claims) {
+        JWTClaimsSet.Builder builder = new JWTClaimsSet.Builder();
+
+        Object issuer = claims.getClaim(JwtClaimNames.ISS);
+        if (issuer != null) {
+            builder.issuer(issuer instanceof URL url ? url.toExternalForm() : issuer.toString());
+        }
+        if (StringUtils.hasText(claims.getSubject())) {
+            builder.subject(claims.getSubject());
+        }
+        List<String> audience = claims.getAudience();
+        if (!CollectionUtils.isEmpty(audience)) {
+            builder.audience(audience);
+        }
+        if (claims.getExpiresAt() != null) {
+            builder.expirationTime(Date.from(claims.getExpiresAt()));
+        }
+        if (claims.getNotBefore() != null) {
+            builder.notBeforeTime(Date.from(claims.getNotBefore()));
+        }
+        if (claims.getIssuedAt() != null) {
+            builder.issueTime(Date.from(claims.getIssuedAt()));
+        }
+        if (StringUtils.hasText(claims.getId())) {
+            builder.jwtID(claims.getId());
+        }
+
+        claims.getClaims().forEach((name, value) -> {
+            if (!REGISTERED_CLAIM_NAMES.contains(name)) {
+                builder.claim(name, value);
+            }
+        });
+        return builder.build();
+    }
+}
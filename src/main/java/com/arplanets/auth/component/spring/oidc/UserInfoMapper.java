@@ -1,13 +1,9 @@
 package com.arplanets.auth.component.spring.oidc;
 
-import com.arplanets.auth.model.po.domain.ClaimMapping;
-import com.arplanets.auth.model.po.domain.UserClaim;
-import com.arplanets.auth.repository.persistence.ClaimMappingRepository;
-import com.arplanets.auth.repository.persistence.UserInfoRepository;
+import com.arplanets.auth.model.ClaimProjectionPlan;
+import com.arplanets.auth.service.inmemory.ClaimProjectionPlanService;
+import com.arplanets.auth.service.persistence.UserInfoService;
 import com.arplanets.auth.utils.StringUtil;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.oauth2.core.OAuth2AccessToken;
@@ -22,7 +18,6 @@ import org.springframework.util.StringUtils;
 import java.util.*;
 import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * 客製化 OIDC UserInfo 端點資訊
@@ -32,9 +27,8 @@ import java.util.stream.Stream;
 @Slf4j
 public class UserInfoMapper implements Function<OidcUserInfoAuthenticationContext, OidcUserInfo> {
 
-    private final UserInfoRepository userInfoRepository;
-    private final ClaimMappingRepository claimMappingRepository;
-    private final ObjectMapper objectMapper;
+    private final UserInfoService userInfoService;
+    private final ClaimProjectionPlanService claimProjectionPlanService;
 
     @Override
     public OidcUserInfo apply(OidcUserInfoAuthenticationContext context) {
@@ -72,27 +66,24 @@ public class UserInfoMapper implements Function<OidcUserInfoAuthenticationContex
             return buildSingleClaim(sub);
         }
 
-        // 以 registration_id、scopes 查詢需要回傳的 claims
-        List<ClaimMapping> claimMappings = claimMappingRepository.findByRegistrationIdAndScopes(registrationId, scopes);
+        // 以 registration_id、scopes 取得需要回傳的 claims (已快取的投影計畫)
+        ClaimProjectionPlan plan = claimProjectionPlanService.getPlan(registrationId, scopes);
 
         // 若沒有要回傳的 claims ，僅回傳 sub
-        if (CollectionUtils.isEmpty(claimMappings)) {
+        if (plan.isEmpty()) {
             return buildSingleClaim(sub);
         }
 
-        // 取得 user 相關資訊
-        List<UserClaim> userClaims = userInfoRepository.findByUserId(sub);
+        // 取得 user 相關資訊 (已轉為 Map 並快取)
+        Map<String, Object> claimsMap = userInfoService.findUserClaims(sub);
 
         // 若沒有 user 資訊 ，僅回傳 sub
-        if (CollectionUtils.isEmpty(userClaims)) {
+        if (CollectionUtils.isEmpty(claimsMap)) {
             return buildSingleClaim(sub);
         }
 
-        // 將 User Claims 資訊轉為 Map
-        Map<String, Object> claimsMap = buildUserClaimsMap(sub, userClaims);
-
         // 回傳最終 claims
-        return buildClaims(sub, claimMappings, claimsMap);
+        return buildClaims(sub, plan, claimsMap);
     }
 
     private String getValidatedSub(OAuth2Authorization authorization) {
@@ -112,57 +103,24 @@ public class UserInfoMapper implements Function<OidcUserInfoAuthenticationContex
                 .collect(Collectors.toSet());
     }
 
-    private Map<String, Object> buildUserClaimsMap(String sub, List<UserClaim> userClaims) {
-        return userClaims.stream()
-                .flatMap(claim -> {
-                    String claimName = claim.getClaimName();
-                    Object claimValue = claim.getValue();
-
-                    // 僅添加是 JsonNode 的部分
-                    if (claimValue instanceof JsonNode jsonNode) {
-                        try {
-
-                            Object standardJavaObject = objectMapper.treeToValue(jsonNode, Object.class);
-                            return Stream.of(Map.entry(claimName, standardJavaObject));
-
-                        // 無法解析不添加
-                        } catch (JsonProcessingException e) {
-                            log.error("Failed to convert JsonNode to Object for claim '{}' for user {}. Node: {}",
-                                    claimName, sub, jsonNode, e);
-                            return Stream.empty();
-                        }
-                    // 不是 JsonNode不添加
-                    } else {
-                        return Stream.empty();
-                    }
-                }).collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        Map.Entry::getValue,
-                        (existingValue, newValue) -> newValue
-                ));
-    }
-
     private Map<String, Object> buildSingleClaim(String sub) {
         Map<String, Object> finalClaims = new LinkedHashMap<>();
         finalClaims.put(StringUtil.SUB_CLAIM_NAME, sub);
         return finalClaims;
     }
 
-    private Map<String, Object> buildClaims(String sub, List<ClaimMapping> attributeMappings, Map<String, Object> claimsMap) {
+    private Map<String, Object> buildClaims(String sub, ClaimProjectionPlan plan, Map<String, Object> claimsMap) {
         Map<String, Object> finalClaims = buildSingleClaim(sub);
 
-        attributeMappings.forEach(mapping -> {
-            String outputClaimName = mapping.getClaimName();
-            String internalClaimName = mapping.getClaimName();
-
+        for (ClaimProjectionPlan.Projection projection : plan.projections()) {
             // 從已經是標準 Object 的 Map 中獲取值
-            Object deserializedValue = claimsMap.get(internalClaimName);
+            Object deserializedValue = claimsMap.get(projection.sourceClaim());
 
             // 僅添加不是 null 的值
             if (deserializedValue != null) {
-                finalClaims.put(outputClaimName, deserializedValue);
+                finalClaims.put(projection.outputClaim(), deserializedValue);
             }
-        });
+        }
 
         return finalClaims;
     }
@@ -0,0 +1,17 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+
+import java.util.List;
+
+/**
+ * 可一次寫入多筆 Authorization 的 OAuth2AuthorizationService，WriteBehindOAuth2AuthorizationService 以此減少資料庫往返
+ * 批次失敗時不保證哪些資料已寫入，呼叫端須改以單筆 save / remove 重試 (兩者皆可重複執行)
+ */
+public interface BatchOAuth2AuthorizationService extends OAuth2AuthorizationService {
+
+    void saveAll(List<OAuth2Authorization> authorizations);
+
+    void removeAll(List<OAuth2Authorization> authorizations);
+}
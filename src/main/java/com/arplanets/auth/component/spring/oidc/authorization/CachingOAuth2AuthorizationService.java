@@ -0,0 +1,177 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 在 OAuth2AuthorizationService 外層加上 In-process 快取
+ * 依 Authorization ID 與 Token 值快取，save 時寫入快取，remove 時移除
+ * 快取只存在於單台機器，其他機器的撤銷或 Refresh Token 輪替最多延遲 TTL (auth.authorization.cache.ttl) 才會反映；
+ * 因此 Refresh Token 查詢與未指定 Token 類型的查詢 (撤銷、Introspection) 一律直接讀取 delegate，
+ * 只有 Access Token、Authorization Code 等其他類型的查詢可能在 TTL 內讀到舊資料
+ * 查詢未命中時從 delegate 讀到的資料只在不會蓋掉較新版本時寫入快取：不覆蓋 save 寫入的版本，也不覆蓋 Token 簽發時間較晚的版本，
+ * 避免讀取期間同時進行的 save 被較舊的讀取結果取代
+ */
+@Slf4j
+public class CachingOAuth2AuthorizationService implements OAuth2AuthorizationService, DisposableBean {
+
+    private final OAuth2AuthorizationService delegate;
+
+    // Authorization ID -> Authorization
+    private final Cache<String, CachedAuthorization> authorizationsById;
+
+    // Token 值 (state、code、access token...) -> Authorization ID
+    private final Cache<String, String> authorizationIdsByToken;
+
+    public CachingOAuth2AuthorizationService(OAuth2AuthorizationService delegate, long maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+        Assert.notNull(ttl, "ttl cannot be null");
+        this.delegate = delegate;
+        this.authorizationsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.authorizationIdsByToken = Caffeine.newBuilder()
+                .maximumSize(maximumSize * 4)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, this.authorizationsById, "oauth2_authorization_by_id");
+            CaffeineCacheMetrics.monitor(meterRegistry, this.authorizationIdsByToken, "oauth2_authorization_by_token");
+        }
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        this.delegate.save(authorization);
+        this.authorizationsById.put(authorization.getId(), new CachedAuthorization(authorization, true));
+        index(authorization);
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        try {
+            this.delegate.remove(authorization);
+        } finally {
+            evict(authorization);
+        }
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        CachedAuthorization cached = this.authorizationsById.getIfPresent(id);
+        if (cached != null) {
+            return cached.authorization();
+        }
+
+        OAuth2Authorization authorization = this.delegate.findById(id);
+        if (authorization != null) {
+            fill(authorization);
+        }
+        return authorization;
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+
+        // 避免讀到其他機器已撤銷或已輪替的資料，讀取後更新本機快取
+        if (tokenType == null || OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+            OAuth2Authorization authorization = this.delegate.findByToken(token, tokenType);
+            if (authorization != null) {
+                fill(authorization);
+            } else {
+                // 已在其他機器撤銷，連同快取中的 Authorization 一併移除，其 Access Token 也不再由快取回傳
+                String authorizationId = this.authorizationIdsByToken.getIfPresent(token);
+                CachedAuthorization cached = authorizationId != null ? this.authorizationsById.getIfPresent(authorizationId) : null;
+                if (cached != null) {
+                    evict(cached.authorization());
+                }
+                this.authorizationIdsByToken.invalidate(token);
+            }
+            return authorization;
+        }
+
+        String authorizationId = this.authorizationIdsByToken.getIfPresent(token);
+        if (authorizationId != null) {
+            CachedAuthorization cached = this.authorizationsById.getIfPresent(authorizationId);
+            if (cached != null) {
+                OAuth2Authorization authorization = cached.authorization();
+                // 快取中的最新版本已不包含此 Token (例如 Refresh Token 已輪替)，視為不存在
+                if (OAuth2AuthorizationTokens.matches(authorization, token, tokenType)) {
+                    return authorization;
+                }
+                log.debug("Cached OAuth2Authorization '{}' does not match the requested token.", authorizationId);
+                this.authorizationIdsByToken.invalidate(token);
+                return null;
+            }
+        }
+
+        OAuth2Authorization authorization = this.delegate.findByToken(token, tokenType);
+        if (authorization != null) {
+            fill(authorization);
+        }
+        return authorization;
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (this.delegate instanceof DisposableBean disposableBean) {
+            disposableBean.destroy();
+        }
+    }
+
+    /**
+     * 寫入從 delegate 讀到的版本；快取中已有 save 寫入的版本或 Token 簽發時間較晚的版本時保留原本的
+     */
+    private void fill(OAuth2Authorization authorization) {
+        Instant issuedAt = OAuth2AuthorizationTokens.latestIssuedAt(authorization);
+        CachedAuthorization cached = this.authorizationsById.asMap().compute(authorization.getId(), (id, existing) ->
+                existing == null || (!existing.saved() && !issuedAt.isBefore(OAuth2AuthorizationTokens.latestIssuedAt(existing.authorization())))
+                        ? new CachedAuthorization(authorization, false)
+                        : existing);
+        if (cached.authorization() == authorization) {
+            index(authorization);
+        }
+    }
+
+    private void index(OAuth2Authorization authorization) {
+        OAuth2AuthorizationTokens.values(authorization)
+                .forEach(tokenValue -> this.authorizationIdsByToken.put(tokenValue, authorization.getId()));
+    }
+
+    private void evict(OAuth2Authorization authorization) {
+        CachedAuthorization cached = this.authorizationsById.asMap().remove(authorization.getId());
+        this.authorizationIdsByToken.invalidateAll(OAuth2AuthorizationTokens.values(authorization));
+        if (cached != null) {
+            this.authorizationIdsByToken.invalidateAll(OAuth2AuthorizationTokens.values(cached.authorization()));
+        }
+    }
+
+    /**
+     * saved 為 true 代表由本機 save 寫入，查詢未命中時讀到的版本不會覆蓋
+     */
+    private record CachedAuthorization(OAuth2Authorization authorization, boolean saved) {
+    }
+}
@@ -0,0 +1,121 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.AuthorizationTokenClaims;
+import com.arplanets.auth.component.spring.oidc.AuthorizationTokenClaimsMixin;
+import com.arplanets.auth.component.spring.oidc.LinkedTreeMapMixIn;
+import com.arplanets.auth.component.spring.oidc.OidcUserImpl;
+import com.arplanets.auth.component.spring.oidc.OidcUserImplWrapperMixin;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileConstants;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.lang.Nullable;
+import org.springframework.security.jackson2.SecurityJackson2Modules;
+import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * 以 Jackson 編碼 attributes 與 metadata，可選擇 JSON 或 Smile (二進位 JSON) 寫入
+ * 寫入時開頭加上 2 bytes 的格式前綴：0x00 (JSON 與 Smile 都不會以此開頭) 加上格式代碼，之後新增格式或改版時使用新的代碼
+ * 讀取時依前綴判斷格式；沒有前綴的舊資料，以 ":)\n" 開頭視為 Smile，其餘視為 JSON
+ */
+public class JacksonOAuth2AuthorizationCodec implements OAuth2AuthorizationCodec {
+
+    public enum Format {
+        JSON((byte) 1),
+        SMILE((byte) 2);
+
+        private final byte code;
+
+        Format(byte code) {
+            this.code = code;
+        }
+    }
+
+    static final byte PREFIX_MARKER = 0x00;
+
+    static final int PREFIX_LENGTH = 2;
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {};
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper smileMapper;
+    private final Format writeFormat;
+
+    public JacksonOAuth2AuthorizationCodec(Format writeFormat) {
+        Assert.notNull(writeFormat, "writeFormat cannot be null");
+        this.writeFormat = writeFormat;
+        this.jsonMapper = configure(new ObjectMapper());
+        this.smileMapper = configure(new ObjectMapper(new SmileFactory()));
+    }
+
+    @Override
+    public byte[] encode(Map<String, Object> data) {
+        ObjectMapper mapper = mapper(this.writeFormat);
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(256);
+            output.write(PREFIX_MARKER);
+            output.write(this.writeFormat.code);
+            mapper.writeValue(output, data);
+            return output.toByteArray();
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<String, Object> decode(@Nullable byte[] data) {
+        if (data == null || data.length == 0) {
+            return Collections.emptyMap();
+        }
+        try {
+            if (data[0] == PREFIX_MARKER) {
+                Assert.isTrue(data.length >= PREFIX_LENGTH, "Truncated authorization data");
+                return mapper(formatOf(data[1])).readValue(data, PREFIX_LENGTH, data.length - PREFIX_LENGTH, MAP_TYPE);
+            }
+            // 加上前綴之前寫入的資料
+            ObjectMapper mapper = isSmile(data) ? this.smileMapper : this.jsonMapper;
+            return mapper.readValue(data, MAP_TYPE);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }
+
+    private ObjectMapper mapper(Format format) {
+        return format == Format.SMILE ? this.smileMapper : this.jsonMapper;
+    }
+
+    private static Format formatOf(byte code) {
+        for (Format format : Format.values()) {
+            if (format.code == code) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported authorization data format: " + code);
+    }
+
+    private static boolean isSmile(byte[] data) {
+        return data.length >= 3
+                && data[0] == SmileConstants.HEADER_BYTE_1
+                && data[1] == SmileConstants.HEADER_BYTE_2
+                && data[2] == SmileConstants.HEADER_BYTE_3;
+    }
+
+    /**
+     * 因為客製化了 User ， 所以要添加序列化和反序列化方式
+     * 一定要 new 一個，用注入的會有問題!!!
+     */
+    private static ObjectMapper configure(ObjectMapper objectMapper) {
+        ClassLoader classLoader = JacksonOAuth2AuthorizationCodec.class.getClassLoader();
+        objectMapper.registerModules(SecurityJackson2Modules.getModules(classLoader));
+        objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
+        objectMapper.addMixIn(OidcUserImpl.class, OidcUserImplWrapperMixin.class);
+        objectMapper.addMixIn(AuthorizationTokenClaims.class, AuthorizationTokenClaimsMixin.class);
+        objectMapper.addMixIn(com.nimbusds.jose.shaded.gson.internal.LinkedTreeMap.class, LinkedTreeMapMixIn.class);
+        return objectMapper;
+    }
+}
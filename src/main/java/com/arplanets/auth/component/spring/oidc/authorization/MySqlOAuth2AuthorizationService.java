@@ -0,0 +1,377 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.model.UserPoolContext;
+import com.arplanets.auth.model.UserPoolContextHolder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.util.Assert;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * MySQL 專用的 oauth2_authorization 讀寫
+ * Token 以 SHA-256 雜湊欄位建立索引查詢，寫入以單一 INSERT ... ON DUPLICATE KEY UPDATE 完成
+ * 批次寫入以 JDBC batch 送出 (連線設定 rewriteBatchedStatements=true 時合併為多筆 VALUES 的單一 INSERT)
+ * 資料表依 user_pool_id 分區，查詢時帶入目前 UserPoolContext 的 User Pool
+ */
+@Slf4j
+public class MySqlOAuth2AuthorizationService implements BatchOAuth2AuthorizationService {
+
+    private static final String TABLE_NAME = "oauth2_authorization";
+
+    private static final String COLUMN_NAMES = String.join(", ", OAuth2AuthorizationRecords.COLUMNS);
+
+    private static final String HASH_COLUMN_NAMES = "state_hash, authorization_code_hash, access_token_hash, oidc_id_token_hash, " +
+            "refresh_token_hash, user_code_hash, device_code_hash";
+
+    private static final String LOAD_AUTHORIZATION_SQL = "SELECT " + COLUMN_NAMES +
+            " FROM " + TABLE_NAME +
+            " WHERE ";
+
+    // 有 UserPoolContext 時加上 partition key，只查詢該 User Pool 的 partition
+    private static final String USER_POOL_CONDITION = " AND user_pool_id = ?";
+
+    private static final String ID_CONDITION = "id = ?";
+
+    private static final String ANY_TOKEN_CONDITION = "(state_hash = ? OR authorization_code_hash = ? OR access_token_hash = ? OR oidc_id_token_hash = ? " +
+            "OR refresh_token_hash = ? OR user_code_hash = ? OR device_code_hash = ?)";
+
+    private static final String UPSERT_AUTHORIZATION_SQL = "INSERT INTO " + TABLE_NAME +
+            " (" + COLUMN_NAMES + ", " + HASH_COLUMN_NAMES + ", user_pool_id)" +
+            " VALUES (" + String.join(", ", Collections.nCopies(41, "?")) + ")" +
+            " ON DUPLICATE KEY UPDATE " +
+            "registered_client_id = VALUES(registered_client_id), principal_name = VALUES(principal_name), " +
+            "authorization_grant_type = VALUES(authorization_grant_type), authorized_scopes = VALUES(authorized_scopes), " +
+            "attributes = VALUES(attributes), state = VALUES(state), " +
+            "authorization_code_value = VALUES(authorization_code_value), authorization_code_issued_at = VALUES(authorization_code_issued_at), " +
+            "authorization_code_expires_at = VALUES(authorization_code_expires_at), authorization_code_metadata = VALUES(authorization_code_metadata), " +
+            "access_token_value = VALUES(access_token_value), access_token_issued_at = VALUES(access_token_issued_at), " +
+            "access_token_expires_at = VALUES(access_token_expires_at), access_token_metadata = VALUES(access_token_metadata), " +
+            "access_token_type = VALUES(access_token_type), access_token_scopes = VALUES(access_token_scopes), " +
+            "oidc_id_token_value = VALUES(oidc_id_token_value), oidc_id_token_issued_at = VALUES(oidc_id_token_issued_at), " +
+            "oidc_id_token_expires_at = VALUES(oidc_id_token_expires_at), oidc_id_token_metadata = VALUES(oidc_id_token_metadata), " +
+            "refresh_token_value = VALUES(refresh_token_value), refresh_token_issued_at = VALUES(refresh_token_issued_at), " +
+            "refresh_token_expires_at = VALUES(refresh_token_expires_at), refresh_token_metadata = VALUES(refresh_token_metadata), " +
+            "user_code_value = VALUES(user_code_value), user_code_issued_at = VALUES(user_code_issued_at), " +
+            "user_code_expires_at = VALUES(user_code_expires_at), user_code_metadata = VALUES(user_code_metadata), " +
+            "device_code_value = VALUES(device_code_value), device_code_issued_at = VALUES(device_code_issued_at), " +
+            "device_code_expires_at = VALUES(device_code_expires_at), device_code_metadata = VALUES(device_code_metadata), " +
+            "state_hash = VALUES(state_hash), authorization_code_hash = VALUES(authorization_code_hash), " +
+            "access_token_hash = VALUES(access_token_hash), oidc_id_token_hash = VALUES(oidc_id_token_hash), " +
+            "refresh_token_hash = VALUES(refresh_token_hash), user_code_hash = VALUES(user_code_hash), " +
+            "device_code_hash = VALUES(device_code_hash)";
+
+    private static final String REMOVE_AUTHORIZATION_SQL = "DELETE FROM " + TABLE_NAME + " WHERE " + ID_CONDITION;
+
+    private static final String SELECT_CLIENT_USER_POOL_ID_SQL = "SELECT user_pool_id FROM oauth2_registered_client WHERE id = ?";
+
+    private static final String SELECT_CLIENT_USER_POOL_IDS_SQL = "SELECT id, user_pool_id FROM oauth2_registered_client WHERE id IN ";
+
+    private final JdbcOperations jdbcOperations;
+    private final RegisteredClientRepository registeredClientRepository;
+    private final OAuth2AuthorizationCodec codec;
+    private final RowMapper<OAuth2Authorization> authorizationRowMapper = this::mapRow;
+
+    public MySqlOAuth2AuthorizationService(JdbcOperations jdbcOperations, RegisteredClientRepository registeredClientRepository, OAuth2AuthorizationCodec codec) {
+        Assert.notNull(jdbcOperations, "jdbcOperations cannot be null");
+        Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+        Assert.notNull(codec, "codec cannot be null");
+        this.jdbcOperations = jdbcOperations;
+        this.registeredClientRepository = registeredClientRepository;
+        this.codec = codec;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        String userPoolId = resolveUserPoolId(authorization);
+        this.jdbcOperations.update(UPSERT_AUTHORIZATION_SQL, ps -> setParameters(ps, authorization, userPoolId));
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        String userPoolId = currentUserPoolId();
+        if (userPoolId != null) {
+            this.jdbcOperations.update(REMOVE_AUTHORIZATION_SQL + USER_POOL_CONDITION, authorization.getId(), userPoolId);
+        } else {
+            this.jdbcOperations.update(REMOVE_AUTHORIZATION_SQL, authorization.getId());
+        }
+    }
+
+    @Override
+    public void saveAll(List<OAuth2Authorization> authorizations) {
+        Assert.notNull(authorizations, "authorizations cannot be null");
+        if (authorizations.isEmpty()) {
+            return;
+        }
+        Map<String, String> userPoolIds = resolveUserPoolIds(authorizations);
+        this.jdbcOperations.batchUpdate(UPSERT_AUTHORIZATION_SQL, new BatchPreparedStatementSetter() {
+
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                OAuth2Authorization authorization = authorizations.get(i);
+                setParameters(ps, authorization, userPoolIds.get(authorization.getRegisteredClientId()));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return authorizations.size();
+            }
+        });
+    }
+
+    @Override
+    public void removeAll(List<OAuth2Authorization> authorizations) {
+        Assert.notNull(authorizations, "authorizations cannot be null");
+        if (authorizations.isEmpty()) {
+            return;
+        }
+        List<Object> args = new ArrayList<>(authorizations.size() + 1);
+        authorizations.forEach(authorization -> args.add(authorization.getId()));
+        String sql = "DELETE FROM " + TABLE_NAME + " WHERE id IN " + placeholders(authorizations.size());
+        String userPoolId = currentUserPoolId();
+        if (userPoolId != null) {
+            sql += USER_POOL_CONDITION;
+            args.add(userPoolId);
+        }
+        this.jdbcOperations.update(sql, args.toArray());
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        return findBy(ID_CONDITION, 1, ps -> ps.setString(1, id));
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        byte[] tokenHash = OAuth2AuthorizationTokens.hash(token);
+
+        if (tokenType == null) {
+            return findBy(ANY_TOKEN_CONDITION, 7, ps -> {
+                for (int i = 1; i <= 7; i++) {
+                    ps.setBytes(i, tokenHash);
+                }
+            });
+        }
+
+        String hashColumn = hashColumnFor(tokenType);
+        if (hashColumn == null) {
+            return null;
+        }
+        return findBy(hashColumn + " = ?", 1, ps -> ps.setBytes(1, tokenHash));
+    }
+
+    /**
+     * condition 的 parameterCount 個參數由 pss 設定，有 UserPoolContext 時在最後加上 user_pool_id 條件
+     */
+    @Nullable
+    private OAuth2Authorization findBy(String condition, int parameterCount, PreparedStatementSetter pss) {
+        String userPoolId = currentUserPoolId();
+        String sql = LOAD_AUTHORIZATION_SQL + condition;
+        PreparedStatementSetter setter = pss;
+        if (userPoolId != null) {
+            sql += USER_POOL_CONDITION;
+            setter = ps -> {
+                pss.setValues(ps);
+                ps.setString(parameterCount + 1, userPoolId);
+            };
+        }
+        List<OAuth2Authorization> result = this.jdbcOperations.query(sql, setter, this.authorizationRowMapper);
+        return !CollectionUtils.isEmpty(result) ? result.get(0) : null;
+    }
+
+    @Nullable
+    private static String currentUserPoolId() {
+        UserPoolContext context = UserPoolContextHolder.getContext();
+        return context != null && StringUtils.hasText(context.userPoolId()) ? context.userPoolId() : null;
+    }
+
+    @Nullable
+    private static String hashColumnFor(OAuth2TokenType tokenType) {
+        if (OAuth2AuthorizationTokens.STATE_TOKEN_TYPE.equals(tokenType)) {
+            return "state_hash";
+        } else if (OAuth2AuthorizationTokens.CODE_TOKEN_TYPE.equals(tokenType)) {
+            return "authorization_code_hash";
+        } else if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+            return "access_token_hash";
+        } else if (OAuth2AuthorizationTokens.ID_TOKEN_TOKEN_TYPE.equals(tokenType)) {
+            return "oidc_id_token_hash";
+        } else if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+            return "refresh_token_hash";
+        } else if (OAuth2AuthorizationTokens.USER_CODE_TOKEN_TYPE.equals(tokenType)) {
+            return "user_code_hash";
+        } else if (OAuth2AuthorizationTokens.DEVICE_CODE_TOKEN_TYPE.equals(tokenType)) {
+            return "device_code_hash";
+        }
+        return null;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // 寫入、讀取
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * user_pool_id 優先使用 UserPoolContext，背景寫入 (write-behind) 時由 Client 所屬的 User Pool 帶入
+     * 兩者皆取不到 (Client 已刪除) 時不寫入，避免 user_pool_id 為 NULL
+     */
+    private String resolveUserPoolId(OAuth2Authorization authorization) {
+        String userPoolId = currentUserPoolId();
+        if (userPoolId != null) {
+            return userPoolId;
+        }
+        List<String> userPoolIds = this.jdbcOperations.queryForList(SELECT_CLIENT_USER_POOL_ID_SQL, String.class, authorization.getRegisteredClientId());
+        if (userPoolIds.isEmpty() || userPoolIds.get(0) == null) {
+            throw new IllegalStateException("Unable to resolve the user pool of authorization '" + authorization.getId() +
+                    "': no UserPoolContext and RegisteredClient '" + authorization.getRegisteredClientId() + "' not found");
+        }
+        return userPoolIds.get(0);
+    }
+
+    /**
+     * 批次寫入時依 Client 一次查出所有 user_pool_id (Client ID -> User Pool ID)，任一筆取不到時整批不寫入
+     */
+    private Map<String, String> resolveUserPoolIds(List<OAuth2Authorization> authorizations) {
+        Set<String> registeredClientIds = new LinkedHashSet<>();
+        authorizations.forEach(authorization -> registeredClientIds.add(authorization.getRegisteredClientId()));
+
+        Map<String, String> userPoolIds = new HashMap<>();
+        String userPoolId = currentUserPoolId();
+        if (userPoolId != null) {
+            registeredClientIds.forEach(registeredClientId -> userPoolIds.put(registeredClientId, userPoolId));
+            return userPoolIds;
+        }
+
+        this.jdbcOperations.query(SELECT_CLIENT_USER_POOL_IDS_SQL + placeholders(registeredClientIds.size()),
+                (RowCallbackHandler) rs -> userPoolIds.put(rs.getString("id"), rs.getString("user_pool_id")),
+                registeredClientIds.toArray());
+        for (OAuth2Authorization authorization : authorizations) {
+            if (userPoolIds.get(authorization.getRegisteredClientId()) == null) {
+                throw new IllegalStateException("Unable to resolve the user pool of authorization '" + authorization.getId() +
+                        "': no UserPoolContext and RegisteredClient '" + authorization.getRegisteredClientId() + "' not found");
+            }
+        }
+        return userPoolIds;
+    }
+
+    private static String placeholders(int count) {
+        return "(" + String.join(", ", Collections.nCopies(count, "?")) + ")";
+    }
+
+    private void setParameters(PreparedStatement ps, OAuth2Authorization authorization, String userPoolId) throws SQLException {
+        Map<String, Object> record = OAuth2AuthorizationRecords.toRecord(authorization, this.codec);
+        int index = 1;
+        for (Map.Entry<String, Object> column : record.entrySet()) {
+            setColumn(ps, index++, column.getKey(), column.getValue());
+        }
+
+        // 雜湊索引欄位
+        ps.setBytes(index++, hashOrNull((String) record.get("state")));
+        ps.setBytes(index++, hashOrNull(authorization.getToken(OAuth2AuthorizationCode.class)));
+        ps.setBytes(index++, hashOrNull(authorization.getToken(OAuth2AccessToken.class)));
+        ps.setBytes(index++, hashOrNull(authorization.getToken(OidcIdToken.class)));
+        ps.setBytes(index++, hashOrNull(authorization.getToken(OAuth2RefreshToken.class)));
+        ps.setBytes(index++, hashOrNull(authorization.getToken(OAuth2UserCode.class)));
+        ps.setBytes(index++, hashOrNull(authorization.getToken(OAuth2DeviceCode.class)));
+
+        // partition key
+        ps.setString(index, userPoolId);
+    }
+
+    private static void setColumn(PreparedStatement ps, int index, String column, @Nullable Object value) throws SQLException {
+        if (OAuth2AuthorizationRecords.isTimestampColumn(column)) {
+            ps.setTimestamp(index, value != null ? Timestamp.from((Instant) value) : null);
+        } else if (OAuth2AuthorizationRecords.isBinaryColumn(column)) {
+            setBytes(ps, index, (byte[]) value);
+        } else if (OAuth2AuthorizationRecords.isTokenValueColumn(column)) {
+            setBytes(ps, index, value != null ? ((String) value).getBytes(StandardCharsets.UTF_8) : null);
+        } else {
+            ps.setString(index, (String) value);
+        }
+    }
+
+    private static void setBytes(PreparedStatement ps, int index, @Nullable byte[] value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.BLOB);
+        } else {
+            ps.setBytes(index, value);
+        }
+    }
+
+    private OAuth2Authorization mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String registeredClientId = rs.getString("registered_client_id");
+        RegisteredClient registeredClient = this.registeredClientRepository.findById(registeredClientId);
+        if (registeredClient == null) {
+            throw new DataRetrievalFailureException("The RegisteredClient with id '" + registeredClientId + "' was not found in the RegisteredClientRepository.");
+        }
+
+        Map<String, Object> record = new HashMap<>(OAuth2AuthorizationRecords.COLUMNS.size() * 2);
+        for (String column : OAuth2AuthorizationRecords.COLUMNS) {
+            record.put(column, readColumn(rs, column));
+        }
+        return OAuth2AuthorizationRecords.fromRecord(record, registeredClient, this.codec);
+    }
+
+    @Nullable
+    private static Object readColumn(ResultSet rs, String column) throws SQLException {
+        if (OAuth2AuthorizationRecords.isTimestampColumn(column)) {
+            Timestamp timestamp = rs.getTimestamp(column);
+            return timestamp != null ? timestamp.toInstant() : null;
+        } else if (OAuth2AuthorizationRecords.isBinaryColumn(column)) {
+            return rs.getBytes(column);
+        } else if (OAuth2AuthorizationRecords.isTokenValueColumn(column)) {
+            byte[] value = rs.getBytes(column);
+            return value != null ? new String(value, StandardCharsets.UTF_8) : null;
+        }
+        return rs.getString(column);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // 雜湊
+    // ---------------------------------------------------------------------------------------------
+
+    @Nullable
+    private static byte[] hashOrNull(@Nullable OAuth2Authorization.Token<?> token) {
+        return token != null ? OAuth2AuthorizationTokens.hash(token.getToken().getTokenValue()) : null;
+    }
+
+    @Nullable
+    private static byte[] hashOrNull(@Nullable String value) {
+        return StringUtils.hasText(value) ? OAuth2AuthorizationTokens.hash(value) : null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+
+/**
+ * oauth2_authorization 中 attributes 與各 Token metadata 欄位的編碼方式
+ */
+public interface OAuth2AuthorizationCodec {
+
+    byte[] encode(Map<String, Object> data);
+
+    Map<String, Object> decode(@Nullable byte[] data);
+}
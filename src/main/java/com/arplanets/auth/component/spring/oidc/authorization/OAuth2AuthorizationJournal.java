@@ -0,0 +1,293 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.util.Assert;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Write-behind 模式使用的本機 append-only journal
+ * 每筆紀錄格式為 [長度 int][CRC32 int][以 OAuth2AuthorizationCodec 編碼的欄位資料]，依序號分成多個 segment 檔案
+ * 欄位資料與 oauth2_authorization 資料表相同 (見 OAuth2AuthorizationRecords)，格式不受 Spring Security 類別版本影響
+ * flush 前先切換到新的 segment，flush 成功後刪除舊 segment (checkpoint)
+ */
+@Slf4j
+public class OAuth2AuthorizationJournal implements AutoCloseable {
+
+    public enum FsyncPolicy {
+        // 每筆寫入後立即 fsync
+        ALWAYS,
+        // 由呼叫端定期呼叫 sync()
+        BATCH,
+        // 交由作業系統決定
+        NEVER
+    }
+
+    /**
+     * journal 中的一筆異動，removal 為 true 代表刪除
+     */
+    public record Entry(OAuth2Authorization authorization, boolean removal) {
+
+        public String id() {
+            return authorization.getId();
+        }
+    }
+
+    private static final String SEGMENT_PREFIX = "authorization-";
+    private static final String SEGMENT_SUFFIX = ".journal";
+    private static final String REMOVAL = "removal";
+
+    private final Path directory;
+    private final FsyncPolicy fsyncPolicy;
+    private final OAuth2AuthorizationCodec codec;
+    private final RegisteredClientRepository registeredClientRepository;
+
+    private FileChannel channel;
+    private long segment;
+
+    public OAuth2AuthorizationJournal(Path directory, FsyncPolicy fsyncPolicy, OAuth2AuthorizationCodec codec,
+                                      RegisteredClientRepository registeredClientRepository) {
+        Assert.notNull(directory, "directory cannot be null");
+        Assert.notNull(fsyncPolicy, "fsyncPolicy cannot be null");
+        Assert.notNull(codec, "codec cannot be null");
+        Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+        this.directory = directory;
+        this.fsyncPolicy = fsyncPolicy;
+        this.codec = codec;
+        this.registeredClientRepository = registeredClientRepository;
+        try {
+            Files.createDirectories(directory);
+            List<Long> segments = segments();
+            this.segment = segments.isEmpty() ? 0 : segments.get(segments.size() - 1) + 1;
+            this.channel = open(this.segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open authorization journal in " + directory, e);
+        }
+    }
+
+    /**
+     * 依序讀取所有 segment 中的紀錄，遇到不完整或 CRC 錯誤的紀錄時停止讀取該 segment
+     * 無法解碼或 Client 已不存在的紀錄略過
+     */
+    public synchronized void replay(Consumer<Entry> consumer) {
+        for (Long seq : segments()) {
+            if (seq == this.segment) {
+                continue;
+            }
+            Path path = path(seq);
+            int count = 0;
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                while (true) {
+                    byte[] payload = read(in);
+                    if (payload == null) {
+                        break;
+                    }
+                    Entry entry = deserialize(payload);
+                    if (entry != null) {
+                        consumer.accept(entry);
+                        count++;
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Failed to read authorization journal segment {}", path, e);
+            }
+            log.info("Replayed {} entries from authorization journal segment {}", count, path);
+        }
+    }
+
+    public synchronized void append(Entry entry) {
+        byte[] payload = serialize(entry);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(payload);
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                this.channel.write(buffer);
+            }
+            if (this.fsyncPolicy == FsyncPolicy.ALWAYS) {
+                this.channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to append to authorization journal", e);
+        }
+    }
+
+    public synchronized void sync() {
+        if (this.fsyncPolicy == FsyncPolicy.NEVER) {
+            return;
+        }
+        try {
+            this.channel.force(false);
+        } catch (IOException e) {
+            log.warn("Failed to fsync authorization journal", e);
+        }
+    }
+
+    /**
+     * 切換到新的 segment，回傳切換前的 segment 序號，之後可用 {@link #checkpoint(long)} 刪除
+     */
+    public synchronized long roll() {
+        long previous = this.segment;
+        try {
+            this.channel.force(false);
+            this.channel.close();
+            this.segment = previous + 1;
+            this.channel = open(this.segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to roll authorization journal", e);
+        }
+        return previous;
+    }
+
+    /**
+     * 刪除序號小於等於 segment 的檔案 (其中的異動都已寫入資料庫)
+     */
+    public synchronized void checkpoint(long segment) {
+        for (Long seq : segments()) {
+            if (seq <= segment && seq != this.segment) {
+                try {
+                    Files.deleteIfExists(path(seq));
+                } catch (IOException e) {
+                    log.warn("Failed to delete authorization journal segment {}", path(seq), e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            this.channel.force(false);
+            this.channel.close();
+        } catch (IOException e) {
+            log.warn("Failed to close authorization journal", e);
+        }
+    }
+
+    @Nullable
+    private static byte[] read(DataInputStream in) throws IOException {
+        int length;
+        int checksum;
+        byte[] payload;
+        try {
+            length = in.readInt();
+            checksum = in.readInt();
+            if (length <= 0) {
+                return null;
+            }
+            payload = new byte[length];
+            in.readFully(payload);
+        } catch (EOFException e) {
+            // 最後一筆寫入不完整
+            return null;
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        if ((int) crc.getValue() != checksum) {
+            log.warn("Authorization journal entry checksum mismatch, ignoring the rest of the segment");
+            return null;
+        }
+        return payload;
+    }
+
+    /**
+     * 時間欄位轉為 ISO-8601 字串、attributes 與 metadata 轉為 Base64 字串後以 codec 編碼
+     */
+    private byte[] serialize(Entry entry) {
+        Map<String, Object> record = OAuth2AuthorizationRecords.toRecord(entry.authorization(), this.codec);
+        Map<String, Object> data = new HashMap<>(record.size() * 2);
+        record.forEach((column, value) -> {
+            if (value instanceof Instant instant) {
+                data.put(column, instant.toString());
+            } else if (value instanceof byte[] bytes) {
+                data.put(column, Base64.getEncoder().encodeToString(bytes));
+            } else if (value != null) {
+                data.put(column, value);
+            }
+        });
+        data.put(REMOVAL, entry.removal());
+        return this.codec.encode(data);
+    }
+
+    @Nullable
+    private Entry deserialize(byte[] payload) {
+        try {
+            Map<String, Object> data = this.codec.decode(payload);
+            Map<String, Object> record = new HashMap<>(data.size() * 2);
+            for (String column : OAuth2AuthorizationRecords.COLUMNS) {
+                String value = (String) data.get(column);
+                if (value == null) {
+                    continue;
+                }
+                if (OAuth2AuthorizationRecords.isTimestampColumn(column)) {
+                    record.put(column, Instant.parse(value));
+                } else if (OAuth2AuthorizationRecords.isBinaryColumn(column)) {
+                    record.put(column, Base64.getDecoder().decode(value));
+                } else {
+                    record.put(column, value);
+                }
+            }
+
+            String registeredClientId = (String) record.get("registered_client_id");
+            RegisteredClient registeredClient = this.registeredClientRepository.findById(registeredClientId);
+            if (registeredClient == null) {
+                log.warn("Skip journal entry of authorization {}: RegisteredClient '{}' not found", record.get("id"), registeredClientId);
+                return null;
+            }
+            return new Entry(OAuth2AuthorizationRecords.fromRecord(record, registeredClient, this.codec),
+                    Boolean.TRUE.equals(data.get(REMOVAL)));
+        } catch (Exception e) {
+            log.warn("Skip unreadable authorization journal entry: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private FileChannel open(long seq) throws IOException {
+        return FileChannel.open(path(seq), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private Path path(long seq) {
+        return this.directory.resolve(SEGMENT_PREFIX + String.format("%019d", seq) + SEGMENT_SUFFIX);
+    }
+
+    private List<Long> segments() {
+        List<Long> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to list authorization journal segments in " + this.directory, e);
+        }
+        segments.sort(Long::compare);
+        return segments;
+    }
+}
@@ -0,0 +1,205 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 定期清除 oauth2_authorization 中已過期的資料
+ * 逐一 User Pool 依主鍵順序分批掃描避免長交易；每次執行以時間為上限，未完成的部分由下一次從游標接續
+ * 每批之間依 rows-per-second 暫停，限制對資料庫的負載；在自己的執行緒上執行，暫停時不佔用共用的排程執行緒
+ */
+@Component
+@ConditionalOnProperty(value = "auth.authorization.reaper.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class OAuth2AuthorizationReaper {
+
+    // Code、Access Token、Refresh Token 皆已過期 (未發出的視為已過期)，且至少發出過其中一種
+    private static final String EXPIRED_CONDITION =
+            "(authorization_code_expires_at IS NOT NULL OR access_token_expires_at IS NOT NULL OR refresh_token_expires_at IS NOT NULL) " +
+            "AND (authorization_code_expires_at IS NULL OR authorization_code_expires_at < ?) " +
+            "AND (access_token_expires_at IS NULL OR access_token_expires_at < ?) " +
+            "AND (refresh_token_expires_at IS NULL OR refresh_token_expires_at < ?)";
+
+    private static final String SELECT_USER_POOL_IDS_SQL = "SELECT DISTINCT user_pool_id FROM oauth2_authorization ORDER BY user_pool_id";
+
+    // 一次只掃描一個 User Pool 的 partition
+    private static final String SELECT_EXPIRED_IDS_SQL = "SELECT id FROM oauth2_authorization " +
+            "WHERE user_pool_id = ? AND id > ? AND " + EXPIRED_CONDITION + " ORDER BY id LIMIT ?";
+
+    private static final String DELETE_EXPIRED_SQL = "DELETE FROM oauth2_authorization WHERE user_pool_id = ? AND id IN (%s) AND " + EXPIRED_CONDITION;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.authorization.reaper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${auth.authorization.reaper.max-run-time:30s}")
+    private Duration maxRunTime;
+
+    @Value("${auth.authorization.reaper.grace-period:5m}")
+    private Duration gracePeriod;
+
+    // 每秒最多掃描的列數，0 代表不限制
+    @Value("${auth.authorization.reaper.rows-per-second:1000}")
+    private int rowsPerSecond;
+
+    @Value("${auth.authorization.reaper.interval:5m}")
+    private Duration interval;
+
+    @Value("${auth.authorization.reaper.initial-delay:1m}")
+    private Duration initialDelay;
+
+    private ScheduledExecutorService executor;
+
+    private Counter purgedCounter;
+    private Timer batchTimer;
+
+    // 下一次掃描的起點 (User Pool 與該 Pool 中的 ID)，跑完所有 User Pool 後歸零
+    private String cursorUserPoolId = "";
+    private String lastId = "";
+
+    // 最近一次完整掃描結束的時間
+    private volatile Instant lastCompletedPassAt = Instant.now();
+
+    @PostConstruct
+    public void initialize() {
+        this.purgedCounter = Counter.builder("oauth2_authorization_reaper_purged")
+                .description("Expired oauth2_authorization rows deleted")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("oauth2_authorization_reaper_batch")
+                .description("Latency of one select-and-delete batch")
+                .register(meterRegistry);
+        Gauge.builder("oauth2_authorization_reaper_lag_seconds", this,
+                        reaper -> Duration.between(reaper.lastCompletedPassAt, Instant.now()).toSeconds())
+                .description("Seconds since the last completed pass over oauth2_authorization")
+                .register(meterRegistry);
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "authorization-reaper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleWithFixedDelay(this::purgeExpired, initialDelay.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    public void purgeExpired() {
+        int batches = 0;
+        Instant deadline = Instant.now().plus(maxRunTime);
+        double purgedBefore = purgedCounter.count();
+
+        try {
+            List<String> userPoolIds = jdbcTemplate.queryForList(SELECT_USER_POOL_IDS_SQL, String.class);
+            boolean passCompleted = true;
+
+            for (String userPoolId : userPoolIds) {
+                if (userPoolId.compareTo(cursorUserPoolId) < 0) {
+                    continue;
+                }
+                if (!userPoolId.equals(cursorUserPoolId)) {
+                    cursorUserPoolId = userPoolId;
+                    lastId = "";
+                }
+
+                boolean poolCompleted = false;
+                while (Instant.now().isBefore(deadline)) {
+                    Timestamp expiredBefore = Timestamp.from(Instant.now().minus(gracePeriod));
+                    long startedAt = System.nanoTime();
+                    List<String> ids = batchTimer.record(() -> purgeBatch(userPoolId, expiredBefore));
+                    batches++;
+
+                    if (ids.size() < batchSize) {
+                        // 已掃描到此 User Pool 的最後一筆
+                        poolCompleted = true;
+                        break;
+                    }
+                    lastId = ids.get(ids.size() - 1);
+                    throttle(ids.size(), System.nanoTime() - startedAt, deadline);
+                }
+
+                if (!poolCompleted) {
+                    passCompleted = false;
+                    break;
+                }
+            }
+
+            if (passCompleted) {
+                cursorUserPoolId = "";
+                lastId = "";
+                lastCompletedPassAt = Instant.now();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Failed to purge expired oauth2_authorization rows of user pool '{}' after id '{}'", cursorUserPoolId, lastId, e);
+        }
+
+        log.debug("oauth2_authorization reaper deleted {} row(s) in {} batch(es)", (long) (purgedCounter.count() - purgedBefore), batches);
+    }
+
+    /**
+     * 依 rows-per-second 暫停到這批應花費的時間，最多暫停到本次執行的時間上限
+     */
+    private void throttle(int rows, long elapsedNanos, Instant deadline) throws InterruptedException {
+        if (rowsPerSecond <= 0) {
+            return;
+        }
+        long pauseMillis = rows * 1000L / rowsPerSecond - TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        long remainingMillis = Duration.between(Instant.now(), deadline).toMillis();
+        long sleepMillis = Math.min(pauseMillis, remainingMillis);
+        if (sleepMillis > 0) {
+            Thread.sleep(sleepMillis);
+        }
+    }
+
+    /**
+     * 取出一批已過期的 ID 並刪除，回傳該批掃描到的 ID
+     */
+    private List<String> purgeBatch(String userPoolId, Timestamp expiredBefore) {
+        List<String> ids = jdbcTemplate.queryForList(SELECT_EXPIRED_IDS_SQL, String.class,
+                userPoolId, lastId, expiredBefore, expiredBefore, expiredBefore, batchSize);
+        if (ids.isEmpty()) {
+            return ids;
+        }
+
+        // 刪除時再次檢查過期條件，避免刪到掃描後剛被換發 Token 的資料
+        String sql = String.format(DELETE_EXPIRED_SQL, String.join(",", Collections.nCopies(ids.size(), "?")));
+        Object[] args = new Object[ids.size() + 4];
+        args[0] = userPoolId;
+        for (int i = 0; i < ids.size(); i++) {
+            args[i + 1] = ids.get(i);
+        }
+        args[ids.size() + 1] = expiredBefore;
+        args[ids.size() + 2] = expiredBefore;
+        args[ids.size() + 3] = expiredBefore;
+
+        int deleted = jdbcTemplate.update(sql, args);
+        purgedCounter.increment(deleted);
+        return ids;
+    }
+}
@@ -0,0 +1,205 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * OAuth2Authorization 與欄位資料 (欄位名稱 -> 值) 之間的轉換，供各種 OAuth2AuthorizationService 實作共用
+ * 欄位名稱與 oauth2_authorization 資料表相同，值的型別為 String、Instant (時間欄位) 或 byte[] (attributes、metadata)
+ */
+public final class OAuth2AuthorizationRecords {
+
+    public static final List<String> COLUMNS = List.of(
+            "id", "registered_client_id", "principal_name", "authorization_grant_type", "authorized_scopes", "attributes", "state",
+            "authorization_code_value", "authorization_code_issued_at", "authorization_code_expires_at", "authorization_code_metadata",
+            "access_token_value", "access_token_issued_at", "access_token_expires_at", "access_token_metadata", "access_token_type", "access_token_scopes",
+            "oidc_id_token_value", "oidc_id_token_issued_at", "oidc_id_token_expires_at", "oidc_id_token_metadata",
+            "refresh_token_value", "refresh_token_issued_at", "refresh_token_expires_at", "refresh_token_metadata",
+            "user_code_value", "user_code_issued_at", "user_code_expires_at", "user_code_metadata",
+            "device_code_value", "device_code_issued_at", "device_code_expires_at", "device_code_metadata");
+
+    private OAuth2AuthorizationRecords() {
+    }
+
+    public static boolean isTimestampColumn(String column) {
+        return column.endsWith("_issued_at") || column.endsWith("_expires_at");
+    }
+
+    public static boolean isBinaryColumn(String column) {
+        return "attributes".equals(column) || column.endsWith("_metadata");
+    }
+
+    /**
+     * Token 值欄位 (資料表中為 BLOB)
+     */
+    public static boolean isTokenValueColumn(String column) {
+        return column.endsWith("_value");
+    }
+
+    /**
+     * 依 COLUMNS 順序轉成欄位資料，沒有值的欄位為 null
+     */
+    public static Map<String, Object> toRecord(OAuth2Authorization authorization, OAuth2AuthorizationCodec codec) {
+        Map<String, Object> record = new LinkedHashMap<>(COLUMNS.size() * 2);
+        record.put("id", authorization.getId());
+        record.put("registered_client_id", authorization.getRegisteredClientId());
+        record.put("principal_name", authorization.getPrincipalName());
+        record.put("authorization_grant_type", authorization.getAuthorizationGrantType().getValue());
+        record.put("authorized_scopes", !CollectionUtils.isEmpty(authorization.getAuthorizedScopes())
+                ? StringUtils.collectionToDelimitedString(authorization.getAuthorizedScopes(), ",")
+                : null);
+        record.put("attributes", codec.encode(authorization.getAttributes()));
+        String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        record.put("state", StringUtils.hasText(state) ? state : null);
+
+        putToken(record, "authorization_code", authorization.getToken(OAuth2AuthorizationCode.class), codec);
+
+        OAuth2Authorization.Token<OAuth2AccessToken> accessToken = authorization.getToken(OAuth2AccessToken.class);
+        putToken(record, "access_token", accessToken, codec);
+        String accessTokenType = null;
+        String accessTokenScopes = null;
+        if (accessToken != null) {
+            accessTokenType = accessToken.getToken().getTokenType().getValue();
+            if (!CollectionUtils.isEmpty(accessToken.getToken().getScopes())) {
+                accessTokenScopes = StringUtils.collectionToDelimitedString(accessToken.getToken().getScopes(), ",");
+            }
+        }
+        record.put("access_token_type", accessTokenType);
+        record.put("access_token_scopes", accessTokenScopes);
+
+        putToken(record, "oidc_id_token", authorization.getToken(OidcIdToken.class), codec);
+        putToken(record, "refresh_token", authorization.getToken(OAuth2RefreshToken.class), codec);
+        putToken(record, "user_code", authorization.getToken(OAuth2UserCode.class), codec);
+        putToken(record, "device_code", authorization.getToken(OAuth2DeviceCode.class), codec);
+        return record;
+    }
+
+    /**
+     * 由欄位資料還原 OAuth2Authorization
+     */
+    public static OAuth2Authorization fromRecord(Map<String, Object> record, RegisteredClient registeredClient, OAuth2AuthorizationCodec codec) {
+        OAuth2Authorization.Builder builder = OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(string(record, "id"))
+                .principalName(string(record, "principal_name"))
+                .authorizationGrantType(new AuthorizationGrantType(string(record, "authorization_grant_type")))
+                .authorizedScopes(StringUtils.commaDelimitedListToSet(string(record, "authorized_scopes")));
+
+        Map<String, Object> attributes = codec.decode(bytes(record, "attributes"));
+        builder.attributes(attrs -> attrs.putAll(attributes));
+
+        String state = string(record, "state");
+        if (StringUtils.hasText(state)) {
+            builder.attribute(OAuth2ParameterNames.STATE, state);
+        }
+
+        String authorizationCodeValue = string(record, "authorization_code_value");
+        if (StringUtils.hasText(authorizationCodeValue)) {
+            OAuth2AuthorizationCode authorizationCode = new OAuth2AuthorizationCode(authorizationCodeValue,
+                    instant(record, "authorization_code_issued_at"), instant(record, "authorization_code_expires_at"));
+            Map<String, Object> metadata = codec.decode(bytes(record, "authorization_code_metadata"));
+            builder.token(authorizationCode, tokenMetadata -> tokenMetadata.putAll(metadata));
+        }
+
+        String accessTokenValue = string(record, "access_token_value");
+        if (StringUtils.hasText(accessTokenValue)) {
+            OAuth2AccessToken.TokenType tokenType = null;
+            if (OAuth2AccessToken.TokenType.BEARER.getValue().equalsIgnoreCase(string(record, "access_token_type"))) {
+                tokenType = OAuth2AccessToken.TokenType.BEARER;
+            }
+            Set<String> scopes = Collections.emptySet();
+            String accessTokenScopes = string(record, "access_token_scopes");
+            if (accessTokenScopes != null) {
+                scopes = StringUtils.commaDelimitedListToSet(accessTokenScopes);
+            }
+            OAuth2AccessToken accessToken = new OAuth2AccessToken(tokenType, accessTokenValue,
+                    instant(record, "access_token_issued_at"), instant(record, "access_token_expires_at"), scopes);
+            Map<String, Object> metadata = codec.decode(bytes(record, "access_token_metadata"));
+            builder.token(accessToken, tokenMetadata -> tokenMetadata.putAll(metadata));
+        }
+
+        String oidcIdTokenValue = string(record, "oidc_id_token_value");
+        if (StringUtils.hasText(oidcIdTokenValue)) {
+            Map<String, Object> metadata = codec.decode(bytes(record, "oidc_id_token_metadata"));
+            @SuppressWarnings("unchecked")
+            Map<String, Object> claims = (Map<String, Object>) metadata.get(OAuth2Authorization.Token.CLAIMS_METADATA_NAME);
+            OidcIdToken oidcIdToken = new OidcIdToken(oidcIdTokenValue,
+                    instant(record, "oidc_id_token_issued_at"), instant(record, "oidc_id_token_expires_at"), claims);
+            builder.token(oidcIdToken, tokenMetadata -> tokenMetadata.putAll(metadata));
+        }
+
+        String refreshTokenValue = string(record, "refresh_token_value");
+        if (StringUtils.hasText(refreshTokenValue)) {
+            OAuth2RefreshToken refreshToken = new OAuth2RefreshToken(refreshTokenValue,
+                    instant(record, "refresh_token_issued_at"), instant(record, "refresh_token_expires_at"));
+            Map<String, Object> metadata = codec.decode(bytes(record, "refresh_token_metadata"));
+            builder.token(refreshToken, tokenMetadata -> tokenMetadata.putAll(metadata));
+        }
+
+        String userCodeValue = string(record, "user_code_value");
+        if (StringUtils.hasText(userCodeValue)) {
+            OAuth2UserCode userCode = new OAuth2UserCode(userCodeValue,
+                    instant(record, "user_code_issued_at"), instant(record, "user_code_expires_at"));
+            Map<String, Object> metadata = codec.decode(bytes(record, "user_code_metadata"));
+            builder.token(userCode, tokenMetadata -> tokenMetadata.putAll(metadata));
+        }
+
+        String deviceCodeValue = string(record, "device_code_value");
+        if (StringUtils.hasText(deviceCodeValue)) {
+            OAuth2DeviceCode deviceCode = new OAuth2DeviceCode(deviceCodeValue,
+                    instant(record, "device_code_issued_at"), instant(record, "device_code_expires_at"));
+            Map<String, Object> metadata = codec.decode(bytes(record, "device_code_metadata"));
+            builder.token(deviceCode, tokenMetadata -> tokenMetadata.putAll(metadata));
+        }
+
+        return builder.build();
+    }
+
+    private static void putToken(Map<String, Object> record, String prefix, @Nullable OAuth2Authorization.Token<?> token, OAuth2AuthorizationCodec codec) {
+        if (token == null) {
+            record.put(prefix + "_value", null);
+            record.put(prefix + "_issued_at", null);
+            record.put(prefix + "_expires_at", null);
+            record.put(prefix + "_metadata", null);
+            return;
+        }
+        OAuth2Token oauth2Token = token.getToken();
+        record.put(prefix + "_value", oauth2Token.getTokenValue());
+        record.put(prefix + "_issued_at", oauth2Token.getIssuedAt());
+        record.put(prefix + "_expires_at", oauth2Token.getExpiresAt());
+        record.put(prefix + "_metadata", codec.encode(token.getMetadata()));
+    }
+
+    @Nullable
+    private static String string(Map<String, Object> record, String column) {
+        return (String) record.get(column);
+    }
+
+    @Nullable
+    private static Instant instant(Map<String, Object> record, String column) {
+        return (Instant) record.get(column);
+    }
+
+    @Nullable
+    private static byte[] bytes(Map<String, Object> record, String column) {
+        return (byte[]) record.get(column);
+    }
+}
@@ -0,0 +1,128 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2Token;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * OAuth2Authorization 中 state 及各類 Token 的共用判斷
+ * 比對規則與 Spring 的 InMemoryOAuth2AuthorizationService 相同
+ */
+public final class OAuth2AuthorizationTokens {
+
+    public static final OAuth2TokenType STATE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.STATE);
+    public static final OAuth2TokenType CODE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.CODE);
+    public static final OAuth2TokenType ID_TOKEN_TOKEN_TYPE = new OAuth2TokenType(OidcParameterNames.ID_TOKEN);
+    public static final OAuth2TokenType USER_CODE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.USER_CODE);
+    public static final OAuth2TokenType DEVICE_CODE_TOKEN_TYPE = new OAuth2TokenType(OAuth2ParameterNames.DEVICE_CODE);
+
+    private static final List<Class<? extends OAuth2Token>> TOKEN_CLASSES = List.of(
+            OAuth2AuthorizationCode.class,
+            OAuth2AccessToken.class,
+            OidcIdToken.class,
+            OAuth2RefreshToken.class,
+            OAuth2UserCode.class,
+            OAuth2DeviceCode.class);
+
+    private OAuth2AuthorizationTokens() {
+    }
+
+    /**
+     * 取得 Authorization 中 state 以及所有 Token 的值
+     */
+    public static List<String> values(OAuth2Authorization authorization) {
+        List<String> values = new ArrayList<>(4);
+        String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        if (state != null) {
+            values.add(state);
+        }
+        for (Class<? extends OAuth2Token> tokenClass : TOKEN_CLASSES) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenClass);
+            if (token != null) {
+                values.add(token.getToken().getTokenValue());
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 取得 Authorization 中最晚簽發的 Token 簽發時間，沒有 Token 時回傳 Instant.MIN
+     */
+    public static Instant latestIssuedAt(OAuth2Authorization authorization) {
+        Instant latest = Instant.MIN;
+        for (Class<? extends OAuth2Token> tokenClass : TOKEN_CLASSES) {
+            OAuth2Authorization.Token<? extends OAuth2Token> token = authorization.getToken(tokenClass);
+            Instant issuedAt = token != null ? token.getToken().getIssuedAt() : null;
+            if (issuedAt != null && issuedAt.isAfter(latest)) {
+                latest = issuedAt;
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * 判斷 Authorization 是否包含指定類型的 Token，tokenType 為 null 時比對所有類型
+     */
+    public static boolean matches(OAuth2Authorization authorization, String token, @Nullable OAuth2TokenType tokenType) {
+        if (tokenType == null) {
+            return matchesState(authorization, token)
+                    || matchesToken(authorization, OAuth2AuthorizationCode.class, token)
+                    || matchesToken(authorization, OAuth2AccessToken.class, token)
+                    || matchesToken(authorization, OidcIdToken.class, token)
+                    || matchesToken(authorization, OAuth2RefreshToken.class, token)
+                    || matchesToken(authorization, OAuth2UserCode.class, token)
+                    || matchesToken(authorization, OAuth2DeviceCode.class, token);
+        } else if (STATE_TOKEN_TYPE.equals(tokenType)) {
+            return matchesState(authorization, token);
+        } else if (CODE_TOKEN_TYPE.equals(tokenType)) {
+            return matchesToken(authorization, OAuth2AuthorizationCode.class, token);
+        } else if (OAuth2TokenType.ACCESS_TOKEN.equals(tokenType)) {
+            return matchesToken(authorization, OAuth2AccessToken.class, token);
+        } else if (ID_TOKEN_TOKEN_TYPE.equals(tokenType)) {
+            return matchesToken(authorization, OidcIdToken.class, token);
+        } else if (OAuth2TokenType.REFRESH_TOKEN.equals(tokenType)) {
+            return matchesToken(authorization, OAuth2RefreshToken.class, token);
+        } else if (USER_CODE_TOKEN_TYPE.equals(tokenType)) {
+            return matchesToken(authorization, OAuth2UserCode.class, token);
+        } else if (DEVICE_CODE_TOKEN_TYPE.equals(tokenType)) {
+            return matchesToken(authorization, OAuth2DeviceCode.class, token);
+        }
+        return false;
+    }
+
+    /**
+     * Token 值的 SHA-256 雜湊，作為資料庫與快取中的查詢索引
+     */
+    public static byte[] hash(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static boolean matchesState(OAuth2Authorization authorization, String token) {
+        return token.equals(authorization.getAttribute(OAuth2ParameterNames.STATE));
+    }
+
+    private static boolean matchesToken(OAuth2Authorization authorization, Class<? extends OAuth2Token> tokenClass, String token) {
+        OAuth2Authorization.Token<? extends OAuth2Token> authorizationToken = authorization.getToken(tokenClass);
+        return authorizationToken != null && authorizationToken.getToken().getTokenValue().equals(token);
+    }
+}
@@ -0,0 +1,270 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataRetrievalFailureException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2DeviceCode;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.OAuth2UserCode;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 以 Redis 儲存 OAuth2Authorization，多台機器可共用而不需每次查詢 MySQL
+ * 每筆 Authorization 存成一個 Hash (欄位與 oauth2_authorization 相同)，並以 Token 雜湊建立指向 ID 的索引 key
+ * 兩者皆設定 TTL，到期後由 Redis 自動刪除
+ */
+@Slf4j
+public class RedisOAuth2AuthorizationService implements OAuth2AuthorizationService {
+
+    private static final String AUTHORIZATION_KEY_PREFIX = "oauth2:authorization:";
+    private static final String TOKEN_KEY_PREFIX = "oauth2:authorization-token:";
+
+    private static final List<OAuth2TokenType> TOKEN_TYPES = List.of(
+            OAuth2AuthorizationTokens.STATE_TOKEN_TYPE,
+            OAuth2AuthorizationTokens.CODE_TOKEN_TYPE,
+            OAuth2TokenType.ACCESS_TOKEN,
+            OAuth2AuthorizationTokens.ID_TOKEN_TOKEN_TYPE,
+            OAuth2TokenType.REFRESH_TOKEN,
+            OAuth2AuthorizationTokens.USER_CODE_TOKEN_TYPE,
+            OAuth2AuthorizationTokens.DEVICE_CODE_TOKEN_TYPE);
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+    private final RegisteredClientRepository registeredClientRepository;
+    private final OAuth2AuthorizationCodec codec;
+    private final Duration defaultTtl;
+
+    private record TokenIndex(String key, Duration ttl) {
+    }
+
+    public RedisOAuth2AuthorizationService(RedisConnectionFactory connectionFactory, RegisteredClientRepository registeredClientRepository,
+                                           OAuth2AuthorizationCodec codec, Duration defaultTtl) {
+        Assert.notNull(connectionFactory, "connectionFactory cannot be null");
+        Assert.notNull(registeredClientRepository, "registeredClientRepository cannot be null");
+        Assert.notNull(codec, "codec cannot be null");
+        Assert.notNull(defaultTtl, "defaultTtl cannot be null");
+        this.registeredClientRepository = registeredClientRepository;
+        this.codec = codec;
+        this.defaultTtl = defaultTtl;
+
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.setHashKeySerializer(RedisSerializer.string());
+        template.setHashValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        this.redisTemplate = template;
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+
+        Map<String, Object> record = OAuth2AuthorizationRecords.toRecord(authorization, this.codec);
+        Map<String, byte[]> fields = new HashMap<>(record.size() * 2);
+        record.forEach((column, value) -> {
+            if (value != null) {
+                fields.put(column, encode(value));
+            }
+        });
+
+        Instant now = Instant.now();
+        Instant expiresAt = expiresAt(authorization, now);
+        List<TokenIndex> indexes = tokenIndexes(authorization, now, expiresAt);
+        String key = authorizationKey(authorization.getId());
+        byte[] id = authorization.getId().getBytes(StandardCharsets.UTF_8);
+
+        this.redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, byte[]> ops = (RedisOperations<String, byte[]>) operations;
+                ops.multi();
+                ops.delete(key);
+                ops.opsForHash().putAll(key, fields);
+                ops.expireAt(key, expiresAt);
+                for (TokenIndex index : indexes) {
+                    ops.opsForValue().set(index.key(), id, index.ttl());
+                }
+                return ops.exec();
+            }
+        });
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        List<String> keys = new ArrayList<>();
+        keys.add(authorizationKey(authorization.getId()));
+        tokenIndexes(authorization, Instant.now(), Instant.MAX).forEach(index -> keys.add(index.key()));
+        this.redisTemplate.delete(keys);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        Map<Object, Object> fields = this.redisTemplate.opsForHash().entries(authorizationKey(id));
+        if (fields.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> record = new HashMap<>(fields.size() * 2);
+        fields.forEach((column, value) -> record.put((String) column, decode((String) column, (byte[]) value)));
+
+        String registeredClientId = (String) record.get("registered_client_id");
+        RegisteredClient registeredClient = this.registeredClientRepository.findById(registeredClientId);
+        if (registeredClient == null) {
+            throw new DataRetrievalFailureException("The RegisteredClient with id '" + registeredClientId + "' was not found in the RegisteredClientRepository.");
+        }
+        return OAuth2AuthorizationRecords.fromRecord(record, registeredClient, this.codec);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+
+        String authorizationId = null;
+        if (tokenType == null) {
+            List<String> keys = TOKEN_TYPES.stream().map(type -> tokenKey(type, token)).toList();
+            List<byte[]> ids = this.redisTemplate.opsForValue().multiGet(keys);
+            if (ids != null) {
+                authorizationId = ids.stream()
+                        .filter(Objects::nonNull)
+                        .map(value -> new String(value, StandardCharsets.UTF_8))
+                        .findFirst()
+                        .orElse(null);
+            }
+        } else if (TOKEN_TYPES.contains(tokenType)) {
+            byte[] id = this.redisTemplate.opsForValue().get(tokenKey(tokenType, token));
+            authorizationId = id != null ? new String(id, StandardCharsets.UTF_8) : null;
+        }
+
+        if (authorizationId == null) {
+            return null;
+        }
+
+        // 索引 key 可能仍指向已輪替 Token 的 Authorization，需再比對一次
+        OAuth2Authorization authorization = findById(authorizationId);
+        return authorization != null && OAuth2AuthorizationTokens.matches(authorization, token, tokenType) ? authorization : null;
+    }
+
+    /**
+     * Authorization 的存活時間為各 Token 中最晚的到期時間，尚未發出 Token 者使用預設值
+     */
+    private Instant expiresAt(OAuth2Authorization authorization, Instant now) {
+        Instant expiresAt = null;
+        for (OAuth2Authorization.Token<?> token : tokens(authorization)) {
+            Instant tokenExpiresAt = token.getToken().getExpiresAt();
+            if (tokenExpiresAt != null && (expiresAt == null || tokenExpiresAt.isAfter(expiresAt))) {
+                expiresAt = tokenExpiresAt;
+            }
+        }
+        Instant minimum = now.plus(this.defaultTtl);
+        return expiresAt == null || expiresAt.isBefore(now) ? minimum : expiresAt;
+    }
+
+    private List<TokenIndex> tokenIndexes(OAuth2Authorization authorization, Instant now, Instant authorizationExpiresAt) {
+        List<TokenIndex> indexes = new ArrayList<>(4);
+        String state = authorization.getAttribute(OAuth2ParameterNames.STATE);
+        if (StringUtils.hasText(state)) {
+            indexes.add(new TokenIndex(tokenKey(OAuth2AuthorizationTokens.STATE_TOKEN_TYPE, state), ttl(now, authorizationExpiresAt)));
+        }
+        addTokenIndex(indexes, OAuth2AuthorizationTokens.CODE_TOKEN_TYPE, authorization.getToken(OAuth2AuthorizationCode.class), now, authorizationExpiresAt);
+        addTokenIndex(indexes, OAuth2TokenType.ACCESS_TOKEN, authorization.getToken(OAuth2AccessToken.class), now, authorizationExpiresAt);
+        addTokenIndex(indexes, OAuth2AuthorizationTokens.ID_TOKEN_TOKEN_TYPE, authorization.getToken(OidcIdToken.class), now, authorizationExpiresAt);
+        addTokenIndex(indexes, OAuth2TokenType.REFRESH_TOKEN, authorization.getToken(OAuth2RefreshToken.class), now, authorizationExpiresAt);
+        addTokenIndex(indexes, OAuth2AuthorizationTokens.USER_CODE_TOKEN_TYPE, authorization.getToken(OAuth2UserCode.class), now, authorizationExpiresAt);
+        addTokenIndex(indexes, OAuth2AuthorizationTokens.DEVICE_CODE_TOKEN_TYPE, authorization.getToken(OAuth2DeviceCode.class), now, authorizationExpiresAt);
+        return indexes;
+    }
+
+    private static void addTokenIndex(List<TokenIndex> indexes, OAuth2TokenType tokenType, @Nullable OAuth2Authorization.Token<?> token,
+                                      Instant now, Instant authorizationExpiresAt) {
+        if (token == null) {
+            return;
+        }
+        Instant expiresAt = token.getToken().getExpiresAt();
+        if (expiresAt == null || expiresAt.isAfter(authorizationExpiresAt) || expiresAt.isBefore(now)) {
+            expiresAt = authorizationExpiresAt;
+        }
+        indexes.add(new TokenIndex(tokenKey(tokenType, token.getToken().getTokenValue()), ttl(now, expiresAt)));
+    }
+
+    private static List<OAuth2Authorization.Token<?>> tokens(OAuth2Authorization authorization) {
+        List<OAuth2Authorization.Token<?>> tokens = new ArrayList<>(4);
+        addIfPresent(tokens, authorization.getToken(OAuth2AuthorizationCode.class));
+        addIfPresent(tokens, authorization.getToken(OAuth2AccessToken.class));
+        addIfPresent(tokens, authorization.getToken(OidcIdToken.class));
+        addIfPresent(tokens, authorization.getToken(OAuth2RefreshToken.class));
+        addIfPresent(tokens, authorization.getToken(OAuth2UserCode.class));
+        addIfPresent(tokens, authorization.getToken(OAuth2DeviceCode.class));
+        return tokens;
+    }
+
+    private static void addIfPresent(List<OAuth2Authorization.Token<?>> tokens, @Nullable OAuth2Authorization.Token<?> token) {
+        if (token != null) {
+            tokens.add(token);
+        }
+    }
+
+    private static Duration ttl(Instant now, Instant expiresAt) {
+        Duration ttl = Duration.between(now, expiresAt);
+        return ttl.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : ttl;
+    }
+
+    private static String authorizationKey(String id) {
+        return AUTHORIZATION_KEY_PREFIX + id;
+    }
+
+    private static String tokenKey(OAuth2TokenType tokenType, String token) {
+        return TOKEN_KEY_PREFIX + tokenType.getValue() + ":" + HexFormat.of().formatHex(OAuth2AuthorizationTokens.hash(token));
+    }
+
+    private static byte[] encode(Object value) {
+        if (value instanceof byte[] bytes) {
+            return bytes;
+        } else if (value instanceof Instant instant) {
+            return Long.toString(instant.toEpochMilli()).getBytes(StandardCharsets.UTF_8);
+        }
+        return ((String) value).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Object decode(String column, byte[] value) {
+        if (OAuth2AuthorizationRecords.isBinaryColumn(column)) {
+            return value;
+        }
+        String text = new String(value, StandardCharsets.UTF_8);
+        if (OAuth2AuthorizationRecords.isTimestampColumn(column)) {
+            return Instant.ofEpochMilli(Long.parseLong(text));
+        }
+        return text;
+    }
+}
@@ -0,0 +1,131 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+
+/**
+ * 授權碼階段 (只有 state 或 code) 的 Authorization 只保存在記憶體中，並設定存活時間
+ * 發出 Access Token / Refresh Token 後才寫入 durable 的 OAuth2AuthorizationService
+ * 注意：code 換 Token 的請求必須回到同一台機器，多台部署時需有對應的導流設定
+ */
+@Slf4j
+public class TieredOAuth2AuthorizationService implements OAuth2AuthorizationService, DisposableBean {
+
+    private final OAuth2AuthorizationService durable;
+
+    // Authorization ID -> 授權碼階段的 Authorization
+    private final Cache<String, OAuth2Authorization> ephemeralById;
+
+    // state、code -> Authorization ID
+    private final Cache<String, String> ephemeralIdsByToken;
+
+    public TieredOAuth2AuthorizationService(OAuth2AuthorizationService durable, long maximumSize, Duration ttl, MeterRegistry meterRegistry) {
+        Assert.notNull(durable, "durable cannot be null");
+        Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+        Assert.notNull(ttl, "ttl cannot be null");
+        this.durable = durable;
+        this.ephemeralById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.ephemeralIdsByToken = Caffeine.newBuilder()
+                .maximumSize(maximumSize * 2)
+                .expireAfterWrite(ttl)
+                .build();
+
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, this.ephemeralById, "oauth2_authorization_ephemeral");
+        }
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        if (isEphemeral(authorization)) {
+            OAuth2Authorization previous = this.ephemeralById.asMap().put(authorization.getId(), authorization);
+            if (previous != null) {
+                this.ephemeralIdsByToken.invalidateAll(OAuth2AuthorizationTokens.values(previous));
+            }
+            OAuth2AuthorizationTokens.values(authorization)
+                    .forEach(tokenValue -> this.ephemeralIdsByToken.put(tokenValue, authorization.getId()));
+            return;
+        }
+
+        // 已發出 Token，寫入 durable store 後移出記憶體
+        this.durable.save(authorization);
+        evict(authorization.getId());
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        if (evict(authorization.getId()) && isEphemeral(authorization)) {
+            return;
+        }
+        this.durable.remove(authorization);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        OAuth2Authorization authorization = this.ephemeralById.getIfPresent(id);
+        return authorization != null ? authorization : this.durable.findById(id);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+        if (tokenType == null
+                || OAuth2AuthorizationTokens.STATE_TOKEN_TYPE.equals(tokenType)
+                || OAuth2AuthorizationTokens.CODE_TOKEN_TYPE.equals(tokenType)) {
+            String authorizationId = this.ephemeralIdsByToken.getIfPresent(token);
+            if (authorizationId != null) {
+                OAuth2Authorization authorization = this.ephemeralById.getIfPresent(authorizationId);
+                if (authorization != null && OAuth2AuthorizationTokens.matches(authorization, token, tokenType)) {
+                    return authorization;
+                }
+            }
+        }
+        return this.durable.findByToken(token, tokenType);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (this.durable instanceof DisposableBean disposableBean) {
+            disposableBean.destroy();
+        }
+    }
+
+    /**
+     * 尚未發出 Access Token 及 Refresh Token 者視為授權碼階段
+     */
+    private static boolean isEphemeral(OAuth2Authorization authorization) {
+        return authorization.getToken(OAuth2AccessToken.class) == null
+                && authorization.getToken(OAuth2RefreshToken.class) == null;
+    }
+
+    private boolean evict(String id) {
+        OAuth2Authorization removed = this.ephemeralById.asMap().remove(id);
+        if (removed != null) {
+            this.ephemeralIdsByToken.invalidateAll(OAuth2AuthorizationTokens.values(removed));
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,284 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationJournal.Entry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind 模式：save / remove 只寫入本機 journal 與記憶體中的最新版本，由背景執行緒合併後批次寫入資料庫
+ * 尚未寫入資料庫前，以記憶體中的版本為準；啟動時會重播 journal 中尚未寫入的異動
+ * delegate 支援 BatchOAuth2AuthorizationService 時每 BATCH_SIZE 筆批次寫入，該批失敗時只有該批改為逐筆寫入；
+ * 逐筆寫入失敗的留待下一次 flush 重試，連續失敗 maxAttempts 次後放棄 (記錄 log 與 dead_letter 指標)
+ * 注意：其他機器在 flush 前讀到的是資料庫中的舊版本，多台部署時 Token 端點需導流到同一台機器
+ */
+@Slf4j
+public class WriteBehindOAuth2AuthorizationService implements OAuth2AuthorizationService, DisposableBean {
+
+    // 每次批次寫入的筆數
+    private static final int BATCH_SIZE = 500;
+
+    private final OAuth2AuthorizationService delegate;
+    private final OAuth2AuthorizationJournal journal;
+
+    // Authorization ID -> 尚未寫入資料庫的最新異動
+    private final Map<String, Entry> pending = new ConcurrentHashMap<>();
+
+    // state、code、Token 值 -> 尚未寫入資料庫的 Authorization ID
+    private final Map<String, String> pendingIdsByToken = new ConcurrentHashMap<>();
+
+    // Authorization ID -> 連續寫入失敗次數
+    private final Map<String, Integer> failedAttempts = new ConcurrentHashMap<>();
+
+    private final int maxAttempts;
+    private final ScheduledExecutorService flusher;
+    private final Timer flushTimer;
+    private final Counter deadLetterCounter;
+
+    public WriteBehindOAuth2AuthorizationService(OAuth2AuthorizationService delegate, OAuth2AuthorizationJournal journal,
+                                                 Duration flushInterval, int maxAttempts, MeterRegistry meterRegistry) {
+        Assert.notNull(delegate, "delegate cannot be null");
+        Assert.notNull(journal, "journal cannot be null");
+        Assert.notNull(flushInterval, "flushInterval cannot be null");
+        Assert.isTrue(maxAttempts > 0, "maxAttempts must be greater than 0");
+        this.delegate = delegate;
+        this.journal = journal;
+        this.maxAttempts = maxAttempts;
+        this.flushTimer = Timer.builder("oauth2_authorization_write_behind_flush")
+                .description("Latency of flushing pending authorization changes to the database")
+                .register(meterRegistry);
+        this.deadLetterCounter = Counter.builder("oauth2_authorization_write_behind_dead_letter")
+                .description("Authorization changes dropped after repeatedly failing to be written to the database")
+                .register(meterRegistry);
+        Gauge.builder("oauth2_authorization_write_behind_pending", this.pending, Map::size)
+                .description("Authorization changes not yet written to the database")
+                .register(meterRegistry);
+
+        recover();
+
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "authorization-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        this.flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void save(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        record(new Entry(authorization, false));
+    }
+
+    @Override
+    public void remove(OAuth2Authorization authorization) {
+        Assert.notNull(authorization, "authorization cannot be null");
+        record(new Entry(authorization, true));
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findById(String id) {
+        Assert.hasText(id, "id cannot be empty");
+        Entry entry = this.pending.get(id);
+        if (entry != null) {
+            return entry.removal() ? null : entry.authorization();
+        }
+        return this.delegate.findById(id);
+    }
+
+    @Nullable
+    @Override
+    public OAuth2Authorization findByToken(String token, @Nullable OAuth2TokenType tokenType) {
+        Assert.hasText(token, "token cannot be empty");
+
+        String authorizationId = this.pendingIdsByToken.get(token);
+        if (authorizationId != null) {
+            Entry entry = this.pending.get(authorizationId);
+            if (entry != null) {
+                return matches(entry, token, tokenType) ? entry.authorization() : null;
+            }
+        }
+
+        OAuth2Authorization authorization = this.delegate.findByToken(token, tokenType);
+        if (authorization != null) {
+            // 資料庫中的版本可能已被尚未寫入的異動取代 (例如 Refresh Token 已輪替、已刪除)
+            Entry entry = this.pending.get(authorization.getId());
+            if (entry != null) {
+                return matches(entry, token, tokenType) ? entry.authorization() : null;
+            }
+        }
+        return authorization;
+    }
+
+    @Override
+    public void destroy() {
+        this.flusher.shutdown();
+        try {
+            this.flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        this.journal.close();
+    }
+
+    private static boolean matches(Entry entry, String token, @Nullable OAuth2TokenType tokenType) {
+        return !entry.removal() && OAuth2AuthorizationTokens.matches(entry.authorization(), token, tokenType);
+    }
+
+    /**
+     * 寫入 journal 與記憶體需在同一個鎖內完成，確保 roll 之前的紀錄在 flush 時都已可見
+     */
+    private void record(Entry entry) {
+        synchronized (this.journal) {
+            this.journal.append(entry);
+            apply(entry);
+        }
+    }
+
+    private void apply(Entry entry) {
+        Entry previous = this.pending.put(entry.id(), entry);
+        if (previous != null && !previous.removal()) {
+            OAuth2AuthorizationTokens.values(previous.authorization())
+                    .forEach(tokenValue -> this.pendingIdsByToken.remove(tokenValue, entry.id()));
+        }
+        if (!entry.removal()) {
+            OAuth2AuthorizationTokens.values(entry.authorization())
+                    .forEach(tokenValue -> this.pendingIdsByToken.put(tokenValue, entry.id()));
+        }
+    }
+
+    /**
+     * 重播上次未寫入資料庫的異動並立即寫入
+     */
+    private void recover() {
+        this.journal.replay(this::apply);
+        if (!this.pending.isEmpty()) {
+            log.info("Recovered {} pending authorization change(s) from journal", this.pending.size());
+        }
+        flushQuietly();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("Failed to flush pending authorization changes, will retry", e);
+        }
+    }
+
+    private synchronized void flush() {
+        long segment;
+        List<Entry> batch;
+        synchronized (this.journal) {
+            if (this.pending.isEmpty()) {
+                this.journal.sync();
+                return;
+            }
+            segment = this.journal.roll();
+            batch = new ArrayList<>(this.pending.values());
+        }
+
+        List<Entry> failed = new ArrayList<>();
+        this.flushTimer.record(() -> {
+            for (int from = 0; from < batch.size(); from += BATCH_SIZE) {
+                List<Entry> chunk = batch.subList(from, Math.min(from + BATCH_SIZE, batch.size()));
+                if (writeAll(chunk)) {
+                    continue;
+                }
+                for (Entry entry : chunk) {
+                    if (!write(entry)) {
+                        failed.add(entry);
+                    }
+                }
+            }
+        });
+
+        // 寫入失敗且尚未被新異動取代的紀錄重新寫入目前的 segment，舊 segment 即可刪除
+        synchronized (this.journal) {
+            for (Entry entry : failed) {
+                if (entry.equals(this.pending.get(entry.id()))) {
+                    this.journal.append(entry);
+                }
+            }
+        }
+        this.journal.checkpoint(segment);
+    }
+
+    /**
+     * 批次寫入，回傳 false 代表 delegate 不支援批次或批次失敗，需改為逐筆寫入
+     */
+    private boolean writeAll(List<Entry> chunk) {
+        if (!(this.delegate instanceof BatchOAuth2AuthorizationService batchDelegate) || chunk.size() < 2) {
+            return false;
+        }
+
+        List<OAuth2Authorization> saves = new ArrayList<>();
+        List<OAuth2Authorization> removals = new ArrayList<>();
+        for (Entry entry : chunk) {
+            (entry.removal() ? removals : saves).add(entry.authorization());
+        }
+        try {
+            batchDelegate.saveAll(saves);
+            batchDelegate.removeAll(removals);
+        } catch (Exception e) {
+            log.warn("Failed to write {} authorization change(s) in batch, falling back to single writes: {}", chunk.size(), e.getMessage());
+            return false;
+        }
+
+        chunk.forEach(this::completed);
+        return true;
+    }
+
+    /**
+     * 寫入單筆異動，回傳 false 代表寫入失敗、需要重試
+     */
+    private boolean write(Entry entry) {
+        try {
+            if (entry.removal()) {
+                this.delegate.remove(entry.authorization());
+            } else {
+                this.delegate.save(entry.authorization());
+            }
+        } catch (Exception e) {
+            int attempts = this.failedAttempts.merge(entry.id(), 1, Integer::sum);
+            if (attempts < this.maxAttempts) {
+                log.warn("Failed to write authorization {} (attempt {}/{}), will retry: {}", entry.id(), attempts, this.maxAttempts, e.getMessage());
+                return false;
+            }
+            this.deadLetterCounter.increment();
+            log.error("Dropped change of authorization {} after {} failed attempts", entry.id(), attempts, e);
+        }
+
+        completed(entry);
+        return true;
+    }
+
+    private void completed(Entry entry) {
+        this.failedAttempts.remove(entry.id());
+        // 只移除已寫入的版本，期間若有新的異動則留待下一次 flush
+        if (this.pending.remove(entry.id(), entry) && !entry.removal()) {
+            OAuth2AuthorizationTokens.values(entry.authorization())
+                    .forEach(tokenValue -> this.pendingIdsByToken.remove(tokenValue, entry.id()));
+        }
+    }
+}
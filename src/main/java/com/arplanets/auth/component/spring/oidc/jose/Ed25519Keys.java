@@ -0,0 +1,82 @@
+package com.arplanets.auth.component.spring.oidc.jose;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+
+import com.nimbusds.jose.util.Base64URL;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.EdECPrivateKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Arrays;
+
+/**
+ * 將 Ed25519 的 OctetKeyPair 轉換為 JDK 的金鑰 (不需額外的 Tink 套件)
+ */
+public final class Ed25519Keys {
+
+    // Ed25519 SubjectPublicKeyInfo 與 PKCS#8 PrivateKeyInfo 的固定 DER 前綴，後接 32 bytes 金鑰
+    private static final byte[] X509_PREFIX = {0x30, 0x2a, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x03, 0x21, 0x00};
+    private static final byte[] PKCS8_PREFIX = {0x30, 0x2e, 0x02, 0x01, 0x00, 0x30, 0x05, 0x06, 0x03, 0x2b, 0x65, 0x70, 0x04, 0x22, 0x04, 0x20};
+
+    private static final int KEY_LENGTH = 32;
+
+    private Ed25519Keys() {
+    }
+
+    public static boolean isEd25519(Object jwk) {
+        return jwk instanceof OctetKeyPair octetKeyPair && Curve.Ed25519.equals(octetKeyPair.getCurve());
+    }
+
+    /**
+     * 產生新的 Ed25519 金鑰 (Nimbus 的 OctetKeyPairGenerator 需要 Tink)
+     */
+    public static OctetKeyPair.Builder generate() throws JOSEException {
+        try {
+            KeyPair keyPair = KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+            byte[] encodedPublicKey = keyPair.getPublic().getEncoded();
+            byte[] x = Arrays.copyOfRange(encodedPublicKey, encodedPublicKey.length - KEY_LENGTH, encodedPublicKey.length);
+            byte[] d = ((EdECPrivateKey) keyPair.getPrivate()).getBytes()
+                    .orElseThrow(() -> new JOSEException("Ed25519 private key is not extractable"));
+            return new OctetKeyPair.Builder(Curve.Ed25519, Base64URL.encode(x)).d(Base64URL.encode(d));
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Failed to generate Ed25519 key: " + e.getMessage(), e);
+        }
+    }
+
+    public static PrivateKey toPrivateKey(OctetKeyPair octetKeyPair) throws JOSEException {
+        if (!octetKeyPair.isPrivate()) {
+            throw new JOSEException("The Ed25519 key does not contain a private part");
+        }
+        try {
+            return KeyFactory.getInstance("Ed25519").generatePrivate(new PKCS8EncodedKeySpec(encode(PKCS8_PREFIX, octetKeyPair.getDecodedD())));
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Invalid Ed25519 private key: " + e.getMessage(), e);
+        }
+    }
+
+    public static PublicKey toPublicKey(OctetKeyPair octetKeyPair) throws JOSEException {
+        try {
+            return KeyFactory.getInstance("Ed25519").generatePublic(new X509EncodedKeySpec(encode(X509_PREFIX, octetKeyPair.getDecodedX())));
+        } catch (GeneralSecurityException e) {
+            throw new JOSEException("Invalid Ed25519 public key: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] encode(byte[] prefix, byte[] key) throws JOSEException {
+        if (key.length != KEY_LENGTH) {
+            throw new JOSEException("Ed25519 key must be " + KEY_LENGTH + " bytes");
+        }
+        byte[] encoded = new byte[prefix.length + KEY_LENGTH];
+        System.arraycopy(prefix, 0, encoded, 0, prefix.length);
+        System.arraycopy(key, 0, encoded, prefix.length, KEY_LENGTH);
+        return encoded;
+    }
+}
@@ -0,0 +1,159 @@
+package com.arplanets.auth.config;
+
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.arplanets.auth.repository.inmemory.InMemoryClientRegistrationRepository;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.arplanets.auth.repository.persistence.ClientRegistrationPersistentRepository;
+import com.arplanets.auth.repository.persistence.RegisteredClientPersistentRepository;
+import com.arplanets.auth.repository.persistence.UserPoolRepository;
+import com.arplanets.auth.service.inmemory.InMemoryClientRegistrationService;
+import com.arplanets.auth.service.inmemory.InMemoryClientUserPoolService;
+import com.arplanets.auth.service.inmemory.TenantLoader;
+import com.arplanets.auth.service.inmemory.TenantRuntimeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 啟動時從資料庫載入 User Pools (JWKSet、User Pool Info)、ClientRegistrations 及各 Client 所屬的 User Pool
+ * 每張資料表只查詢一次，JWKSet 解析與 ClientRegistration 建立在 ForkJoinPool 上平行處理，
+ * 全部完成後才一次發布，並記錄各階段耗時
+ */
+@Configuration
+@RequiredArgsConstructor
+@Slf4j
+public class BootstrapConfig {
+
+    private final UserPoolRepository userPoolRepository;
+    private final ClientRegistrationPersistentRepository clientRegistrationPersistentRepository;
+    private final RegisteredClientPersistentRepository registeredClientPersistentRepository;
+    private final TenantRepository tenantRepository;
+    private final TenantRuntimeService tenantRuntimeService;
+    private final TenantLoader tenantLoader;
+    private final InMemoryClientRegistrationService inMemoryClientRegistrationService;
+    private final InMemoryClientRegistrationRepository inMemoryClientRegistrationRepository;
+    private final InMemoryClientUserPoolService inMemoryClientUserPoolService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.bootstrap.parallelism:0}")
+    private int parallelism;
+
+    // 階段名稱 -> 耗時 (ms)，依執行順序
+    private final Map<String, Long> timeline = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        log.info("Starting bootstrap...");
+        long startedAt = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try {
+            boolean loadUserPools = !tenantLoader.isLazyLoadingEnabled();
+
+            // 1. 平行查詢各資料表
+            Future<List<UserPool>> userPoolsFuture = loadUserPools ? pool.submit(userPoolRepository::findAll) : null;
+            Future<List<Map<String, Object>>> registrationsFuture = pool.submit(clientRegistrationPersistentRepository::findAll);
+            Future<List<Map<String, Object>>> clientUserPoolsFuture = pool.submit(registeredClientPersistentRepository::findAllClientUserPools);
+            phase("query", () -> {
+                // 三個查詢全部完成才算結束
+                if (userPoolsFuture != null) {
+                    userPoolsFuture.get();
+                }
+                registrationsFuture.get();
+                clientUserPoolsFuture.get();
+                return null;
+            });
+            List<UserPool> userPools = loadUserPools ? userPoolsFuture.get() : List.of();
+            List<Map<String, Object>> allRegistrations = registrationsFuture.get();
+            List<Map<String, Object>> clientUserPools = clientUserPoolsFuture.get();
+
+            if (loadUserPools && (userPools == null || userPools.isEmpty())) {
+                throw new IllegalStateException("No user pools found in the database.");
+            }
+            if (allRegistrations == null || allRegistrations.isEmpty()) {
+                throw new IllegalStateException("No client registrations found in the database.");
+            }
+
+            // 2. 平行解析 JWKSet、建立 User Pool Info
+            List<TenantRuntime> tenantRuntimes = phase("user-pools", () -> pool.submit(() -> userPools.parallelStream()
+                    .map(this::createTenantRuntime)
+                    .toList()).get());
+
+            // 3. 平行建立 ClientRegistration
+            List<ClientRegistration> clientRegistrations = phase("client-registrations", () -> pool.submit(() -> allRegistrations.parallelStream()
+                    .map(inMemoryClientRegistrationService::createClientRegistration)
+                    .toList()).get());
+
+            // 4. 一次發布
+            phase("publish", () -> {
+                publish(tenantRuntimes, allRegistrations, clientRegistrations, clientUserPools);
+                return null;
+            });
+
+            timeline.put("total", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            log.info("Successfully bootstrapped {} user pools, {} client registrations and {} clients. Timeline (ms): {}",
+                    tenantRuntimes.size(), clientRegistrations.size(), clientUserPools.size(), timeline);
+        } catch (Exception e) {
+            log.error("Failed to bootstrap: {}. Timeline (ms): {}", e.getMessage(), timeline, e);
+            throw new RuntimeException("Failed to bootstrap", e);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void publish(List<TenantRuntime> tenantRuntimes, List<Map<String, Object>> allRegistrations,
+                         List<ClientRegistration> clientRegistrations, List<Map<String, Object>> clientUserPools) {
+        Map<String, List<ClientRegistration>> registrationsByUserPoolId = new HashMap<>();
+        for (int i = 0; i < clientRegistrations.size(); i++) {
+            String userPoolId = (String) allRegistrations.get(i).get("user_pool_id");
+            ClientRegistration clientRegistration = clientRegistrations.get(i);
+            inMemoryClientRegistrationRepository.register(userPoolId, clientRegistration);
+            registrationsByUserPoolId.computeIfAbsent(userPoolId, key -> new ArrayList<>()).add(clientRegistration);
+        }
+
+        clientUserPools.forEach(row -> inMemoryClientUserPoolService.put((String) row.get("client_id"), (String) row.get("user_pool_id")));
+
+        tenantRepository.registerAll(tenantRuntimes.stream()
+                .map(tenantRuntime -> tenantRuntime.withClientRegistrations(
+                        registrationsByUserPoolId.getOrDefault(tenantRuntime.userPoolId(), List.of())))
+                .collect(Collectors.toList()));
+    }
+
+    private TenantRuntime createTenantRuntime(UserPool userPool) {
+        try {
+            return tenantRuntimeService.create(userPool, List.of());
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to load UserPool ID: " + userPool.getUserPoolId(), e);
+        }
+    }
+
+    private <T> T phase(String name, Callable<T> task) throws Exception {
+        long startedAt = System.nanoTime();
+        try {
+            return task.call();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        } finally {
+            long elapsed = System.nanoTime() - startedAt;
+            timeline.put(name, TimeUnit.NANOSECONDS.toMillis(elapsed));
+            meterRegistry.timer("bootstrap_phase", "phase", name).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -1,76 +1,73 @@
 package com.arplanets.auth.config;
 
-import com.arplanets.auth.repository.inmemory.TenantRepository;
-import com.arplanets.auth.model.po.domain.UserPool;
-import com.arplanets.auth.repository.persistence.UserPoolRepository;
-import com.arplanets.auth.service.inmemory.TenantJwkService;
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.service.inmemory.TenantLoader;
 import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSelector;
-import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
 import org.springframework.util.Assert;
 
+import java.util.Date;
 import java.util.List;
 
 /**
- * 從資料庫載入各個 JWKSource
+ * 依當前 Issuer 取得對應 Tenant 的 JWKSource 與 JwtEncoder
+ * JWKSet 隨 TenantRuntime 於 BootstrapConfig 或 TenantLoader 載入
  */
 @Configuration
 @RequiredArgsConstructor
 @Slf4j
 public class JwkSourceConfig {
 
-    private final TenantRepository tenantRepository;
-    private final TenantJwkService tenantJwkService;
-    private final UserPoolRepository userPoolRepository;
+    private final TenantLoader tenantLoader;
 
     @Bean
     public JWKSource<SecurityContext> jwkSource() {
-        log.info("Starting to load JWKSource...");
-
-        try {
-            // 查詢所有 User Pools
-            List<UserPool> userPools = userPoolRepository.findAll();
-            if (userPools == null || userPools.isEmpty()) {
-                log.error("No user pools found in the database.");
-                throw new RuntimeException("No user pools found in the database.");
-            }
-
-            // 註冊 JWKSets 到應用程式
-            userPools.forEach(userPool -> {
-                try {
-                    tenantJwkService.registerUserPoolJwkSet(userPool);
-                } catch (Exception e) {
-                    log.error("Failed to register JWKSet for UserPool ID: {}. Error: {}",
-                            userPool.getUserPoolId(), e.getMessage(), e);
-                    throw new RuntimeException(e);
-                }
-            });
-
-            log.info("Successfully loaded {} JWKSets.", userPools.size());
+        return new DelegatingJWKSource(tenantLoader);
+    }
 
-            return new DelegatingJWKSource(tenantRepository);
-        } catch (Exception e) {
-            log.error("Failed to load JWKSource: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to load JWKSource");
-        }
+    /**
+     * 依當前 Issuer 交由該 Tenant 預先建好簽章器的 JwtEncoder 簽發 Token
+     */
+    @Bean
+    public JwtEncoder jwtEncoder() {
+        return new DelegatingJwtEncoder(tenantLoader);
     }
 
-    private record DelegatingJWKSource(TenantRepository componentRegistry) implements JWKSource<SecurityContext> {
+    private record DelegatingJWKSource(TenantLoader tenantLoader) implements JWKSource<SecurityContext> {
         @Override
         public List<JWK> get(JWKSelector jwkSelector, SecurityContext securityContext) {
             // 從註冊表獲取當前租戶的 JWKSet
-            JWKSet tenantJwkSet = this.componentRegistry.get(JWKSet.class);
+            TenantRuntime tenantRuntime = this.tenantLoader.resolve();
 
             // 如果找不到該租戶的 JWKSet，則拋出異常或返回空列表
-            Assert.state(tenantJwkSet != null, "JWKSet not found for the current issuer. Ensure the tenant is registered.");
+            Assert.state(tenantRuntime != null, "JWKSet not found for the current issuer. Ensure the tenant is registered.");
+
+            // 已到期 (exp) 的輪替舊金鑰不再發布
+            Date now = new Date();
+            return jwkSelector.select(tenantRuntime.jwkSet()).stream()
+                    .filter(jwk -> jwk.getExpirationTime() == null || jwk.getExpirationTime().after(now))
+                    .toList();
+        }
+    }
 
-            return jwkSelector.select(tenantJwkSet);
+    private record DelegatingJwtEncoder(TenantLoader tenantLoader) implements JwtEncoder {
+        @Override
+        public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+            TenantRuntime tenantRuntime = this.tenantLoader.resolve();
+            if (tenantRuntime == null) {
+                throw new JwtEncodingException("JwtEncoder not found for the current issuer. Ensure the tenant is registered.");
+            }
+            return tenantRuntime.jwtEncoder().encode(parameters);
         }
     }
 }
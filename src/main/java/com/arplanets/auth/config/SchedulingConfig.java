@@ -0,0 +1,13 @@
+package com.arplanets.auth.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 啟用排程 (設定同步、金鑰輪替等背景工作)；過期 Authorization 清除會暫停等待，由 OAuth2AuthorizationReaper 在自己的執行緒執行
+ * 排程執行緒數由 spring.task.scheduling.pool.size 設定，避免單一工作阻塞其他排程
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
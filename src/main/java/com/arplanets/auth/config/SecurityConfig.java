@@ -1,26 +1,40 @@
 package com.arplanets.auth.config;
 
 import com.arplanets.auth.component.spring.oidc.*;
+import com.arplanets.auth.component.spring.oidc.authorization.CachingOAuth2AuthorizationService;
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec;
+import com.arplanets.auth.component.spring.oidc.authorization.MySqlOAuth2AuthorizationService;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationCodec;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationJournal;
+import com.arplanets.auth.component.spring.oidc.authorization.RedisOAuth2AuthorizationService;
+import com.arplanets.auth.component.spring.oidc.authorization.TieredOAuth2AuthorizationService;
+import com.arplanets.auth.component.spring.oidc.authorization.WriteBehindOAuth2AuthorizationService;
 import com.arplanets.auth.filter.RegistrationIdValidationFilter;
+import com.arplanets.auth.filter.TenantMetadataCacheFilter;
 import com.arplanets.auth.filter.UserPoolValidationFilter;
 import com.arplanets.auth.log.LogContext;
 import com.arplanets.auth.log.LoggingFilter;
-import com.arplanets.auth.repository.persistence.RegisteredClientPersistentRepository;
+import com.arplanets.auth.model.TenantRuntime;
 import com.arplanets.auth.service.inmemory.InMemoryClientRegistrationService;
+import com.arplanets.auth.service.inmemory.InMemoryClientUserPoolService;
+import com.arplanets.auth.service.inmemory.TenantLoader;
 import com.arplanets.auth.service.inmemory.UserPoolInfoSource;
 import com.arplanets.auth.service.persistence.impl.AuthActivityService;
 import com.arplanets.auth.service.persistence.impl.TokenService;
 import com.arplanets.auth.service.ProviderLogoutService;
 import com.arplanets.auth.utils.StringUtil;
 import com.fasterxml.jackson.databind.*;
-import com.fasterxml.jackson.databind.Module;
-import com.nimbusds.jose.jwk.source.JWKSource;
-import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.JWSAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.http.MediaType;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.config.Customizer;
@@ -29,18 +43,15 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.jackson2.SecurityJackson2Modules;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.client.web.OAuth2AuthorizationRequestRedirectFilter;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationConsentService;
-import org.springframework.security.oauth2.server.authorization.JdbcOAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationConsentService;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configuration.OAuth2AuthorizationServerConfiguration;
 import org.springframework.security.oauth2.server.authorization.config.annotation.web.configurers.OAuth2AuthorizationServerConfigurer;
-import org.springframework.security.oauth2.server.authorization.jackson2.OAuth2AuthorizationServerJackson2Module;
 import org.springframework.security.oauth2.server.authorization.settings.AuthorizationServerSettings;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.LoginUrlAuthenticationEntryPoint;
@@ -48,7 +59,8 @@ import org.springframework.security.web.context.request.async.WebAsyncManagerInt
 import org.springframework.security.web.header.HeaderWriterFilter;
 import org.springframework.security.web.util.matcher.*;
 
-import java.util.List;
+import java.nio.file.Path;
+import java.time.Duration;
 
 
 @Configuration
@@ -59,6 +71,66 @@ public class SecurityConfig {
     @Value("${aws.cloudwatch.log-stream-prefix}")
     private String logStreamPrefix;
 
+    @Value("${auth.client-secret.cache.maximum-size:10000}")
+    private long clientSecretCacheMaximumSize;
+
+    @Value("${auth.client-secret.cache.ttl:5m}")
+    private Duration clientSecretCacheTtl;
+
+    @Value("${auth.authorization.cache.maximum-size:10000}")
+    private long authorizationCacheMaximumSize;
+
+    @Value("${auth.authorization.cache.ttl:60s}")
+    private Duration authorizationCacheTtl;
+
+    @Value("${auth.authorization.store:mysql}")
+    private String authorizationStore;
+
+    @Value("${auth.authorization.redis.default-ttl:30m}")
+    private Duration authorizationRedisDefaultTtl;
+
+    @Value("${auth.authorization.codec:JSON}")
+    private JacksonOAuth2AuthorizationCodec.Format authorizationCodecFormat;
+
+    @Value("${auth.authorization.ephemeral.enabled:false}")
+    private boolean authorizationEphemeralEnabled;
+
+    @Value("${auth.authorization.ephemeral.maximum-size:100000}")
+    private long authorizationEphemeralMaximumSize;
+
+    @Value("${auth.authorization.ephemeral.ttl:10m}")
+    private Duration authorizationEphemeralTtl;
+
+    @Value("${auth.authorization.write-behind.enabled:false}")
+    private boolean authorizationWriteBehindEnabled;
+
+    @Value("${auth.authorization.write-behind.journal-dir:./data/authorization-journal}")
+    private Path authorizationWriteBehindJournalDir;
+
+    @Value("${auth.authorization.write-behind.fsync:BATCH}")
+    private OAuth2AuthorizationJournal.FsyncPolicy authorizationWriteBehindFsync;
+
+    @Value("${auth.authorization.write-behind.flush-interval:200ms}")
+    private Duration authorizationWriteBehindFlushInterval;
+
+    @Value("${auth.authorization.write-behind.max-attempts:5}")
+    private int authorizationWriteBehindMaxAttempts;
+
+    @Value("${auth.jwt-decoder.cache.maximum-size:10000}")
+    private long jwtDecoderCacheMaximumSize;
+
+    @Value("${auth.jwt-decoder.cache.ttl:60s}")
+    private Duration jwtDecoderCacheTtl;
+
+    @Value("${auth.metadata.cache.enabled:true}")
+    private boolean metadataCacheEnabled;
+
+    @Value("${auth.metadata.cache.maximum-size:10000}")
+    private long metadataCacheMaximumSize;
+
+    @Value("${auth.metadata.cache-control:public, max-age=300}")
+    private String metadataCacheControl;
+
     /**
      * 處理 OIDC 端點請求
      */
@@ -74,20 +146,33 @@ public class SecurityConfig {
             UserPoolInfoSource userPoolInfoSource,
             LogContext logContext,
             ClientRegistrationRepository clientRegistrationRepository,
-            ProviderLogoutService providerLogoutService
+            ProviderLogoutService providerLogoutService,
+            TenantLoader tenantLoader
     ) throws Exception {
 
         OAuth2AuthorizationServerConfiguration.applyDefaultSecurity(http);
 
         http.getConfigurer(OAuth2AuthorizationServerConfigurer.class)
                 .authorizationEndpoint(authorizationEndpoint -> authorizationEndpoint
-                        .authorizationResponseHandler(new AuthorizationSuccessHandlerImpl(authActivityService, authorizationService)))
+                        .authorizationResponseHandler(new AuthorizationSuccessHandlerImpl(authActivityService, authorizationService, clientRegistrationRepository)))
                 .tokenEndpoint(tokenEndpoint -> tokenEndpoint
                         .accessTokenResponseHandler(new TokenResponseHandlerImpl(tokenService, authorizationService)))
                 .tokenRevocationEndpoint(revokeEndpoint -> revokeEndpoint
                         .revocationResponseHandler(new RevocationResponseHandlerImpl(authorizationService)))
                 .oidc(oidc -> oidc
-                        .providerConfigurationEndpoint(Customizer.withDefaults())
+                        .providerConfigurationEndpoint(providerConfigurationEndpoint -> providerConfigurationEndpoint
+                                .providerConfigurationCustomizer(providerConfiguration -> {
+                                    // 依 Tenant 的簽章金鑰列出 ID Token 可用的演算法
+                                    TenantRuntime tenantRuntime = tenantLoader.resolve();
+                                    if (tenantRuntime != null) {
+                                        providerConfiguration.idTokenSigningAlgorithms(algorithms -> {
+                                            algorithms.clear();
+                                            tenantRuntime.jwtEncoder().getSupportedAlgorithms().stream()
+                                                    .filter(algorithm -> !JWSAlgorithm.Family.HMAC_SHA.contains(algorithm))
+                                                    .forEach(algorithm -> algorithms.add(algorithm.getName()));
+                                        });
+                                    }
+                                }))
                         .userInfoEndpoint(userInfoEndpoint -> userInfoEndpoint
                                 .userInfoMapper(userInfoMapper))
                         .logoutEndpoint(logoutEndpoint -> logoutEndpoint
@@ -112,7 +197,7 @@ public class SecurityConfig {
      */
     @Bean
     @Order(2)
-    public SecurityFilterChain oauth2SecurityFilterChain(HttpSecurity http, InMemoryClientRegistrationService inMemoryClientRegistrationService, RegisteredClientPersistentRepository registeredClientPersistentRepository) throws Exception {
+    public SecurityFilterChain oauth2SecurityFilterChain(HttpSecurity http, InMemoryClientRegistrationService inMemoryClientRegistrationService, InMemoryClientUserPoolService inMemoryClientUserPoolService) throws Exception {
         http.authorizeHttpRequests(authorize -> authorize
                 .requestMatchers(StringUtil.LOGIN_PATH, StringUtil.FAVICON_PATH, StringUtil.ERROR_PATH).permitAll()
                         .anyRequest().authenticated())
@@ -120,17 +205,29 @@ public class SecurityConfig {
             .oauth2Login(oauth2 -> oauth2
                     .loginPage(StringUtil.LOGIN_PATH))
             .cors(Customizer.withDefaults())
-            .addFilterBefore(new RegistrationIdValidationFilter(inMemoryClientRegistrationService, registeredClientPersistentRepository), OAuth2AuthorizationRequestRedirectFilter.class);
+            .addFilterBefore(new RegistrationIdValidationFilter(inMemoryClientRegistrationService, inMemoryClientUserPoolService), OAuth2AuthorizationRequestRedirectFilter.class);
 
         return http.build();
     }
 
     /**
-     * JWT 解碼器
+     * JWKS 與 Discovery 回應快取，於 Spring Security 之前執行
+     */
+    @Bean
+    public FilterRegistrationBean<TenantMetadataCacheFilter> tenantMetadataCacheFilter(TenantLoader tenantLoader, MeterRegistry meterRegistry) {
+        FilterRegistrationBean<TenantMetadataCacheFilter> registration = new FilterRegistrationBean<>(
+                new TenantMetadataCacheFilter(tenantLoader, metadataCacheControl, metadataCacheMaximumSize, meterRegistry));
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        registration.setEnabled(metadataCacheEnabled);
+        return registration;
+    }
+
+    /**
+     * JWT 解碼器，依 Tenant 以預先建好的驗證器驗證並短暫快取驗證結果
      */
     @Bean
-    public JwtDecoder jwtDecoder(JWKSource<SecurityContext> jwkSource) {
-        return OAuth2AuthorizationServerConfiguration.jwtDecoder(jwkSource);
+    public JwtDecoder jwtDecoder(TenantLoader tenantLoader, MeterRegistry meterRegistry) {
+        return new TenantJwtDecoder(tenantLoader, jwtDecoderCacheMaximumSize, jwtDecoderCacheTtl, meterRegistry);
     }
 
     /**
@@ -144,11 +241,11 @@ public class SecurityConfig {
     }
 
     /**
-     * 密碼加密器
+     * 密碼加密器，Client Secret 驗證成功的結果會短暫快取
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(MeterRegistry meterRegistry) {
+        return new CachingPasswordEncoder(new BCryptPasswordEncoder(), clientSecretCacheMaximumSize, clientSecretCacheTtl, meterRegistry);
     }
 
     /**
@@ -160,40 +257,33 @@ public class SecurityConfig {
     }
 
     /**
-     * oauth2_authorization 資料表的寫入和讀取，因為客製化了 User ， 所以要添加序列化和反序列化方式
+     * oauth2_authorization 資料表 (或 auth.authorization.store=redis 時的 Redis) 的寫入和讀取，attributes 與 metadata 以 OAuth2AuthorizationCodec 編碼
+     * Token 以雜湊欄位查詢，外層包一層快取，減少同一次登入、換發 Token 流程中重複查詢資料庫
+     * 啟用 ephemeral 時，授權碼階段的 Authorization 只存於記憶體，發出 Token 後才寫入資料庫
+     * 啟用 write-behind 時，異動先寫入本機 journal，再由背景批次寫入資料庫
      */
     @Bean
-    public OAuth2AuthorizationService auth2AuthorizationService(JdbcTemplate jdbcTemplate, RegisteredClientRepository clientRepository) {
-
-        JdbcOAuth2AuthorizationService authorizationService = new JdbcOAuth2AuthorizationService(jdbcTemplate, clientRepository);
-
-        ClassLoader classLoader = JdbcOAuth2AuthorizationService.class.getClassLoader();
-
-        List<Module> securityModules  = SecurityJackson2Modules.getModules(classLoader);
-
-        // 一定要 new 一個，用注入的會有問題!!!
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModules(securityModules);
-        objectMapper.registerModule(new OAuth2AuthorizationServerJackson2Module());
-        objectMapper.addMixIn(OidcUserImpl.class, OidcUserImplWrapperMixin.class);
-        objectMapper.addMixIn(com.nimbusds.jose.shaded.gson.internal.LinkedTreeMap.class, LinkedTreeMapMixIn.class);
+    public OAuth2AuthorizationService auth2AuthorizationService(JdbcTemplate jdbcTemplate, RegisteredClientRepository clientRepository, MeterRegistry meterRegistry,
+                                                                ObjectProvider<RedisConnectionFactory> redisConnectionFactory) {
 
-        // 2. 配置 RowMapper (用於讀取/反序列化)
-        JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper rowMapper =
-                new JdbcOAuth2AuthorizationService.OAuth2AuthorizationRowMapper(clientRepository);
+        OAuth2AuthorizationCodec codec = new JacksonOAuth2AuthorizationCodec(authorizationCodecFormat);
 
-        rowMapper.setObjectMapper(objectMapper);
+        OAuth2AuthorizationService authorizationService = "redis".equalsIgnoreCase(authorizationStore)
+                ? new RedisOAuth2AuthorizationService(redisConnectionFactory.getObject(), clientRepository, codec, authorizationRedisDefaultTtl)
+                : new MySqlOAuth2AuthorizationService(jdbcTemplate, clientRepository, codec);
 
-        // 5. 將配置好的 RowMapper 設置回 authorizationService
-        authorizationService.setAuthorizationRowMapper(rowMapper);
+        if (authorizationWriteBehindEnabled) {
+            OAuth2AuthorizationJournal journal = new OAuth2AuthorizationJournal(authorizationWriteBehindJournalDir, authorizationWriteBehindFsync,
+                    codec, clientRepository);
+            authorizationService = new WriteBehindOAuth2AuthorizationService(authorizationService, journal, authorizationWriteBehindFlushInterval,
+                    authorizationWriteBehindMaxAttempts, meterRegistry);
+        }
 
-        // 3. *** 配置 ParametersMapper (用於寫入/序列化) ***
-        JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper parametersMapper =
-                new JdbcOAuth2AuthorizationService.OAuth2AuthorizationParametersMapper();
-        parametersMapper.setObjectMapper(objectMapper);
-        authorizationService.setAuthorizationParametersMapper(parametersMapper);
+        if (authorizationEphemeralEnabled) {
+            authorizationService = new TieredOAuth2AuthorizationService(authorizationService, authorizationEphemeralMaximumSize, authorizationEphemeralTtl, meterRegistry);
+        }
 
-        return authorizationService;
+        return new CachingOAuth2AuthorizationService(authorizationService, authorizationCacheMaximumSize, authorizationCacheTtl, meterRegistry);
     }
 
 }
@@ -0,0 +1,28 @@
+package com.arplanets.auth.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.session.FindByIndexNameSessionRepository;
+import org.springframework.session.Session;
+import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisIndexedHttpSession;
+import org.springframework.session.security.SpringSessionBackedSessionRegistry;
+
+/**
+ * auth.authorization.store=redis 時 HTTP Session 一併存於 Redis，登入流程中的請求可由任一台機器處理，不需要 Sticky Session
+ * 其他情況維持 In-memory Session (SpringauthserverApplication 已排除 Spring Boot 的 Session 自動設定)
+ * OIDC 登出依 SessionRegistry 比對 sid，改由 Redis 中的 Session 查詢
+ */
+@Configuration
+@ConditionalOnProperty(value = "auth.authorization.store", havingValue = "redis")
+@EnableRedisIndexedHttpSession(
+        redisNamespace = "${auth.session.redis.namespace:auth:session}",
+        maxInactiveIntervalInSeconds = 1800)
+public class SessionConfig {
+
+    @Bean
+    public <S extends Session> SessionRegistry sessionRegistry(FindByIndexNameSessionRepository<S> sessionRepository) {
+        return new SpringSessionBackedSessionRegistry<>(sessionRepository);
+    }
+}
@@ -3,9 +3,10 @@ package com.arplanets.auth.controller;
 import com.arplanets.auth.model.dto.req.UserPoolRegisterRequest;
 import com.arplanets.auth.repository.inmemory.TenantRepository;
 import com.arplanets.auth.model.po.domain.UserPool;
-import com.arplanets.auth.service.inmemory.TenantJwkService;
+import com.arplanets.auth.service.inmemory.TenantRuntimeService;
 import com.arplanets.auth.service.inmemory.InMemoryClientRegistrationService;
 import com.arplanets.auth.service.inmemory.UserPoolInfoService;
+import com.arplanets.auth.service.persistence.UserPoolService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,9 +25,9 @@ public class UserPoolController {
 
     private final TenantRepository tenantRepository;
     private final UserPoolInfoService userPoolInfoService;
-    private final TenantJwkService tenantJwkService;
+    private final TenantRuntimeService tenantRuntimeService;
     private final InMemoryClientRegistrationService inMemoryClientRegistrationService;
-
+    private final UserPoolService userPoolService;
 
     @PostMapping(produces = {MediaType.APPLICATION_JSON_VALUE})
     public void register(@Valid @RequestBody UserPoolRegisterRequest request) {
@@ -43,9 +44,10 @@ public class UserPoolController {
 
         List<ClientRegistration> clientRegistrations = request.getClientRegistrations();
 
+        // 先寫入資料庫，其他機器由 ConfigurationSyncEngine 同步；寫入失敗時本機也不套用
+        userPoolService.save(userPool, clientRegistrations);
+
         try {
-            tenantJwkService.registerUserPoolJwkSet(userPool);
-            userPoolInfoService.registerUserPoolInfo(userPool);
             clientRegistrations.forEach(clientRegistration -> {
                 try {
                     inMemoryClientRegistrationService.register(userPool.getUserPoolId(), clientRegistration);
@@ -53,6 +55,8 @@ public class UserPoolController {
                     throw new RuntimeException(e);
                 }
             });
+            // JWKSet、User Pool Info 與 ClientRegistrations 一次生效
+            tenantRuntimeService.register(userPool, clientRegistrations);
         } catch (Exception e) {
             tenantRepository.remove(poolName);
             inMemoryClientRegistrationService.removeByUserPoolId(userPoolId);
@@ -66,6 +70,8 @@ public class UserPoolController {
 
         String userPoolId = userPoolInfoService.findByPoolName(poolName).getUserPoolId();
 
+        // 以軟刪除記錄，其他機器由 ConfigurationSyncEngine 同步；之後的異動 (例如金鑰輪替) 也不會讓 User Pool 重新生效
+        userPoolService.remove(userPoolId);
         tenantRepository.remove(poolName);
         inMemoryClientRegistrationService.removeByUserPoolId(userPoolId);
     }
@@ -1,7 +1,7 @@
 package com.arplanets.auth.filter;
 
-import com.arplanets.auth.repository.persistence.RegisteredClientPersistentRepository;
 import com.arplanets.auth.service.inmemory.InMemoryClientRegistrationService;
+import com.arplanets.auth.service.inmemory.InMemoryClientUserPoolService;
 import com.arplanets.auth.utils.StringUtil;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -31,7 +31,7 @@ public class RegistrationIdValidationFilter extends OncePerRequestFilter {
 
     private final RequestCache requestCache = new HttpSessionRequestCache();
     private final InMemoryClientRegistrationService inMemoryClientRegistrationService;
-    private final RegisteredClientPersistentRepository registeredClientPersistentRepository;
+    private final InMemoryClientUserPoolService inMemoryClientUserPoolService;
     private static final RequestMatcher OAUTH2_AUTH_REQUEST_MATCHER =
             new AntPathRequestMatcher("/oauth2/authorization/{registrationId}");
 
@@ -71,20 +71,19 @@ public class RegistrationIdValidationFilter extends OncePerRequestFilter {
 
         // 獲取 userPoolIdFromRegistrationId
         String userPoolIdFromRegistrationId = inMemoryClientRegistrationService.findUserPoolIdByRegistrationId(registrationId);
-        // 獲取 userPoolIdFromClientId
-        String userPoolIdFromClientId = registeredClientPersistentRepository.findUserPoolIdByClientId(clientId);
-
-        // 進行比較 (只有兩者都成功獲取時才比較)
-        if (userPoolIdFromRegistrationId != null && userPoolIdFromClientId != null &&
-                !userPoolIdFromRegistrationId.equals(userPoolIdFromClientId)) {
-            log.error("UserPool ID 不匹配。RegistrationId ({}) 的 UserPool ID: {}, ClientId ({}) 的 UserPool ID: {}",
-                    registrationId, userPoolIdFromRegistrationId, clientId, userPoolIdFromClientId);
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserPool ID 不匹配。");
-        } else if (userPoolIdFromRegistrationId == null || userPoolIdFromClientId == null) {
-            log.warn("未能同時獲取 Registration ID 和 Client ID 的 UserPool ID，跳過匹配檢查。");
+
+        if (userPoolIdFromRegistrationId == null) {
+            log.warn("未能獲取 Registration ID 的 UserPool ID，跳過匹配檢查。");
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserPool ID 為 null。");
         }
 
+        // 由 InMemory 索引比對 Client 是否屬於同一個 UserPool
+        if (!inMemoryClientUserPoolService.belongsTo(clientId, userPoolIdFromRegistrationId)) {
+            log.error("UserPool ID 不匹配。RegistrationId ({}) 的 UserPool ID: {}, ClientId: {}",
+                    registrationId, userPoolIdFromRegistrationId, clientId);
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "UserPool ID 不匹配。");
+        }
+
         filterChain.doFilter(request, response);
     }
 
@@ -0,0 +1,224 @@
+package com.arplanets.auth.filter;
+
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.service.inmemory.TenantLoader;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 快取各 Tenant 的 JWKS (/{pool}/oauth2/jwks) 與 Discovery (/{pool}/.well-known/openid-configuration) 回應
+ * 第一次請求照常經過 Security Filter Chain 產生回應並保存，之後直接回傳已序列化的內容，不經過 Session 與 SecurityContext
+ * Tenant 的 JWKSet 被替換 (輪替、同步) 或其中有金鑰到期時重新產生；回應帶有強 ETag，If-None-Match 相符時回傳 304
+ * 快取 Key 為 User Pool ID + 端點，數量不超過 Tenant 數的兩倍，不受 Request 的 Host 影響；
+ * Discovery 的內容含有由 Host 組成的 Issuer，只有與快取產生時相同 Origin 的請求才使用快取，其他 Origin 照常經過 Filter Chain 且不覆蓋快取
+ * 此 Filter 在 Security Filter Chain 之前執行：快取時一併保存 Filter Chain 加上的 Header (安全性 Header、Vary 等，不含 Set-Cookie) 並於命中時回放；
+ * 帶有 Origin Header 的 CORS 請求回應依 Origin 而不同，一律經過 Filter Chain 由 CORS 設定處理，且不寫入快取
+ */
+@Slf4j
+public class TenantMetadataCacheFilter extends OncePerRequestFilter {
+
+    private static final String JWK_SET_PATH = "/oauth2/jwks";
+    private static final String PROVIDER_CONFIGURATION_PATH = "/.well-known/openid-configuration";
+
+    // 由本 Filter 重新產生或與單一回應綁定，不回放
+    private static final Set<String> NON_REPLAYABLE_HEADERS = Set.of(
+            "set-cookie", "content-type", "content-length", "transfer-encoding", "date", "etag", "cache-control");
+
+    private record Entry(JWKSet jwkSet, Instant expiresAt, @Nullable String origin, byte[] body, String contentType, String etag,
+                         Map<String, List<String>> headers) {
+
+        private boolean isValidFor(TenantRuntime tenantRuntime, Instant now) {
+            return jwkSet == tenantRuntime.jwkSet() && now.isBefore(expiresAt);
+        }
+
+        private boolean isServableTo(@Nullable String requestOrigin) {
+            return origin == null || origin.equals(requestOrigin);
+        }
+    }
+
+    private final TenantLoader tenantLoader;
+    private final String cacheControl;
+
+    // User Pool ID + 端點 -> 回應
+    private final Cache<String, Entry> entries;
+
+    public TenantMetadataCacheFilter(TenantLoader tenantLoader, String cacheControl, long maximumSize, MeterRegistry meterRegistry) {
+        this.tenantLoader = tenantLoader;
+        this.cacheControl = cacheControl;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "tenant_metadata");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return poolName(path) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String poolName = poolName(path);
+        TenantRuntime tenantRuntime = tenantLoader.find(poolName);
+        if (tenantRuntime == null) {
+            // 查無 Tenant 時交由 UserPoolValidationFilter 回應錯誤
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = tenantRuntime.userPoolId() + path.substring(poolName.length() + 1);
+        // JWKS 與 Host 無關；Discovery 的 Issuer 取決於 Request 的 Host
+        String origin = path.endsWith(PROVIDER_CONFIGURATION_PATH)
+                ? request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort() + request.getContextPath()
+                : null;
+        Instant now = Instant.now();
+        Entry entry = entries.getIfPresent(key);
+        boolean valid = entry != null && entry.isValidFor(tenantRuntime, now);
+        boolean corsRequest = request.getHeader(HttpHeaders.ORIGIN) != null;
+        if (valid && entry.isServableTo(origin) && !corsRequest) {
+            write(request, response, entry);
+            return;
+        }
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            if (responseWrapper.getStatus() == HttpServletResponse.SC_OK) {
+                byte[] body = responseWrapper.getContentAsByteArray();
+                String etag = etag(body);
+                if (!valid && !corsRequest) {
+                    entries.put(key, new Entry(tenantRuntime.jwkSet(), expiresAt(tenantRuntime.jwkSet(), now), origin, body,
+                            responseWrapper.getContentType(), etag, replayableHeaders(responseWrapper)));
+                    log.debug("Cached tenant metadata for {}", key);
+                }
+                responseWrapper.setHeader(HttpHeaders.ETAG, etag);
+                responseWrapper.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+                if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+                    responseWrapper.resetBuffer();
+                    responseWrapper.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                }
+            }
+        } finally {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, Entry entry) throws IOException {
+        entry.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), entry.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        response.setContentLength(entry.body().length);
+        response.getOutputStream().write(entry.body());
+    }
+
+    /**
+     * 取出 /{pool}/oauth2/jwks 或 /{pool}/.well-known/openid-configuration 中的 Pool Name，其他路徑回傳 null
+     */
+    private static String poolName(String path) {
+        String suffix;
+        if (path.endsWith(JWK_SET_PATH)) {
+            suffix = JWK_SET_PATH;
+        } else if (path.endsWith(PROVIDER_CONFIGURATION_PATH)) {
+            suffix = PROVIDER_CONFIGURATION_PATH;
+        } else {
+            return null;
+        }
+
+        int end = path.length() - suffix.length();
+        if (end < 2 || path.charAt(0) != '/' || path.indexOf('/', 1) != end) {
+            return null;
+        }
+        return path.substring(1, end);
+    }
+
+    private static Map<String, List<String>> replayableHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (!NON_REPLAYABLE_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.putIfAbsent(name, List.copyOf(response.getHeaders(name)));
+            }
+        }
+        return Collections.unmodifiableMap(headers);
+    }
+
+    /**
+     * JWKSet 中最早到期 (exp) 的金鑰到期時，JWKS 內容即會改變
+     */
+    private static Instant expiresAt(JWKSet jwkSet, Instant now) {
+        Instant expiresAt = Instant.MAX;
+        for (JWK jwk : jwkSet.getKeys()) {
+            if (jwk.getExpirationTime() != null) {
+                Instant expirationTime = jwk.getExpirationTime().toInstant();
+                if (expirationTime.isAfter(now) && expirationTime.isBefore(expiresAt)) {
+                    expiresAt = expirationTime;
+                }
+            }
+        }
+        return expiresAt;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
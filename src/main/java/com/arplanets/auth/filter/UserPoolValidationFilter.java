@@ -3,6 +3,7 @@ package com.arplanets.auth.filter;
 import com.arplanets.auth.model.UserPoolContext;
 import com.arplanets.auth.model.UserPoolContextHolder;
 import com.arplanets.auth.model.UserPoolInfo;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
 import com.arplanets.auth.service.inmemory.UserPoolInfoSource;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.FilterChain;
@@ -19,8 +20,6 @@ import org.springframework.security.oauth2.server.authorization.context.Authoriz
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.URISyntaxException;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -41,19 +40,18 @@ public class UserPoolValidationFilter extends OncePerRequestFilter {
             return;
         }
 
-        String issuer = context.getIssuer();
-
-        String poolName = extractPathAfterDomain(issuer);
-
-        if (poolName.isBlank()) {
-            log.warn("Pool name not found in issuer : {}", issuer);
-            sendErrorResponse(response, HttpStatus.BAD_REQUEST, "Missing or invalid poolName.");
-            return;
-        }
-
         UserPoolInfo userPoolInfo = userPoolInfoSource.getUserPoolInfo();
 
         if (userPoolInfo == null) {
+            // 查無 User Pool 時才解析 Pool Name 以區分錯誤類型
+            String issuer = context.getIssuer();
+            String poolName = extractPathAfterDomain(issuer);
+            if (poolName.isBlank()) {
+                log.warn("Pool name not found in issuer : {}", issuer);
+                sendErrorResponse(response, HttpStatus.BAD_REQUEST, "Missing or invalid poolName.");
+                return;
+            }
+
             log.warn("User pool not found for pool name: {}", poolName);
             sendErrorResponse(response, HttpStatus.NOT_FOUND, "User pool not found.");
             return;
@@ -82,23 +80,6 @@ public class UserPoolValidationFilter extends OncePerRequestFilter {
     }
 
     public static String extractPathAfterDomain(String issuer) {
-        if (issuer == null || issuer.isEmpty()) {
-            return "";
-        }
-
-        try {
-            URI uri = new URI(issuer);
-            String path = uri.getPath();
-
-            if (path != null) {
-                return path.startsWith("/") ? path.substring(1) : path;
-            }
-
-        } catch (URISyntaxException e) {
-            log.error("Issuer URL 格式不正確， issuer = {}", issuer);
-            return "";
-        }
-
-        return "";
+        return TenantRepository.extractTenantId(issuer);
     }
 }
@@ -0,0 +1,28 @@
+package com.arplanets.auth.model;
+
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * 預先編譯的 UserInfo Claims 投影計畫：依序將使用者的 sourceClaim 輸出為 outputClaim
+ */
+public record ClaimProjectionPlan(Projection[] projections) {
+
+    public static final ClaimProjectionPlan EMPTY = new ClaimProjectionPlan(new Projection[0]);
+
+    public record Projection(String outputClaim, String sourceClaim) {
+    }
+
+    public ClaimProjectionPlan {
+        Assert.notNull(projections, "projections cannot be null");
+    }
+
+    public static ClaimProjectionPlan of(List<Projection> projections) {
+        return projections.isEmpty() ? EMPTY : new ClaimProjectionPlan(projections.toArray(Projection[]::new));
+    }
+
+    public boolean isEmpty() {
+        return projections.length == 0;
+    }
+}
@@ -0,0 +1,62 @@
+package com.arplanets.auth.model;
+
+import com.arplanets.auth.component.spring.oidc.TenantJwsVerifiers;
+import com.arplanets.auth.component.spring.oidc.TenantJwtEncoder;
+import com.nimbusds.jose.jwk.JWKSet;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.util.Assert;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 單一 User Pool 執行期間使用的設定 (UserPoolInfo、JWKSet 與已建好簽章器的 JwtEncoder 與驗證器、Scopes、ClientRegistrations)
+ * 建立後不再修改，異動時整筆替換，讀取端不會看到只註冊一半的 Tenant
+ */
+public record TenantRuntime(
+        UserPoolInfo userPoolInfo,
+        JWKSet jwkSet,
+        TenantJwtEncoder jwtEncoder,
+        TenantJwsVerifiers jwsVerifiers,
+        Set<String> scopes,
+        Map<String, ClientRegistration> clientRegistrations) {
+
+    public TenantRuntime {
+        Assert.notNull(userPoolInfo, "userPoolInfo cannot be null");
+        Assert.hasText(userPoolInfo.getUserPoolId(), "userPoolId cannot be empty");
+        Assert.hasText(userPoolInfo.getPoolName(), "poolName cannot be empty");
+        Assert.notNull(jwkSet, "jwkSet cannot be null");
+        Assert.notNull(jwtEncoder, "jwtEncoder cannot be null");
+        Assert.notNull(jwsVerifiers, "jwsVerifiers cannot be null");
+        scopes = scopes != null ? Set.copyOf(scopes) : Set.of();
+        clientRegistrations = clientRegistrations != null ? Map.copyOf(clientRegistrations) : Map.of();
+    }
+
+    public String userPoolId() {
+        return this.userPoolInfo.getUserPoolId();
+    }
+
+    public String poolName() {
+        return this.userPoolInfo.getPoolName();
+    }
+
+    /**
+     * 回傳加入 (或取代) 指定 ClientRegistrations 後的新 TenantRuntime
+     */
+    public TenantRuntime withClientRegistrations(Collection<ClientRegistration> registrations) {
+        Map<String, ClientRegistration> updated = new HashMap<>(this.clientRegistrations);
+        registrations.forEach(registration -> updated.put(registration.getRegistrationId(), registration));
+        return new TenantRuntime(this.userPoolInfo, this.jwkSet, this.jwtEncoder, this.jwsVerifiers, this.scopes, updated);
+    }
+
+    /**
+     * 回傳移除指定 ClientRegistrations 後的新 TenantRuntime
+     */
+    public TenantRuntime withoutClientRegistrations(Collection<String> registrationIds) {
+        Map<String, ClientRegistration> updated = new HashMap<>(this.clientRegistrations);
+        registrationIds.forEach(updated::remove);
+        return new TenantRuntime(this.userPoolInfo, this.jwkSet, this.jwtEncoder, this.jwsVerifiers, this.scopes, updated);
+    }
+}
@@ -6,26 +6,39 @@ import org.springframework.security.oauth2.client.registration.ClientRegistratio
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * InMemory ClientRegistration Repository
+ * 另以 User Pool ID 建立索引，查詢與移除某個 User Pool 的 ClientRegistrations 不需掃描全部資料
  */
 @Component
 @Slf4j
 public class InMemoryClientRegistrationRepository {
 
-    private final Map<String, ClientRegistrationContext> registrations = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ClientRegistrationContext> registrations = new ConcurrentHashMap<>();
+
+    // User Pool ID -> Registration IDs，與 registrations 在同一個 compute 內維護
+    private final ConcurrentMap<String, Set<String>> registrationIdsByUserPoolId = new ConcurrentHashMap<>();
 
     public void register(String userPoolId, ClientRegistration clientRegistration) {
         validate(clientRegistration);
         validateField(userPoolId, "user_pool_id");
 
+        String registrationId = clientRegistration.getRegistrationId();
         ClientRegistrationContext clientRegistrationContext = new ClientRegistrationContext(clientRegistration, userPoolId);
-        registrations.put(clientRegistration.getRegistrationId(), clientRegistrationContext);
+        registrations.compute(registrationId, (key, existing) -> {
+            if (existing != null && !userPoolId.equals(existing.getUserPoolId())) {
+                unindex(existing.getUserPoolId(), registrationId);
+            }
+            index(userPoolId, registrationId);
+            return clientRegistrationContext;
+        });
 
         log.info("Registered ClientRegistration with ID '{}' for User Pool ID '{}'. Client details: {}.",
                 clientRegistration.getRegistrationId(),
@@ -37,15 +50,38 @@ public class InMemoryClientRegistrationRepository {
         return this.registrations.get(registrationId);
     }
 
-    public List<ClientRegistrationContext> getAll() {
-        return new ArrayList<>(registrations.values());
+    public Collection<ClientRegistrationContext> getAll() {
+        return Collections.unmodifiableCollection(registrations.values());
+    }
+
+    public List<String> getRegistrationIdsByUserPoolId(String userPoolId) {
+        Set<String> registrationIds = this.registrationIdsByUserPoolId.get(userPoolId);
+        return registrationIds != null ? List.copyOf(registrationIds) : List.of();
     }
 
     public void remove(String registrationId) {
-        this.registrations.remove(registrationId);
+        this.registrations.computeIfPresent(registrationId, (key, existing) -> {
+            unindex(existing.getUserPoolId(), registrationId);
+            return null;
+        });
         log.info("Removed ClientRegistration for registrationId: {}", registrationId);
     }
 
+    private void index(String userPoolId, String registrationId) {
+        this.registrationIdsByUserPoolId.compute(userPoolId, (key, registrationIds) -> {
+            Set<String> updated = registrationIds != null ? registrationIds : ConcurrentHashMap.newKeySet();
+            updated.add(registrationId);
+            return updated;
+        });
+    }
+
+    private void unindex(String userPoolId, String registrationId) {
+        this.registrationIdsByUserPoolId.computeIfPresent(userPoolId, (key, registrationIds) -> {
+            registrationIds.remove(registrationId);
+            return registrationIds.isEmpty() ? null : registrationIds;
+        });
+    }
+
     private void validate(ClientRegistration clientRegistration) {
         if (clientRegistration == null) {
             log.error("clientRegistrationData 不能為空");
@@ -0,0 +1,43 @@
+package com.arplanets.auth.repository.inmemory;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * InMemory client_id -> User Pool ID 索引
+ * 同一個 client_id 可能存在於多個 User Pool
+ */
+@Component
+@Slf4j
+public class InMemoryClientUserPoolRepository {
+
+    private final Map<String, Set<String>> userPoolIdsByClientId = new ConcurrentHashMap<>();
+
+    public void put(String clientId, String userPoolId) {
+        Assert.hasText(clientId, "clientId cannot be empty");
+        Assert.hasText(userPoolId, "userPoolId cannot be empty");
+        userPoolIdsByClientId.computeIfAbsent(clientId, key -> ConcurrentHashMap.newKeySet()).add(userPoolId);
+    }
+
+    public Set<String> get(String clientId) {
+        Set<String> userPoolIds = userPoolIdsByClientId.get(clientId);
+        return userPoolIds != null ? Collections.unmodifiableSet(userPoolIds) : Collections.emptySet();
+    }
+
+    public void remove(String clientId, String userPoolId) {
+        userPoolIdsByClientId.computeIfPresent(clientId, (key, userPoolIds) -> {
+            userPoolIds.remove(userPoolId);
+            return userPoolIds.isEmpty() ? null : userPoolIds;
+        });
+    }
+
+    public int size() {
+        return userPoolIdsByClientId.size();
+    }
+}
@@ -1,117 +1,202 @@
 package com.arplanets.auth.repository.inmemory;
 
+import com.arplanets.auth.model.TenantRuntime;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.Nullable;
 import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContext;
 import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.net.URI;
-import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
+import java.util.function.UnaryOperator;
 
+/**
+ * 以 Pool Name (Issuer 路徑) 為 Tenant ID 保存各 Tenant 的 TenantRuntime
+ * 所有 Tenant 放在同一份不可變的 Snapshot 中，寫入時複製後整份替換 (copy-on-write)，讀取只需一次 volatile 讀取
+ */
 @Component
 @Slf4j
 public class TenantRepository {
 
-    // 不同 Tenant 的 Tenant ID 對應 不同的 Map 物件
-    // Map 物件以 Class 類別作 Key ， Value 為具體的實作
-    private final ConcurrentMap<String, Map<Class<?>, Object>> registry = new ConcurrentHashMap<>();
-
-    public <T> void register(String tenantId, Class<T> componentClass, T component) {
-        Assert.hasText(tenantId, "tenantId cannot be empty");
-        Assert.notNull(componentClass, "componentClass cannot be null");
-        Assert.notNull(component, "component cannot be null");
-        Map<Class<?>, Object> components = this.registry.computeIfAbsent(tenantId, key -> new ConcurrentHashMap<>());
-        components.put(componentClass, component);
-        log.info("Registered component {} for tenantId '{}'", componentClass.getSimpleName(), tenantId);
+    private static final String TENANT_ATTRIBUTE = TenantRepository.class.getName() + ".TENANT";
+
+    private static final int MAX_ISSUERS = 1024;
+
+    private record Snapshot(Map<String, TenantRuntime> byPoolName, Map<String, TenantRuntime> byUserPoolId) {
+
+        private static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of());
+    }
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    // Issuer -> Tenant ID
+    private final ConcurrentMap<String, String> tenantIdsByIssuer = new ConcurrentHashMap<>();
+
+    public void register(TenantRuntime tenantRuntime) {
+        registerAll(List.of(tenantRuntime));
+    }
+
+    /**
+     * 一次發布多個 Tenant，只複製一次 Snapshot
+     */
+    public synchronized void registerAll(Collection<TenantRuntime> tenantRuntimes) {
+        Assert.notNull(tenantRuntimes, "tenantRuntimes cannot be null");
+        Map<String, TenantRuntime> byPoolName = new HashMap<>(this.snapshot.byPoolName());
+        for (TenantRuntime tenantRuntime : tenantRuntimes) {
+            Assert.notNull(tenantRuntime, "tenantRuntime cannot be null");
+            byPoolName.put(tenantRuntime.poolName(), tenantRuntime);
+        }
+        publish(byPoolName);
+        tenantRuntimes.forEach(tenantRuntime ->
+                log.info("Registered TenantRuntime for tenantId '{}', User Pool ID '{}'", tenantRuntime.poolName(), tenantRuntime.userPoolId()));
+    }
+
+    /**
+     * 以 User Pool ID 找出 Tenant 並替換為 updater 的結果，Tenant 不存在時不做任何事
+     */
+    public void update(String userPoolId, UnaryOperator<TenantRuntime> updater) {
+        updateAll(Map.of(userPoolId, updater));
+    }
+
+    /**
+     * 一次更新多個 Tenant (Key 為 User Pool ID)，只複製一次 Snapshot
+     */
+    public synchronized void updateAll(Map<String, UnaryOperator<TenantRuntime>> updaters) {
+        Assert.notNull(updaters, "updaters cannot be null");
+        Snapshot current = this.snapshot;
+        Map<String, TenantRuntime> byPoolName = new HashMap<>(current.byPoolName());
+        updaters.forEach((userPoolId, updater) -> {
+            TenantRuntime tenantRuntime = current.byUserPoolId().get(userPoolId);
+            if (tenantRuntime == null) {
+                log.debug("No tenant registered for User Pool ID '{}', skip update.", userPoolId);
+                return;
+            }
+            TenantRuntime updated = updater.apply(tenantRuntime);
+            Assert.state(updated.poolName().equals(tenantRuntime.poolName()), "poolName of a tenant cannot be changed by update");
+            byPoolName.put(updated.poolName(), updated);
+        });
+        publish(byPoolName);
+    }
+
+    public synchronized void remove(String tenantId) {
+        if (!this.snapshot.byPoolName().containsKey(tenantId)) {
+            return;
+        }
+        Map<String, TenantRuntime> byPoolName = new HashMap<>(this.snapshot.byPoolName());
+        byPoolName.remove(tenantId);
+        publish(byPoolName);
+        log.info("Removed TenantRuntime for tenantId '{}'", tenantId);
     }
 
     @Nullable
-    public <T> T get(Class<T> componentClass) {
+    public TenantRuntime get(String tenantId) {
+        return this.snapshot.byPoolName().get(tenantId);
+    }
+
+    @Nullable
+    public TenantRuntime getByUserPoolId(String userPoolId) {
+        return this.snapshot.byUserPoolId().get(userPoolId);
+    }
+
+    public Collection<TenantRuntime> getAll() {
+        return this.snapshot.byPoolName().values();
+    }
+
+    /**
+     * 取得當前 Issuer 對應的 Tenant，同一個 Request 內只解析一次並存放在 Request Attribute
+     */
+    @Nullable
+    public TenantRuntime resolve() {
         AuthorizationServerContext context = AuthorizationServerContextHolder.getContext();
         if (context == null || context.getIssuer() == null) {
-            log.warn("Cannot get component, AuthorizationServerContext or Issuer is null.");
+            log.debug("Cannot resolve tenant, AuthorizationServerContext or Issuer is null.");
             return null;
         }
 
-        String runtimeIssuer = context.getIssuer();
-        String tenantId = extractPathAfterDomain(runtimeIssuer);
-
-        if (tenantId.isBlank()) {
-            log.warn("Could not extract tenant identifier from runtime issuer: {}", runtimeIssuer);
-            return null;
+        RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
+        if (requestAttributes != null
+                && requestAttributes.getAttribute(TENANT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof TenantRuntime tenantRuntime) {
+            return tenantRuntime;
         }
 
-        Map<Class<?>, Object> components = this.registry.get(tenantId);
-        if (components != null) {
-            Object component = components.get(componentClass);
-            if (component != null) {
-                log.debug("Found component {} for tenant '{}'", componentClass.getSimpleName(), tenantId);
-                return componentClass.cast(component);
-            } else {
-                log.warn("Component type {} not found for tenant '{}' in registry.", componentClass.getSimpleName(), tenantId);
-            }
-        } else {
-            log.warn("No components registered for tenant identifier '{}' (derived from issuer '{}')", tenantId, runtimeIssuer);
+        TenantRuntime tenantRuntime = resolve(context.getIssuer());
+        if (tenantRuntime != null && requestAttributes != null) {
+            requestAttributes.setAttribute(TENANT_ATTRIBUTE, tenantRuntime, RequestAttributes.SCOPE_REQUEST);
         }
+        return tenantRuntime;
+    }
 
-        return null;
+    /**
+     * 依 Issuer 取得 Tenant，Issuer -> Tenant ID 的對應解析過一次後即保留
+     */
+    @Nullable
+    public TenantRuntime resolve(String issuer) {
+        String tenantId = tenantId(issuer);
+        if (tenantId.isEmpty()) {
+            log.debug("Could not extract tenant identifier from runtime issuer: {}", issuer);
+            return null;
+        }
 
+        TenantRuntime tenantRuntime = get(tenantId);
+        if (tenantRuntime == null) {
+            log.debug("No tenant registered for tenant identifier '{}' (derived from issuer '{}')", tenantId, issuer);
+        }
+        return tenantRuntime;
     }
 
-    public <T> List<T> getAll(Class<T> componentClass) {
-        Assert.notNull(componentClass, "componentClass cannot be null");
-        return registry.values().stream()
-                .map(tenantComponents -> tenantComponents.get(componentClass))
-                .map(componentClass::cast)
-                .collect(Collectors.toList());
-    }
+    /**
+     * 取得 Issuer 對應的 Tenant ID，無法解析時回傳空字串
+     */
+    public String tenantId(String issuer) {
+        String tenantId = this.tenantIdsByIssuer.get(issuer);
+        if (tenantId != null) {
+            return tenantId;
+        }
 
-    public void remove(String tenantId) {
-        this.registry.remove(tenantId);
+        tenantId = extractTenantId(issuer);
+        // Issuer 來自 Request 的 Host，限制筆數避免被任意 Host 塞滿
+        if (!tenantId.isEmpty() && this.tenantIdsByIssuer.size() < MAX_ISSUERS) {
+            this.tenantIdsByIssuer.putIfAbsent(issuer, tenantId);
+        }
+        return tenantId;
     }
 
-    private String extractPathAfterDomain(String issuer) {
+    /**
+     * 取出 Issuer 中網域之後的路徑 (即 Pool Name)，不使用 URI 解析
+     */
+    public static String extractTenantId(String issuer) {
         if (issuer == null || issuer.isEmpty()) {
             return "";
         }
 
-        try {
-            URI uri = new URI(issuer);
-            String path = uri.getPath();
-
-            if (path != null) {
-                return path.startsWith("/") ? path.substring(1) : path;
-            }
-
-        } catch (URISyntaxException e) {
-            log.error("Issuer URL 格式不正確， issuer = {}", issuer);
+        int schemeEnd = issuer.indexOf("://");
+        int pathStart = issuer.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+        if (pathStart < 0) {
             return "";
         }
 
-        return "";
-    }
-
-    public <T> T get(Class<T> componentClass, String tenantId) {
-        Map<Class<?>, Object> components = this.registry.get(tenantId);
-        if (components != null) {
-            Object component = components.get(componentClass);
-            if (component != null) {
-                log.debug("Found component {} for tenant '{}'", componentClass.getSimpleName(), tenantId);
-                return componentClass.cast(component);
-            } else {
-                log.warn("Component type {} not found for tenant '{}' in registry.", componentClass.getSimpleName(), tenantId);
+        int pathEnd = issuer.length();
+        for (int i = pathStart + 1; i < issuer.length(); i++) {
+            char c = issuer.charAt(i);
+            if (c == '?' || c == '#') {
+                pathEnd = i;
+                break;
             }
-        } else {
-            log.warn("No components registered for tenant identifier '{}'", tenantId);
         }
+        return issuer.substring(pathStart + 1, pathEnd);
+    }
 
-        return null;
+    private void publish(Map<String, TenantRuntime> byPoolName) {
+        Map<String, TenantRuntime> byUserPoolId = new HashMap<>(byPoolName.size() * 2);
+        byPoolName.values().forEach(tenantRuntime -> byUserPoolId.put(tenantRuntime.userPoolId(), tenantRuntime));
+        this.snapshot = new Snapshot(Map.copyOf(byPoolName), Map.copyOf(byUserPoolId));
     }
 }
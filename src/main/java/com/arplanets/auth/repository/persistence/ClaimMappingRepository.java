@@ -2,6 +2,7 @@ package com.arplanets.auth.repository.persistence;
 
 import com.arplanets.auth.model.po.domain.ClaimMapping;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 
@@ -10,4 +11,9 @@ public interface ClaimMappingRepository {
     List<ClaimMapping> findByRegistrationId(String registrationId);
     List<ClaimMapping> findByRegistrationIdAndScopes(String registrationId, Set<String> scopes);
     void saveAll(List<ClaimMapping> claimMappingList);
+
+    /**
+     * 查詢 updated_at 晚於指定時間的對應設定 (含已停用、已刪除)
+     */
+    List<ClaimMapping> findUpdatedSince(Instant since);
 }
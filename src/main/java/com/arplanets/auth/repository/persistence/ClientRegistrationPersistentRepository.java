@@ -1,9 +1,27 @@
 package com.arplanets.auth.repository.persistence;
 
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
 public interface ClientRegistrationPersistentRepository {
 
     List<Map<String, Object>> findAll();
+
+    /**
+     * 查詢 updated_at 晚於指定時間的 Client Registrations (含已停用、已刪除)
+     */
+    List<Map<String, Object>> findUpdatedSince(Instant since);
+
+    /**
+     * 新增或更新 Client Registration，已軟刪除的資料重新啟用
+     */
+    void save(String userPoolId, ClientRegistration clientRegistration);
+
+    /**
+     * 軟刪除 User Pool 下所有 Client Registrations，其他機器由 ConfigurationSyncEngine 同步
+     */
+    int softDeleteByUserPoolId(String userPoolId);
 }
@@ -2,6 +2,10 @@ package com.arplanets.auth.repository.persistence;
 
 import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
 public interface RegisteredClientPersistentRepository {
 
     void save(RegisteredClient registeredClient);
@@ -9,4 +13,16 @@ public interface RegisteredClientPersistentRepository {
     RegisteredClient findByClientId(String clientId);
     String findUserPoolIdByClientId(String clientId);
 
+    /**
+     * Client 是否屬於該 User Pool (僅限啟用中、未刪除的 Client)
+     */
+    boolean existsByClientIdAndUserPoolId(String clientId, String userPoolId);
+
+    List<Map<String, Object>> findAllClientUserPools();
+
+    /**
+     * 查詢 updated_at 晚於指定時間的 Client (id、client_id、user_pool_id、狀態)，含已停用、已刪除
+     */
+    List<Map<String, Object>> findUpdatedSince(Instant since);
+
 }
@@ -2,9 +2,32 @@ package com.arplanets.auth.repository.persistence;
 
 import com.arplanets.auth.model.po.domain.UserPool;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface UserPoolRepository {
 
     List<UserPool> findAll();
+
+    UserPool findByPoolName(String poolName);
+
+    /**
+     * 查詢 updated_at 晚於指定時間的 User Pools (含已停用、已刪除)
+     */
+    List<UserPool> findUpdatedSince(Instant since);
+
+    /**
+     * 僅在 jwk_set 仍為 expectedJwkSet 時更新，回傳是否更新成功 (避免多台機器同時輪替)
+     */
+    boolean updateJwkSet(String userPoolId, String expectedJwkSet, String jwkSet);
+
+    /**
+     * 新增或更新 User Pool，已軟刪除的 User Pool 重新啟用
+     */
+    void save(UserPool userPool);
+
+    /**
+     * 軟刪除 (is_active = 0、deleted_at)，其他機器由 ConfigurationSyncEngine 同步，回傳是否有資料被刪除
+     */
+    boolean softDelete(String userPoolId);
 }
@@ -9,6 +9,8 @@ import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Repository;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -82,6 +84,17 @@ public class ClaimMappingRepositoryJdbcImpl implements ClaimMappingRepository {
         jdbcTemplate.batchUpdate(sql, batchArgs);
     }
 
+    @Override
+    public List<ClaimMapping> findUpdatedSince(Instant since) {
+        String sql = "SELECT registration_id, claim_name, idp_claim_name, scope, is_active, created_at, updated_at, deleted_at " +
+                "FROM user_attribute_mapping WHERE updated_at > ? ORDER BY updated_at ASC";
+
+        return jdbcTemplate.query(
+                sql,
+                ps -> ps.setTimestamp(1, Timestamp.from(since)),
+                userAttributeMappingRowMapper());
+    }
+
     private RowMapper<ClaimMapping> userAttributeMappingRowMapper() {
         return (rs, rowNum) -> {
             try {
@@ -1,12 +1,16 @@
 package com.arplanets.auth.repository.persistence.impl.jdbc;
 
 import com.arplanets.auth.repository.persistence.ClientRegistrationPersistentRepository;
+import com.arplanets.auth.utils.JsonUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.List;
 import java.util.Map;
 
@@ -17,25 +21,54 @@ public class ClientRegistrationPersistentRepositoryJdbcImpl implements ClientReg
 
     private final JdbcTemplate jdbcTemplate;
 
+    private static final String COLUMN_NAMES = "registration_id, " +
+            "user_pool_id, " +
+            "provider_name, " +
+            "client_id, " +
+            "client_secret, " +
+            "client_authentication_method, " +
+            "authorization_grant_type, " +
+            "redirect_uri, " +
+            "authorization_uri, " +
+            "post_logout_redirect_uris, " +
+            "token_uri, " +
+            "user_info_uri, " +
+            "jwk_set_uri, " +
+            "user_name_attribute_name, " +
+            "scopes ";
+
+    // updated_at 一律往後推進，同一毫秒內的連續異動也會被 ConfigurationSyncEngine 視為新的異動
+    private static final String UPDATED_AT = "updated_at = GREATEST(LOCALTIMESTAMP(3), TIMESTAMPADD(MICROSECOND, 1000, updated_at))";
+
+    private static final String UPSERT_SQL = "INSERT INTO client_registration (" + COLUMN_NAMES + ", is_active, deleted_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1, NULL) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "user_pool_id = VALUES(user_pool_id), " +
+            "provider_name = VALUES(provider_name), " +
+            "client_id = VALUES(client_id), " +
+            "client_secret = VALUES(client_secret), " +
+            "client_authentication_method = VALUES(client_authentication_method), " +
+            "authorization_grant_type = VALUES(authorization_grant_type), " +
+            "redirect_uri = VALUES(redirect_uri), " +
+            "authorization_uri = VALUES(authorization_uri), " +
+            "post_logout_redirect_uris = VALUES(post_logout_redirect_uris), " +
+            "token_uri = VALUES(token_uri), " +
+            "user_info_uri = VALUES(user_info_uri), " +
+            "jwk_set_uri = VALUES(jwk_set_uri), " +
+            "user_name_attribute_name = VALUES(user_name_attribute_name), " +
+            "scopes = VALUES(scopes), " +
+            "is_active = 1, " +
+            "deleted_at = NULL, " +
+            UPDATED_AT;
+
+    private static final String SOFT_DELETE_BY_USER_POOL_ID_SQL = "UPDATE client_registration " +
+            "SET is_active = 0, deleted_at = CURRENT_TIMESTAMP(3), " + UPDATED_AT + " " +
+            "WHERE user_pool_id = ? AND deleted_at IS NULL";
+
     @Override
     public List<Map<String, Object>> findAll() {
         try {
-            String sql = "SELECT " +
-                    "registration_id, " +
-                    "user_pool_id, " +
-                    "provider_name, " +
-                    "client_id, " +
-                    "client_secret, " +
-                    "client_authentication_method, " +
-                    "authorization_grant_type, " +
-                    "redirect_uri, " +
-                    "authorization_uri, " +
-                    "post_logout_redirect_uris, " +
-                    "token_uri, " +
-                    "user_info_uri, " +
-                    "jwk_set_uri, " +
-                    "user_name_attribute_name, " +
-                    "scopes " +
+            String sql = "SELECT " + COLUMN_NAMES +
                     "FROM client_registration " +
                     "WHERE is_active = 1 " +
                     "AND deleted_at IS NULL";
@@ -46,4 +79,56 @@ public class ClientRegistrationPersistentRepositoryJdbcImpl implements ClientReg
             throw new DataAccessException("Failed to retrieve all ClientRegistrations due to a database error.", e) {};
         }
     }
+
+    @Override
+    public List<Map<String, Object>> findUpdatedSince(Instant since) {
+        try {
+            String sql = "SELECT " + COLUMN_NAMES + ", is_active, deleted_at, updated_at " +
+                    "FROM client_registration " +
+                    "WHERE updated_at > ? " +
+                    "ORDER BY updated_at ASC";
+
+            return jdbcTemplate.queryForList(sql, Timestamp.from(since));
+        } catch (Exception e) {
+            log.error("Failed to retrieve updated ClientRegistrations from the database.", e);
+            throw new DataAccessException("Failed to retrieve updated ClientRegistrations due to a database error.", e) {};
+        }
+    }
+
+    @Override
+    public void save(String userPoolId, ClientRegistration clientRegistration) {
+        try {
+            ClientRegistration.ProviderDetails providerDetails = clientRegistration.getProviderDetails();
+            Object endSessionEndpoint = providerDetails.getConfigurationMetadata().get("end_session_endpoint");
+            jdbcTemplate.update(UPSERT_SQL,
+                    clientRegistration.getRegistrationId(),
+                    userPoolId,
+                    clientRegistration.getClientName(),
+                    clientRegistration.getClientId(),
+                    clientRegistration.getClientSecret(),
+                    clientRegistration.getClientAuthenticationMethod().getValue(),
+                    clientRegistration.getAuthorizationGrantType().getValue(),
+                    clientRegistration.getRedirectUri(),
+                    providerDetails.getAuthorizationUri(),
+                    endSessionEndpoint != null ? endSessionEndpoint.toString() : null,
+                    providerDetails.getTokenUri(),
+                    providerDetails.getUserInfoEndpoint().getUri(),
+                    providerDetails.getJwkSetUri(),
+                    providerDetails.getUserInfoEndpoint().getUserNameAttributeName(),
+                    JsonUtil.convertSetToJsonString(clientRegistration.getScopes()));
+        } catch (Exception e) {
+            log.error("Failed to save ClientRegistration '{}'.", clientRegistration.getRegistrationId(), e);
+            throw new DataAccessException("Failed to save ClientRegistration due to a database error.", e) {};
+        }
+    }
+
+    @Override
+    public int softDeleteByUserPoolId(String userPoolId) {
+        try {
+            return jdbcTemplate.update(SOFT_DELETE_BY_USER_POOL_ID_SQL, userPoolId);
+        } catch (Exception e) {
+            log.error("Failed to delete ClientRegistrations of UserPool '{}'.", userPoolId, e);
+            throw new DataAccessException("Failed to delete ClientRegistrations due to a database error.", e) {};
+        }
+    }
 }
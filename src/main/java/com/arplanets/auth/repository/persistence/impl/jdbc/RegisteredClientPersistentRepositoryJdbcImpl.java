@@ -10,8 +10,11 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.Assert;
 import org.springframework.util.CollectionUtils;
 
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Function;
 
 @Repository
@@ -80,8 +83,31 @@ public class RegisteredClientPersistentRepositoryJdbcImpl implements RegisteredC
     @Override
     public String findUserPoolIdByClientId(String clientId) {
         Assert.hasText(clientId, "clientId cannot be empty");
-        String sql = "SELECT user_pool_id FROM " + TABLE_NAME + " WHERE client_id = ?";
-        return jdbcOperations.queryForObject(sql, String.class, clientId);
+        String sql = "SELECT user_pool_id FROM " + TABLE_NAME + " WHERE client_id = ? AND is_active = 1 AND deleted_at IS NULL";
+        List<String> result = jdbcOperations.queryForList(sql, String.class, clientId);
+        return !CollectionUtils.isEmpty(result) ? result.get(0) : null;
+    }
+
+    @Override
+    public boolean existsByClientIdAndUserPoolId(String clientId, String userPoolId) {
+        Assert.hasText(clientId, "clientId cannot be empty");
+        Assert.hasText(userPoolId, "userPoolId cannot be empty");
+        String sql = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE client_id = ? AND user_pool_id = ? AND is_active = 1 AND deleted_at IS NULL";
+        Integer count = jdbcOperations.queryForObject(sql, Integer.class, clientId, userPoolId);
+        return count != null && count > 0;
+    }
+
+    @Override
+    public List<Map<String, Object>> findAllClientUserPools() {
+        String sql = "SELECT client_id, user_pool_id FROM " + TABLE_NAME + " WHERE is_active = 1 AND deleted_at IS NULL";
+        return jdbcOperations.queryForList(sql);
+    }
+
+    @Override
+    public List<Map<String, Object>> findUpdatedSince(Instant since) {
+        String sql = "SELECT id, client_id, user_pool_id, is_active, deleted_at, updated_at FROM " + TABLE_NAME +
+                " WHERE updated_at > ? ORDER BY updated_at ASC";
+        return jdbcOperations.queryForList(sql, Timestamp.from(since));
     }
 
 
@@ -14,6 +14,8 @@ import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -35,6 +37,46 @@ public class UserPoolRepositoryJdbcImpl implements UserPoolRepository {
         ORDER BY pool_name ASC
         """;
 
+    private static final String FIND_BY_POOL_NAME_SQL = """
+        SELECT
+            user_pool_id, pool_name, scopes, jwk_set,
+            is_active, created_at, updated_at, deleted_at
+        FROM user_pool
+        WHERE pool_name = ? AND is_active = true AND deleted_at IS NULL
+        """;
+
+    private static final String FIND_UPDATED_SINCE_SQL = """
+        SELECT
+            user_pool_id, pool_name, scopes, jwk_set,
+            is_active, created_at, updated_at, deleted_at
+        FROM user_pool
+        WHERE updated_at > ?
+        ORDER BY updated_at ASC
+        """;
+
+    private static final String UPDATE_JWK_SET_SQL = """
+        UPDATE user_pool
+        SET jwk_set = ?
+        WHERE user_pool_id = ? AND jwk_set = ? AND is_active = true AND deleted_at IS NULL
+        """;
+
+    // updated_at 一律往後推進，同一毫秒內的連續異動也會被 ConfigurationSyncEngine 視為新的異動
+    private static final String UPSERT_SQL = """
+        INSERT INTO user_pool (user_pool_id, pool_name, scopes, jwk_set, is_active, deleted_at)
+        VALUES (?, ?, ?, ?, true, NULL)
+        ON DUPLICATE KEY UPDATE
+            pool_name = VALUES(pool_name), scopes = VALUES(scopes), jwk_set = VALUES(jwk_set),
+            is_active = true, deleted_at = NULL,
+            updated_at = GREATEST(LOCALTIMESTAMP(3), TIMESTAMPADD(MICROSECOND, 1000, updated_at))
+        """;
+
+    private static final String SOFT_DELETE_SQL = """
+        UPDATE user_pool
+        SET is_active = false, deleted_at = CURRENT_TIMESTAMP(3),
+            updated_at = GREATEST(LOCALTIMESTAMP(3), TIMESTAMPADD(MICROSECOND, 1000, updated_at))
+        WHERE user_pool_id = ? AND deleted_at IS NULL
+        """;
+
     @Override
     public List<UserPool> findAll() {
         try {
@@ -45,6 +87,58 @@ public class UserPoolRepositoryJdbcImpl implements UserPoolRepository {
         }
     }
 
+    @Override
+    public UserPool findByPoolName(String poolName) {
+        try {
+            List<UserPool> userPools = jdbcTemplate.query(FIND_BY_POOL_NAME_SQL, userPoolRowMapper(), poolName);
+            return userPools.isEmpty() ? null : userPools.get(0);
+        } catch (Exception e) {
+            log.error("Failed to retrieve UserPool '{}' from the database.", poolName, e);
+            throw new DataAccessException("Failed to retrieve UserPool due to a database error.", e) {};
+        }
+    }
+
+    @Override
+    public List<UserPool> findUpdatedSince(Instant since) {
+        try {
+            return jdbcTemplate.query(FIND_UPDATED_SINCE_SQL, userPoolRowMapper(), Timestamp.from(since));
+        } catch (Exception e) {
+            log.error("Failed to retrieve updated UserPools from the database.", e);
+            throw new DataAccessException("Failed to retrieve updated UserPools due to a database error.", e) {};
+        }
+    }
+
+    @Override
+    public boolean updateJwkSet(String userPoolId, String expectedJwkSet, String jwkSet) {
+        try {
+            return jdbcTemplate.update(UPDATE_JWK_SET_SQL, jwkSet, userPoolId, expectedJwkSet) > 0;
+        } catch (Exception e) {
+            log.error("Failed to update JWKSet of UserPool '{}'.", userPoolId, e);
+            throw new DataAccessException("Failed to update JWKSet due to a database error.", e) {};
+        }
+    }
+
+    @Override
+    public void save(UserPool userPool) {
+        try {
+            String scopes = objectMapper.writeValueAsString(userPool.getScopes() != null ? userPool.getScopes() : Set.of());
+            jdbcTemplate.update(UPSERT_SQL, userPool.getUserPoolId(), userPool.getPoolName(), scopes, userPool.getJwkSet());
+        } catch (Exception e) {
+            log.error("Failed to save UserPool '{}'.", userPool.getUserPoolId(), e);
+            throw new DataAccessException("Failed to save UserPool due to a database error.", e) {};
+        }
+    }
+
+    @Override
+    public boolean softDelete(String userPoolId) {
+        try {
+            return jdbcTemplate.update(SOFT_DELETE_SQL, userPoolId) > 0;
+        } catch (Exception e) {
+            log.error("Failed to delete UserPool '{}'.", userPoolId, e);
+            throw new DataAccessException("Failed to delete UserPool due to a database error.", e) {};
+        }
+    }
+
     private RowMapper<UserPool> userPoolRowMapper() {
         return (rs, rowNum) -> {
 
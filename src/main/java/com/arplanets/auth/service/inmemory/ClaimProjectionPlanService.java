@@ -0,0 +1,84 @@
+package com.arplanets.auth.service.inmemory;
+
+import com.arplanets.auth.model.ClaimProjectionPlan;
+import com.arplanets.auth.model.po.domain.ClaimMapping;
+import com.arplanets.auth.repository.persistence.ClaimMappingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 依 (registration_id, Scopes) 快取 UserInfo 的 Claims 投影計畫，穩定狀態下 UserInfo 不需查詢 user_attribute_mapping
+ * 對應設定或 ClientRegistration 異動時 (由 ConfigurationSyncEngine 通知) 移除該 registration_id 的所有計畫
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ClaimProjectionPlanService {
+
+    private final ClaimMappingRepository claimMappingRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.claim-projection.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${auth.claim-projection.cache.ttl:1h}")
+    private Duration cacheTtl;
+
+    private record PlanKey(String registrationId, String scopes) {
+    }
+
+    private Cache<PlanKey, ClaimProjectionPlan> plans;
+
+    @PostConstruct
+    public void initializeCache() {
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, plans, "claim_projection_plan");
+    }
+
+    public ClaimProjectionPlan getPlan(String registrationId, Set<String> scopes) {
+        return plans.get(new PlanKey(registrationId, canonicalScopes(scopes)), key -> compile(registrationId, scopes));
+    }
+
+    /**
+     * 移除指定 registration_id 的所有計畫
+     */
+    public void invalidate(String registrationId) {
+        plans.asMap().keySet().removeIf(key -> key.registrationId().equals(registrationId));
+    }
+
+    private ClaimProjectionPlan compile(String registrationId, Set<String> scopes) {
+        List<ClaimMapping> claimMappings = claimMappingRepository.findByRegistrationIdAndScopes(registrationId, scopes);
+        log.debug("Compiled claim projection plan for registration '{}' and scopes {}", registrationId, scopes);
+        return ClaimProjectionPlan.of(claimMappings.stream()
+                .map(mapping -> new ClaimProjectionPlan.Projection(mapping.getClaimName(), mapping.getClaimName()))
+                .toList());
+    }
+
+    /**
+     * Scopes 的標準化 Key (小寫、去重、排序)，與查詢時的 LOWER(scope) 比對一致
+     */
+    private static String canonicalScopes(Set<String> scopes) {
+        return scopes.stream()
+                .map(scope -> scope.toLowerCase(Locale.ROOT))
+                .sorted()
+                .distinct()
+                .collect(Collectors.joining(" "));
+    }
+}
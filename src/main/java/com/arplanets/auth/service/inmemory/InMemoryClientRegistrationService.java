@@ -2,6 +2,8 @@ package com.arplanets.auth.service.inmemory;
 
 import com.arplanets.auth.repository.inmemory.InMemoryClientRegistrationRepository;
 import com.arplanets.auth.model.ClientRegistrationContext;
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
 import com.arplanets.auth.utils.JsonUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +16,7 @@ import org.springframework.util.StringUtils;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 @Service
@@ -22,13 +25,21 @@ import java.util.Set;
 public class InMemoryClientRegistrationService {
 
     private final InMemoryClientRegistrationRepository inMemoryClientRegistrationRepository;
+    private final TenantRepository tenantRepository;
 
     public ClientRegistrationContext get(String registrationId) {
         return inMemoryClientRegistrationRepository.get(registrationId);
     }
 
     public void register(String userPoolId, ClientRegistration clientRegistration) {
+        ClientRegistrationContext existing = inMemoryClientRegistrationRepository.get(clientRegistration.getRegistrationId());
         inMemoryClientRegistrationRepository.register(userPoolId, clientRegistration);
+        // 改屬其他 User Pool 時，從原 Tenant 移除
+        if (existing != null && !userPoolId.equals(existing.getUserPoolId())) {
+            tenantRepository.update(existing.getUserPoolId(),
+                    tenantRuntime -> tenantRuntime.withoutClientRegistrations(List.of(clientRegistration.getRegistrationId())));
+        }
+        tenantRepository.update(userPoolId, tenantRuntime -> tenantRuntime.withClientRegistrations(List.of(clientRegistration)));
     }
 
     public void register(Map<String, Object> data) {
@@ -38,18 +49,28 @@ public class InMemoryClientRegistrationService {
     }
 
     public void remove(String registrationId) {
+        ClientRegistrationContext registrationContext = inMemoryClientRegistrationRepository.get(registrationId);
         inMemoryClientRegistrationRepository.remove(registrationId);
+        if (registrationContext != null) {
+            tenantRepository.update(registrationContext.getUserPoolId(), tenantRuntime -> tenantRuntime.withoutClientRegistrations(List.of(registrationId)));
+        }
     }
 
     public void removeByUserPoolId(String userPoolId) {
         List<String> registrationIds = findRegistrationIdsByPoolId(userPoolId);
-        registrationIds.forEach(this::remove);
+        registrationIds.forEach(inMemoryClientRegistrationRepository::remove);
+        tenantRepository.update(userPoolId, tenantRuntime -> tenantRuntime.withoutClientRegistrations(registrationIds));
     }
 
     public List<String> findRegistrationIdsByPoolId(String poolId) {
-        return this.inMemoryClientRegistrationRepository.getAll().stream()
-                .filter(clientRegistrationContext -> poolId.equals(clientRegistrationContext.getUserPoolId()))
-                .map(clientRegistrationContext -> clientRegistrationContext.getClientRegistration().getRegistrationId())
+        return this.inMemoryClientRegistrationRepository.getRegistrationIdsByUserPoolId(poolId);
+    }
+
+    public List<ClientRegistration> findClientRegistrationsByPoolId(String poolId) {
+        return findRegistrationIdsByPoolId(poolId).stream()
+                .map(inMemoryClientRegistrationRepository::get)
+                .filter(Objects::nonNull)
+                .map(ClientRegistrationContext::getClientRegistration)
                 .toList();
     }
 
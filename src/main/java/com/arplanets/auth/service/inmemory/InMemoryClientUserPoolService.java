@@ -0,0 +1,89 @@
+package com.arplanets.auth.service.inmemory;
+
+import com.arplanets.auth.repository.inmemory.InMemoryClientUserPoolRepository;
+import com.arplanets.auth.repository.persistence.RegisteredClientPersistentRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryClientUserPoolService {
+
+    private final InMemoryClientUserPoolRepository inMemoryClientUserPoolRepository;
+    private final RegisteredClientPersistentRepository registeredClientPersistentRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.client-user-pool.negative-cache.maximum-size:10000}")
+    private long negativeCacheMaximumSize;
+
+    @Value("${auth.client-user-pool.negative-cache.ttl:5m}")
+    private Duration negativeCacheTtl;
+
+    // 資料庫中查無關聯的 Client 與 User Pool
+    private Cache<ClientUserPool, Boolean> unknownClientUserPools;
+
+    @PostConstruct
+    public void initializeCaches() {
+        this.unknownClientUserPools = Caffeine.newBuilder()
+                .maximumSize(negativeCacheMaximumSize)
+                .expireAfterWrite(negativeCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownClientUserPools, "client_user_pool_unknown");
+    }
+
+    public void put(String clientId, String userPoolId) {
+        if (StringUtils.hasText(clientId) && StringUtils.hasText(userPoolId)) {
+            inMemoryClientUserPoolRepository.put(clientId, userPoolId);
+            unknownClientUserPools.invalidate(new ClientUserPool(clientId, userPoolId));
+        }
+    }
+
+    public void remove(String clientId, String userPoolId) {
+        inMemoryClientUserPoolRepository.remove(clientId, userPoolId);
+    }
+
+    /**
+     * 判斷 Client 是否屬於該 User Pool
+     * 索引中沒有此關聯時 (例如由其他機器新增) 以 Client 與 User Pool 查詢資料庫 (僅限啟用中的 Client)
+     * 查到時補進索引，查無時暫存一段時間，期間內不再查詢資料庫
+     */
+    public boolean belongsTo(String clientId, String userPoolId) {
+        if (!StringUtils.hasText(clientId) || !StringUtils.hasText(userPoolId)) {
+            return false;
+        }
+        if (inMemoryClientUserPoolRepository.get(clientId).contains(userPoolId)) {
+            return true;
+        }
+
+        ClientUserPool key = new ClientUserPool(clientId, userPoolId);
+        if (unknownClientUserPools.getIfPresent(key) != null) {
+            return false;
+        }
+        if (!registeredClientPersistentRepository.existsByClientIdAndUserPoolId(clientId, userPoolId)) {
+            log.debug("Client '{}' does not belong to user pool '{}', caching negative result for {}", clientId, userPoolId, negativeCacheTtl);
+            unknownClientUserPools.put(key, Boolean.TRUE);
+            return false;
+        }
+        put(clientId, userPoolId);
+        return true;
+    }
+
+    public int size() {
+        return inMemoryClientUserPoolRepository.size();
+    }
+
+    private record ClientUserPool(String clientId, String userPoolId) {
+    }
+}
@@ -1,23 +1,33 @@
 package com.arplanets.auth.service.inmemory;
 
-import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.arplanets.auth.component.spring.oidc.jose.Ed25519Keys;
 import com.arplanets.auth.model.po.domain.UserPool;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
 import com.nimbusds.jose.jwk.JWKSet;
-import lombok.RequiredArgsConstructor;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetSequenceKey;
+import com.nimbusds.jose.jwk.RSAKey;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.text.ParseException;
+import java.util.Set;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TenantJwkService {
 
-    private final TenantRepository tenantRepository;
+    private static final int MINIMUM_RSA_KEY_SIZE = 2048;
 
-    public void registerUserPoolJwkSet(UserPool userPool) throws Exception {
+    private static final Set<Curve> SUPPORTED_EC_CURVES = Set.of(Curve.P_256, Curve.P_384, Curve.P_521);
+
+    /**
+     * 檢核並解析 User Pool 的 JWKSet
+     */
+    public JWKSet parseJwkSet(UserPool userPool) throws Exception {
         String tenantId = userPool.getPoolName();
 
         if (tenantId == null) {
@@ -42,7 +52,47 @@ public class TenantJwkService {
             throw e;
         }
 
-        tenantRepository.register(tenantId, JWKSet.class, jwkSet);
-        log.info("Registered JWKSet for Tenant ID: {}", tenantId);
+        validateSigningKeys(userPool, jwkSet);
+
+        log.debug("Parsed JWKSet for Tenant ID: {}", tenantId);
+        return jwkSet;
+    }
+
+    /**
+     * 檢核金鑰類型：RSA (至少 2048 bits)、EC (P-256、P-384、P-521)、Ed25519、HMAC，且至少要有一把簽章用私鑰
+     */
+    private void validateSigningKeys(UserPool userPool, JWKSet jwkSet) {
+        boolean hasSigningKey = false;
+        for (JWK jwk : jwkSet.getKeys()) {
+            String error = null;
+            if (jwk instanceof RSAKey rsaKey) {
+                if (rsaKey.size() < MINIMUM_RSA_KEY_SIZE) {
+                    error = "RSA key must be at least " + MINIMUM_RSA_KEY_SIZE + " bits";
+                }
+            } else if (jwk instanceof ECKey ecKey) {
+                if (!SUPPORTED_EC_CURVES.contains(ecKey.getCurve())) {
+                    error = "Unsupported EC curve " + ecKey.getCurve();
+                }
+            } else if (!Ed25519Keys.isEd25519(jwk) && !(jwk instanceof OctetSequenceKey)) {
+                error = "Unsupported key type " + jwk.getKeyType();
+            }
+
+            if (error != null) {
+                String errorMessage = String.format("Invalid JWK '%s' for UserPool ID: %s, Tenant ID: %s. Error: %s",
+                        jwk.getKeyID(), userPool.getUserPoolId(), userPool.getPoolName(), error);
+                log.error(errorMessage);
+                throw new IllegalStateException(errorMessage);
+            }
+
+            if (jwk.isPrivate() && (jwk.getKeyUse() == null || KeyUse.SIGNATURE.equals(jwk.getKeyUse()))) {
+                hasSigningKey = true;
+            }
+        }
+
+        if (!hasSigningKey) {
+            String errorMessage = String.format("JWKSet does not contain any signing key for UserPool ID: %s, Tenant ID: %s", userPool.getUserPoolId(), userPool.getPoolName());
+            log.error(errorMessage);
+            throw new IllegalStateException(errorMessage);
+        }
     }
 }
@@ -0,0 +1,169 @@
+package com.arplanets.auth.service.inmemory;
+
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.arplanets.auth.repository.persistence.UserPoolRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.Nullable;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContext;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * 取得當前 Issuer 的 TenantRuntime
+ * 啟用 Lazy Loading 時，Tenant 於第一次被存取時才從資料庫載入，閒置過久或超過上限時移出記憶體
+ * 查無資料的 Pool Name 會暫存一段時間，期間內不再查詢資料庫
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TenantLoader {
+
+    private final TenantRepository tenantRepository;
+    private final UserPoolRepository userPoolRepository;
+    private final TenantRuntimeService tenantRuntimeService;
+    private final InMemoryClientRegistrationService inMemoryClientRegistrationService;
+    private final MeterRegistry meterRegistry;
+
+    @Getter
+    @Value("${auth.tenant.lazy-loading.enabled:false}")
+    private boolean lazyLoadingEnabled;
+
+    @Value("${auth.tenant.cache.maximum-size:10000}")
+    private long cacheMaximumSize;
+
+    @Value("${auth.tenant.cache.idle-timeout:1h}")
+    private Duration cacheIdleTimeout;
+
+    @Value("${auth.tenant.negative-cache.maximum-size:10000}")
+    private long negativeCacheMaximumSize;
+
+    @Value("${auth.tenant.negative-cache.ttl:5m}")
+    private Duration negativeCacheTtl;
+
+    // Pool Name -> User Pool ID，僅記錄 Lazy 載入的 Tenant
+    private Cache<String, String> loadedTenants;
+
+    // 查無資料的 Pool Name
+    private Cache<String, Boolean> unknownPoolNames;
+
+    @PostConstruct
+    public void initializeCaches() {
+        this.loadedTenants = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterAccess(cacheIdleTimeout)
+                // 與移出快取同步執行，避免移除到剛重新載入的 Tenant
+                .evictionListener((String poolName, String userPoolId, RemovalCause cause) -> {
+                    tenantRepository.remove(poolName);
+                    log.info("Unloaded tenant '{}' ({})", poolName, cause);
+                })
+                .recordStats()
+                .build();
+        this.unknownPoolNames = Caffeine.newBuilder()
+                .maximumSize(negativeCacheMaximumSize)
+                .expireAfterWrite(negativeCacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, loadedTenants, "tenant_loaded");
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownPoolNames, "tenant_unknown");
+    }
+
+    @Nullable
+    public TenantRuntime resolve() {
+        TenantRuntime tenantRuntime = tenantRepository.resolve();
+        if (!lazyLoadingEnabled) {
+            return tenantRuntime;
+        }
+
+        if (tenantRuntime != null) {
+            // 更新最後存取時間
+            loadedTenants.getIfPresent(tenantRuntime.poolName());
+            return tenantRuntime;
+        }
+
+        AuthorizationServerContext context = AuthorizationServerContextHolder.getContext();
+        if (context == null || context.getIssuer() == null) {
+            return null;
+        }
+        String poolName = tenantRepository.tenantId(context.getIssuer());
+        return poolName.isEmpty() ? null : load(poolName);
+    }
+
+    /**
+     * 依 Pool Name 取得 Tenant，未啟用 Lazy Loading 時只查詢已載入的 Tenant
+     */
+    @Nullable
+    public TenantRuntime find(String poolName) {
+        return lazyLoadingEnabled ? load(poolName) : tenantRepository.get(poolName);
+    }
+
+    /**
+     * 載入指定 Pool Name 的 Tenant，同一個 Pool Name 同時只會查詢一次資料庫
+     */
+    @Nullable
+    public TenantRuntime load(String poolName) {
+        if (unknownPoolNames.getIfPresent(poolName) != null) {
+            return null;
+        }
+
+        if (loadedTenants.get(poolName, this::loadFromDatabase) == null) {
+            return null;
+        }
+
+        TenantRuntime tenantRuntime = tenantRepository.get(poolName);
+        if (tenantRuntime == null) {
+            // Tenant 已被移除 (例如透過 API 刪除)，下次存取時重新載入
+            loadedTenants.invalidate(poolName);
+        }
+        return tenantRuntime;
+    }
+
+    /**
+     * 移除 Pool Name 的查無資料紀錄 (例如該 User Pool 剛被新增)
+     */
+    public void forget(String poolName) {
+        unknownPoolNames.invalidate(poolName);
+    }
+
+    @Nullable
+    private String loadFromDatabase(String poolName) {
+        UserPool userPool;
+        try {
+            userPool = userPoolRepository.findByPoolName(poolName);
+        } catch (Exception e) {
+            log.warn("Failed to load tenant '{}': {}", poolName, e.getMessage());
+            return null;
+        }
+
+        if (userPool == null) {
+            log.debug("User pool '{}' not found, caching negative result for {}", poolName, negativeCacheTtl);
+            unknownPoolNames.put(poolName, Boolean.TRUE);
+            return null;
+        }
+
+        try {
+            TenantRuntime tenantRuntime = tenantRuntimeService.create(userPool,
+                    inMemoryClientRegistrationService.findClientRegistrationsByPoolId(userPool.getUserPoolId()));
+            tenantRepository.register(tenantRuntime);
+        } catch (Exception e) {
+            log.error("Failed to create TenantRuntime for pool '{}': {}", poolName, e.getMessage(), e);
+            unknownPoolNames.put(poolName, Boolean.TRUE);
+            return null;
+        }
+
+        log.info("Lazily loaded tenant '{}'", poolName);
+        return userPool.getUserPoolId();
+    }
+}
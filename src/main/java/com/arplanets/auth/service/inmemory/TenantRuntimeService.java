@@ -0,0 +1,42 @@
+package com.arplanets.auth.service.inmemory;
+
+import com.arplanets.auth.component.spring.oidc.TenantJwsVerifiers;
+import com.arplanets.auth.component.spring.oidc.TenantJwtEncoder;
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.nimbusds.jose.jwk.JWKSet;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 建立並發布 TenantRuntime，User Pool 的 JWKSet、User Pool Info 與 ClientRegistrations 一次生效
+ */
+@Service
+@RequiredArgsConstructor
+public class TenantRuntimeService {
+
+    private final TenantRepository tenantRepository;
+    private final TenantJwkService tenantJwkService;
+    private final UserPoolInfoService userPoolInfoService;
+
+    public TenantRuntime create(UserPool userPool, Collection<ClientRegistration> clientRegistrations) throws Exception {
+        JWKSet jwkSet = tenantJwkService.parseJwkSet(userPool);
+        return new TenantRuntime(
+                userPoolInfoService.createUserPoolInfo(userPool),
+                jwkSet,
+                new TenantJwtEncoder(jwkSet),
+                new TenantJwsVerifiers(jwkSet),
+                userPool.getScopes(),
+                clientRegistrations.stream().collect(Collectors.toMap(ClientRegistration::getRegistrationId, Function.identity())));
+    }
+
+    public void register(UserPool userPool, Collection<ClientRegistration> clientRegistrations) throws Exception {
+        tenantRepository.register(create(userPool, clientRegistrations));
+    }
+}
@@ -1,6 +1,7 @@
 package com.arplanets.auth.service.inmemory;
 
 import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.arplanets.auth.model.TenantRuntime;
 import com.arplanets.auth.model.UserPoolInfo;
 import com.arplanets.auth.model.po.domain.UserPool;
 import lombok.RequiredArgsConstructor;
@@ -9,7 +10,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 /**
- * 查詢、註冊、移除 In-memory User Pool Info
+ * 建立、查詢 In-memory User Pool Info
  */
 @Service
 @RequiredArgsConstructor
@@ -18,32 +19,27 @@ public class UserPoolInfoService {
 
     private final TenantRepository tenantRepository;
 
-    public void registerUserPoolInfo(UserPool userPool) {
+    /**
+     * 檢核並建立 User Pool Info
+     */
+    public UserPoolInfo createUserPoolInfo(UserPool userPool) {
         // 檢核資料
         validate(userPool);
 
-        // 註冊 User Pool Info
-        UserPoolInfo userPoolInfo = UserPoolInfo.builder()
+        return UserPoolInfo.builder()
                 .userPoolId(userPool.getUserPoolId())
                 .poolName(userPool.getPoolName())
                 .build();
-        this.tenantRepository.register(userPool.getPoolName(), UserPoolInfo.class, userPoolInfo);
-
-        log.info("Registered UserPoolInfo for Tenant ID: '{}'. User Pool ID '{}'. User Pool Name '{}'",
-                userPool.getPoolName(),
-                userPoolInfo.getUserPoolId(),
-                userPoolInfo.getPoolName());
     }
 
     public UserPoolInfo findByPoolId(String poolId) {
-        return tenantRepository.getAll(UserPoolInfo.class).stream()
-                .filter(userPoolInfo -> userPoolInfo.getUserPoolId().equals(poolId))
-                .findFirst()
-                .orElse(null);
+        TenantRuntime tenantRuntime = tenantRepository.getByUserPoolId(poolId);
+        return tenantRuntime != null ? tenantRuntime.userPoolInfo() : null;
     }
 
     public UserPoolInfo findByPoolName(String poolName) {
-        return tenantRepository.get(UserPoolInfo.class, poolName);
+        TenantRuntime tenantRuntime = tenantRepository.get(poolName);
+        return tenantRuntime != null ? tenantRuntime.userPoolInfo() : null;
     }
 
     private void validate(UserPool userPool) {
@@ -5,4 +5,9 @@ import java.util.Map;
 public interface UserInfoService {
 
     void saveUserClaims(String uid, String providerName, Map<String, Object> userInfo);
+
+    /**
+     * 取得使用者的 Claims (claim_name -> 已轉換為 Java 物件的值)
+     */
+    Map<String, Object> findUserClaims(String uid);
 }
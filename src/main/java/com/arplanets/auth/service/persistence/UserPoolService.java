@@ -0,0 +1,21 @@
+package com.arplanets.auth.service.persistence;
+
+import com.arplanets.auth.model.po.domain.UserPool;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+
+import java.util.List;
+
+
+public interface UserPoolService {
+
+    /**
+     * 寫入 User Pool 與其 Client Registrations，其他機器由 ConfigurationSyncEngine 同步
+     */
+    void save(UserPool userPool, List<ClientRegistration> clientRegistrations);
+
+    /**
+     * 軟刪除 User Pool 與其 Client Registrations
+     */
+    void remove(String userPoolId);
+
+}
@@ -5,18 +5,56 @@ import com.arplanets.auth.model.po.domain.UserClaim;
 import com.arplanets.auth.repository.persistence.ClaimMappingRepository;
 import com.arplanets.auth.repository.persistence.UserInfoRepository;
 import com.arplanets.auth.service.persistence.UserInfoService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * 使用者 Claims 的讀寫
+ * 讀取結果 (已轉換為 Java 物件) 依使用者快取，效期與 Access Token 一致；登入寫入時同步更新快取
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class UserInfoServiceImpl implements UserInfoService {
 
     private final UserInfoRepository userInfoRepository;
     private final ClaimMappingRepository claimMappingRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.user-claims.cache.maximum-size:100000}")
+    private long cacheMaximumSize;
+
+    @Value("${auth.user-claims.cache.ttl:5m}")
+    private Duration cacheTtl;
+
+    // user_id -> Claims
+    private Cache<String, Map<String, Object>> userClaims;
+
+    @PostConstruct
+    public void initializeCache() {
+        this.userClaims = Caffeine.newBuilder()
+                .maximumSize(cacheMaximumSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, userClaims, "user_claims");
+    }
 
     @Override
     public void saveUserClaims(String uid, String registrationId, Map<String, Object> idpClaims) {
@@ -38,8 +76,63 @@ public class UserInfoServiceImpl implements UserInfoService {
 
         if (finalClaims.isEmpty()) return;
 
-        userInfoRepository.saveAll(finalClaims);
+        try {
+            userInfoRepository.saveAll(finalClaims);
+        } catch (RuntimeException e) {
+            userClaims.invalidate(uid);
+            throw e;
+        }
+
+        // 2. 同步更新快取：已有快取時合併本次寫入的值
+        writeThrough(uid, finalClaims);
+    }
+
+    @Override
+    public Map<String, Object> findUserClaims(String uid) {
+        return userClaims.get(uid, this::loadUserClaims);
+    }
+
+    /**
+     * 在快取項目上原子地合併本次寫入的值；尚無快取時不建立，避免以不完整的 Claims 回應，下次查詢時再讀取完整資料
+     */
+    private void writeThrough(String uid, List<UserClaim> savedClaims) {
+        userClaims.asMap().computeIfPresent(uid, (id, cached) -> {
+            Map<String, Object> updated = new HashMap<>(cached);
+            for (UserClaim claim : savedClaims) {
+                // 與寫入資料庫後再讀出的結果一致 (JSON -> Java 物件)
+                Object value = toJavaObject(uid, claim.getClaimName(), objectMapper.valueToTree(claim.getValue()));
+                if (value != null) {
+                    updated.put(claim.getClaimName(), value);
+                } else {
+                    updated.remove(claim.getClaimName());
+                }
+            }
+            return Map.copyOf(updated);
+        });
+    }
 
+    private Map<String, Object> loadUserClaims(String uid) {
+        Map<String, Object> claims = new HashMap<>();
+        for (UserClaim claim : userInfoRepository.findByUserId(uid)) {
+            // 僅添加是 JsonNode 的部分
+            if (claim.getValue() instanceof JsonNode jsonNode) {
+                Object value = toJavaObject(uid, claim.getClaimName(), jsonNode);
+                if (value != null) {
+                    claims.put(claim.getClaimName(), value);
+                }
+            }
+        }
+        return Map.copyOf(claims);
     }
 
+    private Object toJavaObject(String uid, String claimName, JsonNode jsonNode) {
+        try {
+            return objectMapper.treeToValue(jsonNode, Object.class);
+        // 無法解析不添加
+        } catch (JsonProcessingException e) {
+            log.error("Failed to convert JsonNode to Object for claim '{}' for user {}. Node: {}",
+                    claimName, uid, jsonNode, e);
+            return null;
+        }
+    }
 }
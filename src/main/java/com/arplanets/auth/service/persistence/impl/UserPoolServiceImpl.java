@@ -0,0 +1,34 @@
+package com.arplanets.auth.service.persistence.impl;
+
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.arplanets.auth.repository.persistence.ClientRegistrationPersistentRepository;
+import com.arplanets.auth.repository.persistence.UserPoolRepository;
+import com.arplanets.auth.service.persistence.UserPoolService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+@Transactional
+@Service
+@RequiredArgsConstructor
+public class UserPoolServiceImpl implements UserPoolService {
+
+    private final UserPoolRepository userPoolRepository;
+    private final ClientRegistrationPersistentRepository clientRegistrationPersistentRepository;
+
+    @Override
+    public void save(UserPool userPool, List<ClientRegistration> clientRegistrations) {
+        userPoolRepository.save(userPool);
+        clientRegistrations.forEach(clientRegistration ->
+                clientRegistrationPersistentRepository.save(userPool.getUserPoolId(), clientRegistration));
+    }
+
+    @Override
+    public void remove(String userPoolId) {
+        clientRegistrationPersistentRepository.softDeleteByUserPoolId(userPoolId);
+        userPoolRepository.softDelete(userPoolId);
+    }
+}
@@ -0,0 +1,269 @@
+package com.arplanets.auth.service.sync;
+
+import com.arplanets.auth.component.spring.oidc.RegisteredClientRepositoryImpl;
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.po.domain.ClaimMapping;
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.arplanets.auth.repository.persistence.ClaimMappingRepository;
+import com.arplanets.auth.repository.persistence.ClientRegistrationPersistentRepository;
+import com.arplanets.auth.repository.persistence.RegisteredClientPersistentRepository;
+import com.arplanets.auth.repository.persistence.UserPoolRepository;
+import com.arplanets.auth.service.inmemory.ClaimProjectionPlanService;
+import com.arplanets.auth.service.inmemory.InMemoryClientRegistrationService;
+import com.arplanets.auth.service.inmemory.TenantLoader;
+import com.arplanets.auth.service.inmemory.TenantRuntimeService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 定期依 updated_at 輪詢 user_pool、client_registration、oauth2_registered_client、user_attribute_mapping，
+ * 將其他機器的異動 (新增、修改、停用、軟刪除) 套用到本機的 In-memory 資料與快取
+ * 只處理 updated_at 晚於上次進度的資料；為避免同一時間點較晚 commit 的資料被略過，每次會往前重疊一小段時間重新讀取
+ * 套用失敗的資料不推進進度，下次同步重試；連續失敗 max-attempts 次後略過
+ */
+@Component
+@ConditionalOnProperty(value = "auth.sync.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ConfigurationSyncEngine {
+
+    private static final String USER_POOL = "user_pool";
+    private static final String CLIENT_REGISTRATION = "client_registration";
+    private static final String REGISTERED_CLIENT = "oauth2_registered_client";
+    private static final String CLAIM_MAPPING = "user_attribute_mapping";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserPoolRepository userPoolRepository;
+    private final ClientRegistrationPersistentRepository clientRegistrationPersistentRepository;
+    private final RegisteredClientPersistentRepository registeredClientPersistentRepository;
+    private final ClaimMappingRepository claimMappingRepository;
+    private final TenantRepository tenantRepository;
+    private final TenantRuntimeService tenantRuntimeService;
+    private final TenantLoader tenantLoader;
+    private final InMemoryClientRegistrationService inMemoryClientRegistrationService;
+    private final RegisteredClientRepositoryImpl registeredClientRepository;
+    private final ClaimProjectionPlanService claimProjectionPlanService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.sync.overlap:5s}")
+    private Duration overlap;
+
+    @Value("${auth.sync.initial-lookback:5m}")
+    private Duration initialLookback;
+
+    @Value("${auth.sync.max-attempts:5}")
+    private int maxAttempts;
+
+    @FunctionalInterface
+    private interface RowHandler<T> {
+        void apply(T row) throws Exception;
+    }
+
+    // 資料表 -> 同步進度
+    private final Map<String, Watermark> watermarks = new HashMap<>();
+
+    // 最近一次成功同步的時間
+    private volatile Instant lastSyncedAt = Instant.now();
+
+    @PostConstruct
+    public void initializeMeters() {
+        Gauge.builder("config_sync_staleness_seconds", this,
+                        engine -> Duration.between(engine.lastSyncedAt, Instant.now()).toSeconds())
+                .description("Seconds since the last successful configuration sync")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${auth.sync.interval:5s}", initialDelayString = "${auth.sync.initial-delay:30s}")
+    public void sync() {
+        try {
+            // 以資料庫時間計算進度與延遲，避免與應用程式主機的時鐘誤差
+            Instant databaseNow = jdbcTemplate.queryForObject("SELECT CURRENT_TIMESTAMP(3)", Timestamp.class).toInstant();
+            if (watermarks.isEmpty()) {
+                Instant start = databaseNow.minus(initialLookback);
+                List.of(USER_POOL, CLIENT_REGISTRATION, REGISTERED_CLIENT, CLAIM_MAPPING)
+                        .forEach(table -> watermarks.put(table, new Watermark(start, overlap)));
+            }
+
+            // User Pool 先於 ClientRegistration 套用，新 Tenant 才能併入其 ClientRegistrations
+            apply(USER_POOL, userPoolRepository.findUpdatedSince(watermarks.get(USER_POOL).since()),
+                    UserPool::getUserPoolId, UserPool::getUpdatedAt, databaseNow, this::applyUserPool);
+            apply(CLIENT_REGISTRATION, clientRegistrationPersistentRepository.findUpdatedSince(watermarks.get(CLIENT_REGISTRATION).since()),
+                    row -> (String) row.get("registration_id"), row -> toInstant(row.get("updated_at")), databaseNow, this::applyClientRegistration);
+            apply(REGISTERED_CLIENT, registeredClientPersistentRepository.findUpdatedSince(watermarks.get(REGISTERED_CLIENT).since()),
+                    row -> (String) row.get("id"), row -> toInstant(row.get("updated_at")), databaseNow, this::applyRegisteredClient);
+            apply(CLAIM_MAPPING, claimMappingRepository.findUpdatedSince(watermarks.get(CLAIM_MAPPING).since()),
+                    mapping -> mapping.getRegistrationId() + ":" + mapping.getClaimName() + ":" + mapping.getScope(),
+                    ClaimMapping::getUpdatedAt, databaseNow, mapping -> claimProjectionPlanService.invalidate(mapping.getRegistrationId()));
+
+            lastSyncedAt = Instant.now();
+        } catch (Exception e) {
+            log.warn("Failed to sync configuration changes: {}", e.getMessage(), e);
+        }
+    }
+
+    private <T> void apply(String table, List<T> rows, Function<T, String> idOf, Function<T, Instant> updatedAtOf,
+                           Instant databaseNow, RowHandler<T> handler) {
+        Watermark watermark = watermarks.get(table);
+        watermark.release();
+        for (T row : rows) {
+            String id = idOf.apply(row);
+            Instant updatedAt = updatedAtOf.apply(row);
+            if (updatedAt == null || watermark.isApplied(id, updatedAt)) {
+                continue;
+            }
+
+            try {
+                handler.apply(row);
+                meterRegistry.counter("config_sync_applied", "table", table, "result", "success").increment();
+                meterRegistry.timer("config_sync_lag", "table", table).record(Duration.between(updatedAt, databaseNow).abs());
+                log.debug("Applied {} change '{}' updated at {}", table, id, updatedAt);
+            } catch (Exception e) {
+                int attempts = watermark.fail(id);
+                if (attempts < maxAttempts) {
+                    // 暫時性錯誤，進度停在此筆之前，下次同步重試
+                    meterRegistry.counter("config_sync_applied", "table", table, "result", "retry").increment();
+                    log.warn("Failed to apply {} change '{}' (attempt {}/{}), will retry: {}", table, id, attempts, maxAttempts, e.getMessage());
+                    watermark.hold(updatedAt);
+                    continue;
+                }
+                // 資料本身有誤時重試也不會成功，記錄後略過
+                meterRegistry.counter("config_sync_applied", "table", table, "result", "failure").increment();
+                log.error("Failed to apply {} change '{}' after {} attempts, skipping: {}", table, id, attempts, e.getMessage(), e);
+            }
+            watermark.markApplied(id, updatedAt);
+        }
+        watermark.prune();
+    }
+
+    private void applyUserPool(UserPool userPool) throws Exception {
+        TenantRuntime current = tenantRepository.getByUserPoolId(userPool.getUserPoolId());
+        boolean active = Boolean.TRUE.equals(userPool.getIsActive()) && userPool.getDeletedAt() == null;
+
+        if (current != null && (!active || !current.poolName().equals(userPool.getPoolName()))) {
+            tenantRepository.remove(current.poolName());
+        }
+        if (!active) {
+            return;
+        }
+
+        if (current == null && tenantLoader.isLazyLoadingEnabled()) {
+            // 尚未載入的 Tenant 等第一次存取時再載入
+            tenantLoader.forget(userPool.getPoolName());
+            return;
+        }
+        tenantRuntimeService.register(userPool,
+                inMemoryClientRegistrationService.findClientRegistrationsByPoolId(userPool.getUserPoolId()));
+    }
+
+    private void applyClientRegistration(Map<String, Object> row) {
+        String registrationId = (String) row.get("registration_id");
+        if (isActive(row)) {
+            inMemoryClientRegistrationService.register(row);
+        } else {
+            inMemoryClientRegistrationService.remove(registrationId);
+        }
+        // UserInfo 的 Claims 對應只包含啟用中的 ClientRegistration
+        claimProjectionPlanService.invalidate(registrationId);
+    }
+
+    private void applyRegisteredClient(Map<String, Object> row) {
+        registeredClientRepository.refresh((String) row.get("user_pool_id"), (String) row.get("id"),
+                (String) row.get("client_id"), isActive(row));
+    }
+
+    private static boolean isActive(Map<String, Object> row) {
+        Object isActive = row.get("is_active");
+        boolean active = isActive instanceof Boolean flag ? flag : isActive instanceof Number number && number.intValue() != 0;
+        return active && row.get("deleted_at") == null;
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toInstant();
+        } else if (value instanceof LocalDateTime localDateTime) {
+            // 與 ResultSet.getTimestamp 相同，以 JVM 時區解讀
+            return Timestamp.valueOf(localDateTime).toInstant();
+        } else if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        return null;
+    }
+
+    /**
+     * 單一資料表的同步進度
+     */
+    private static final class Watermark {
+
+        private final Duration overlap;
+
+        private Instant value;
+
+        // 重疊區間內已套用的 ID -> updated_at，避免重複套用
+        private final Map<String, Instant> applied = new HashMap<>();
+
+        // 套用失敗的 ID -> 連續失敗次數
+        private final Map<String, Integer> failures = new HashMap<>();
+
+        // 本次同步中最早套用失敗的 updated_at，進度不得超過此時間
+        private Instant heldAt;
+
+        private Watermark(Instant value, Duration overlap) {
+            this.value = value;
+            this.overlap = overlap;
+        }
+
+        private Instant since() {
+            return value.minus(overlap);
+        }
+
+        private boolean isApplied(String id, Instant updatedAt) {
+            return updatedAt.equals(applied.get(id));
+        }
+
+        private void markApplied(String id, Instant updatedAt) {
+            applied.put(id, updatedAt);
+            failures.remove(id);
+            if (updatedAt.isAfter(value) && (heldAt == null || updatedAt.isBefore(heldAt))) {
+                value = updatedAt;
+            }
+        }
+
+        private int fail(String id) {
+            return failures.merge(id, 1, Integer::sum);
+        }
+
+        private void hold(Instant updatedAt) {
+            if (heldAt == null || updatedAt.isBefore(heldAt)) {
+                heldAt = updatedAt;
+            }
+        }
+
+        private void release() {
+            heldAt = null;
+        }
+
+        private void prune() {
+            Instant since = since();
+            applied.values().removeIf(updatedAt -> !updatedAt.isAfter(since));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.arplanets.auth.service.sync;
+
+import com.arplanets.auth.component.spring.oidc.jose.Ed25519Keys;
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.arplanets.auth.repository.persistence.UserPoolRepository;
+import com.arplanets.auth.service.inmemory.TenantRuntimeService;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 定期輪替各 User Pool 的簽章金鑰
+ * 新金鑰以 nbf 延後生效，先發布於 JWKS 讓 Resource Server 預先取得；生效後舊金鑰設定 exp，
+ * 保留到已簽發的 Token 過期後才從 JWKS 移除
+ * 輪替結果寫回 user_pool.jwk_set (以原值比對，多台機器只有一台成功)，其他機器由 ConfigurationSyncEngine 同步
+ */
+@Component
+@ConditionalOnProperty(value = "auth.key-rotation.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class TenantKeyRotationService {
+
+    private final UserPoolRepository userPoolRepository;
+    private final TenantRepository tenantRepository;
+    private final TenantRuntimeService tenantRuntimeService;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${auth.key-rotation.period:90d}")
+    private Duration rotationPeriod;
+
+    @Value("${auth.key-rotation.pre-publish:1d}")
+    private Duration prePublish;
+
+    @Value("${auth.key-rotation.retention:1d}")
+    private Duration retention;
+
+    @Scheduled(fixedDelayString = "${auth.key-rotation.interval:1h}", initialDelayString = "${auth.key-rotation.initial-delay:1m}")
+    public void rotate() {
+        List<UserPool> userPools;
+        try {
+            userPools = userPoolRepository.findAll();
+        } catch (Exception e) {
+            log.warn("Failed to load user pools for key rotation: {}", e.getMessage(), e);
+            return;
+        }
+
+        for (UserPool userPool : userPools) {
+            try {
+                rotate(userPool, Instant.now());
+            } catch (Exception e) {
+                meterRegistry.counter("tenant_key_rotation", "result", "failure").increment();
+                log.error("Failed to rotate signing key of UserPool ID: {}: {}", userPool.getUserPoolId(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void rotate(UserPool userPool, Instant now) throws Exception {
+        JWKSet jwkSet = JWKSet.parse(userPool.getJwkSet());
+        List<JWK> keys = new ArrayList<>(jwkSet.getKeys());
+
+        // 1. 移除已到期的舊金鑰
+        boolean changed = keys.removeIf(jwk -> isExpired(jwk, now));
+
+        // 2. 尚有預先發布、未生效的金鑰時不再輪替
+        boolean pending = keys.stream().anyMatch(jwk -> isSigningKey(jwk) && activatesAt(jwk).isAfter(now));
+        JWK current = keys.stream()
+                .filter(jwk -> isSigningKey(jwk) && jwk.getExpirationTime() == null && !activatesAt(jwk).isAfter(now))
+                .max(Comparator.comparing(TenantKeyRotationService::activatesAt))
+                .orElse(null);
+
+        // 3. 目前的金鑰將屆輪替週期時，產生新金鑰並預先發布
+        String rotatedKeyId = null;
+        if (!pending && current != null && isRotatable(current)) {
+            Instant issuedAt = current.getIssueTime() != null ? current.getIssueTime().toInstant() : activatesAt(current);
+            if (!issuedAt.plus(rotationPeriod).minus(prePublish).isAfter(now)) {
+                Instant activatesAt = now.plus(prePublish);
+                JWK successor = withTimes(generateSuccessor(current), Map.of(
+                        "iat", now.getEpochSecond(),
+                        "nbf", activatesAt.getEpochSecond()));
+                keys.set(keys.indexOf(current), withTimes(current, Map.of(
+                        "exp", activatesAt.plus(retention).getEpochSecond())));
+                keys.add(successor);
+                rotatedKeyId = successor.getKeyID();
+                changed = true;
+            }
+        }
+
+        if (!changed) {
+            return;
+        }
+
+        String rotatedJwkSet = new JWKSet(keys).toString(false);
+        if (!userPoolRepository.updateJwkSet(userPool.getUserPoolId(), userPool.getJwkSet(), rotatedJwkSet)) {
+            log.debug("JWKSet of UserPool ID: {} was changed by another node, skip", userPool.getUserPoolId());
+            return;
+        }
+        if (rotatedKeyId != null) {
+            meterRegistry.counter("tenant_key_rotation", "result", "success").increment();
+            log.info("Pre-published signing key '{}' for UserPool ID: {}, replacing '{}'", rotatedKeyId, userPool.getUserPoolId(), current.getKeyID());
+        }
+
+        // 已載入的 Tenant 立即套用，不等同步
+        TenantRuntime tenantRuntime = tenantRepository.getByUserPoolId(userPool.getUserPoolId());
+        if (tenantRuntime != null) {
+            userPool.setJwkSet(rotatedJwkSet);
+            tenantRuntimeService.register(userPool, tenantRuntime.clientRegistrations().values());
+        }
+    }
+
+    private static boolean isSigningKey(JWK jwk) {
+        return jwk.isPrivate() && (jwk.getKeyUse() == null || KeyUse.SIGNATURE.equals(jwk.getKeyUse()));
+    }
+
+    private static boolean isRotatable(JWK jwk) {
+        return jwk instanceof RSAKey || jwk instanceof ECKey || Ed25519Keys.isEd25519(jwk);
+    }
+
+    private static boolean isExpired(JWK jwk, Instant now) {
+        return jwk.getExpirationTime() != null && !jwk.getExpirationTime().toInstant().isAfter(now);
+    }
+
+    private static Instant activatesAt(JWK jwk) {
+        Date notBeforeTime = jwk.getNotBeforeTime();
+        return notBeforeTime != null ? notBeforeTime.toInstant() : Instant.EPOCH;
+    }
+
+    /**
+     * 產生與目前金鑰相同類型 (RSA 長度、EC 曲線、Ed25519) 與演算法的新金鑰
+     */
+    private static JWK generateSuccessor(JWK current) throws JOSEException {
+        String keyId = UUID.randomUUID().toString();
+        if (current instanceof RSAKey rsaKey) {
+            return new RSAKeyGenerator(rsaKey.size())
+                    .keyID(keyId)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(current.getAlgorithm())
+                    .generate();
+        } else if (current instanceof ECKey ecKey) {
+            return new ECKeyGenerator(ecKey.getCurve())
+                    .keyID(keyId)
+                    .keyUse(KeyUse.SIGNATURE)
+                    .algorithm(current.getAlgorithm())
+                    .generate();
+        }
+        return Ed25519Keys.generate()
+                .keyID(keyId)
+                .keyUse(KeyUse.SIGNATURE)
+                .algorithm(current.getAlgorithm())
+                .build();
+    }
+
+    /**
+     * 設定 JWK 的 iat、nbf、exp (秒)
+     */
+    private static JWK withTimes(JWK jwk, Map<String, Long> times) throws ParseException {
+        Map<String, Object> json = jwk.toJSONObject();
+        json.putAll(times);
+        return JWK.parse(json);
+    }
+}
@@ -0,0 +1,25 @@
+-- oauth2_authorization：新增 Token SHA-256 雜湊欄位與索引，供 MySqlOAuth2AuthorizationService 以雜湊查詢
+-- 雜湊值為 Token 值 UTF-8 位元組的 SHA-256 (32 bytes)，與程式端計算方式相同
+-- 本檔僅執行一次；回填於另一個可重複執行的腳本分批處理
+
+ALTER TABLE oauth2_authorization
+    ADD COLUMN state_hash BINARY(32) NULL,
+    ADD COLUMN authorization_code_hash BINARY(32) NULL,
+    ADD COLUMN access_token_hash BINARY(32) NULL,
+    ADD COLUMN oidc_id_token_hash BINARY(32) NULL,
+    ADD COLUMN refresh_token_hash BINARY(32) NULL,
+    ADD COLUMN user_code_hash BINARY(32) NULL,
+    ADD COLUMN device_code_hash BINARY(32) NULL,
+    ALGORITHM = INPLACE, LOCK = NONE;
+
+-- 既有資料的回填見 001_oauth2_authorization_token_hashes_backfill.sql
+
+ALTER TABLE oauth2_authorization
+    ADD INDEX idx_oauth2_authorization_state_hash (state_hash),
+    ADD INDEX idx_oauth2_authorization_authorization_code_hash (authorization_code_hash),
+    ADD INDEX idx_oauth2_authorization_access_token_hash (access_token_hash),
+    ADD INDEX idx_oauth2_authorization_oidc_id_token_hash (oidc_id_token_hash),
+    ADD INDEX idx_oauth2_authorization_refresh_token_hash (refresh_token_hash),
+    ADD INDEX idx_oauth2_authorization_user_code_hash (user_code_hash),
+    ADD INDEX idx_oauth2_authorization_device_code_hash (device_code_hash),
+    ALGORITHM = INPLACE, LOCK = NONE;
@@ -0,0 +1,47 @@
+-- oauth2_authorization：回填 Token SHA-256 雜湊欄位 (須在 001_oauth2_authorization_token_hashes.sql 之後執行)
+-- 依主鍵 id 由小到大分批，每批 10000 筆各自 commit，以上一批最後的 id 為游標，每批只掃描主鍵範圍內的資料
+-- 可重複執行，已回填的資料不會再更新
+-- 部署新版前必須執行完成，否則舊資料的 Token 將無法以雜湊查到
+
+DROP PROCEDURE IF EXISTS backfill_oauth2_authorization_token_hashes;
+
+DELIMITER //
+CREATE PROCEDURE backfill_oauth2_authorization_token_hashes()
+BEGIN
+    DECLARE last_id VARCHAR(100) DEFAULT '';
+    DECLARE batch_last_id VARCHAR(100);
+
+    batches: LOOP
+        -- 本批的 id 範圍 (last_id, batch_last_id]，只讀主鍵索引
+        SET batch_last_id = NULL;
+        SELECT MAX(id) INTO batch_last_id
+        FROM (SELECT id FROM oauth2_authorization WHERE id > last_id ORDER BY id LIMIT 10000) batch;
+        IF batch_last_id IS NULL THEN
+            LEAVE batches;
+        END IF;
+
+        UPDATE oauth2_authorization
+        SET state_hash              = IF(state IS NULL, NULL, UNHEX(SHA2(state, 256))),
+            authorization_code_hash = IF(authorization_code_value IS NULL, NULL, UNHEX(SHA2(authorization_code_value, 256))),
+            access_token_hash       = IF(access_token_value IS NULL, NULL, UNHEX(SHA2(access_token_value, 256))),
+            oidc_id_token_hash      = IF(oidc_id_token_value IS NULL, NULL, UNHEX(SHA2(oidc_id_token_value, 256))),
+            refresh_token_hash      = IF(refresh_token_value IS NULL, NULL, UNHEX(SHA2(refresh_token_value, 256))),
+            user_code_hash          = IF(user_code_value IS NULL, NULL, UNHEX(SHA2(user_code_value, 256))),
+            device_code_hash        = IF(device_code_value IS NULL, NULL, UNHEX(SHA2(device_code_value, 256)))
+        WHERE id > last_id AND id <= batch_last_id
+          AND ((state IS NOT NULL AND state_hash IS NULL)
+            OR (authorization_code_value IS NOT NULL AND authorization_code_hash IS NULL)
+            OR (access_token_value IS NOT NULL AND access_token_hash IS NULL)
+            OR (oidc_id_token_value IS NOT NULL AND oidc_id_token_hash IS NULL)
+            OR (refresh_token_value IS NOT NULL AND refresh_token_hash IS NULL)
+            OR (user_code_value IS NOT NULL AND user_code_hash IS NULL)
+            OR (device_code_value IS NOT NULL AND device_code_hash IS NULL));
+        COMMIT;
+
+        SET last_id = batch_last_id;
+    END LOOP;
+END //
+DELIMITER ;
+
+CALL backfill_oauth2_authorization_token_hashes();
+DROP PROCEDURE backfill_oauth2_authorization_token_hashes;
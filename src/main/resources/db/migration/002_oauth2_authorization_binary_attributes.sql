@@ -0,0 +1,11 @@
+-- oauth2_authorization：attributes 與各 Token metadata 改為 Smile 二進位編碼，欄位需為 BLOB
+-- 預設 schema 已為 BLOB 時不影響；若曾建立為 TEXT，轉換後既有 JSON 位元組不變，仍可讀取
+
+ALTER TABLE oauth2_authorization
+    MODIFY attributes BLOB NULL,
+    MODIFY authorization_code_metadata BLOB NULL,
+    MODIFY access_token_metadata BLOB NULL,
+    MODIFY oidc_id_token_metadata BLOB NULL,
+    MODIFY refresh_token_metadata BLOB NULL,
+    MODIFY user_code_metadata BLOB NULL,
+    MODIFY device_code_metadata BLOB NULL;
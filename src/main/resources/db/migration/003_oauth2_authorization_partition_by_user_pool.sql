@@ -0,0 +1,70 @@
+-- oauth2_authorization：新增 user_pool_id 並依 User Pool 分區
+-- 有 UserPoolContext 的查詢與過期清除只會掃描單一 User Pool 的 partition
+--
+-- 不採用依時間 (RANGE) 分區：MySQL 要求分區欄位必須包含在主鍵中，
+-- 以到期時間分區時主鍵須改為 (id, 到期時間)，每次換發 Token 到期時間都會變動，
+-- 以 id 為準的 INSERT ... ON DUPLICATE KEY UPDATE 便無法再命中同一筆資料；
+-- 時間面向改由 (user_pool_id, 到期時間) 索引與 OAuth2AuthorizationReaper 分批清除處理
+--
+-- 執行需求：
+-- 1. ADD COLUMN (可為 NULL、加在最後) 為 INSTANT，回填與清除依主鍵範圍分批 commit，可在服務運作中執行
+-- 2. 最後的 ALTER TABLE (改主鍵 + PARTITION BY KEY) 只能以 ALGORITHM=COPY 重建整張表，
+--    重建期間鎖表禁止寫入，耗時與資料量成正比；須安排停機時段，或停止寫入後執行
+-- 3. 無法停機時，改以 pt-online-schema-change 執行第 2 步 (以觸發器同步異動，最後短暫鎖表切換)：
+--    pt-online-schema-change --no-check-alter --execute D=<database>,t=oauth2_authorization --alter "
+--        MODIFY user_pool_id VARCHAR(100) NOT NULL, DROP PRIMARY KEY, ADD PRIMARY KEY (id, user_pool_id),
+--        ADD INDEX idx_oauth2_authorization_user_pool_refresh_expires (user_pool_id, refresh_token_expires_at),
+--        ADD INDEX idx_oauth2_authorization_user_pool_access_expires (user_pool_id, access_token_expires_at)
+--        PARTITION BY KEY (user_pool_id) PARTITIONS 16"
+--    執行前須先跑完第 1 步，且新版應用程式已部署 (寫入時帶 user_pool_id)
+
+ALTER TABLE oauth2_authorization
+    ADD COLUMN user_pool_id VARCHAR(100) NULL,
+    ALGORITHM = INSTANT;
+
+DROP PROCEDURE IF EXISTS backfill_oauth2_authorization_user_pool_id;
+
+DELIMITER //
+CREATE PROCEDURE backfill_oauth2_authorization_user_pool_id()
+BEGIN
+    DECLARE last_id VARCHAR(100) DEFAULT '';
+    DECLARE batch_last_id VARCHAR(100);
+
+    batches: LOOP
+        -- 本批的 id 範圍 (last_id, batch_last_id]，只讀主鍵索引
+        SET batch_last_id = NULL;
+        SELECT MAX(id) INTO batch_last_id
+        FROM (SELECT id FROM oauth2_authorization WHERE id > last_id ORDER BY id LIMIT 10000) batch;
+        IF batch_last_id IS NULL THEN
+            LEAVE batches;
+        END IF;
+
+        -- 依 Client 所屬的 User Pool 回填
+        UPDATE oauth2_authorization a
+            INNER JOIN oauth2_registered_client orc ON orc.id = a.registered_client_id
+        SET a.user_pool_id = orc.user_pool_id
+        WHERE a.id > last_id AND a.id <= batch_last_id
+          AND a.user_pool_id IS NULL;
+
+        -- Client 已不存在的授權無法再使用
+        DELETE FROM oauth2_authorization
+        WHERE id > last_id AND id <= batch_last_id
+          AND user_pool_id IS NULL;
+        COMMIT;
+
+        SET last_id = batch_last_id;
+    END LOOP;
+END //
+DELIMITER ;
+
+CALL backfill_oauth2_authorization_user_pool_id();
+DROP PROCEDURE backfill_oauth2_authorization_user_pool_id;
+
+-- 重建整張表 (見開頭的執行需求)，改主鍵、索引與分區合併為一次重建
+ALTER TABLE oauth2_authorization
+    MODIFY user_pool_id VARCHAR(100) NOT NULL,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, user_pool_id),
+    ADD INDEX idx_oauth2_authorization_user_pool_refresh_expires (user_pool_id, refresh_token_expires_at),
+    ADD INDEX idx_oauth2_authorization_user_pool_access_expires (user_pool_id, access_token_expires_at)
+    PARTITION BY KEY (user_pool_id) PARTITIONS 16;
@@ -0,0 +1,17 @@
+-- user_pool、client_registration、oauth2_registered_client：updated_at 於每次異動時自動更新並建立索引
+-- ConfigurationSyncEngine 依 updated_at 輪詢其他機器的異動；刪除須以 is_active / deleted_at 軟刪除，才會被同步
+
+UPDATE user_pool SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP(3)) WHERE updated_at IS NULL;
+ALTER TABLE user_pool
+    MODIFY COLUMN updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_user_pool_updated_at (updated_at);
+
+UPDATE client_registration SET updated_at = CURRENT_TIMESTAMP(3) WHERE updated_at IS NULL;
+ALTER TABLE client_registration
+    MODIFY COLUMN updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_client_registration_updated_at (updated_at);
+
+UPDATE oauth2_registered_client SET updated_at = CURRENT_TIMESTAMP(3) WHERE updated_at IS NULL;
+ALTER TABLE oauth2_registered_client
+    MODIFY COLUMN updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_oauth2_registered_client_updated_at (updated_at);
@@ -0,0 +1,7 @@
+-- user_attribute_mapping：updated_at 於每次異動時自動更新並建立索引
+-- ConfigurationSyncEngine 依 updated_at 輪詢對應設定的異動，移除 UserInfo 的 Claims 投影計畫快取
+
+UPDATE user_attribute_mapping SET updated_at = COALESCE(created_at, CURRENT_TIMESTAMP(3)) WHERE updated_at IS NULL;
+ALTER TABLE user_attribute_mapping
+    MODIFY COLUMN updated_at DATETIME(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    ADD INDEX idx_user_attribute_mapping_updated_at (updated_at);
@@ -0,0 +1,97 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec;
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec.Format;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationCodec;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationJournal;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationJournal.Entry;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationJournal.FsyncPolicy;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationRecords;
+import com.arplanets.auth.component.spring.oidc.authorization.TestOAuth2Authorizations;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuthorizationTokenClaimsTests {
+
+    private static final AuthorizationTokenClaims CLAIMS = new AuthorizationTokenClaims("uuid-1", "google", "sid-1", "auth-1");
+
+    @TempDir
+    Path directory;
+
+    private final RegisteredClient registeredClient = TestOAuth2Authorizations.registeredClient();
+
+    @Test
+    void survivesJavaSerializationOfAuthorization() throws Exception {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+            oos.writeObject(authorization);
+        }
+        OAuth2Authorization restored;
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            restored = (OAuth2Authorization) ois.readObject();
+        }
+
+        assertThat(AuthorizationTokenClaims.get(restored)).isEqualTo(CLAIMS);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Format.class)
+    void survivesCodecRoundTrip(Format format) {
+        OAuth2AuthorizationCodec codec = new JacksonOAuth2AuthorizationCodec(format);
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+
+        OAuth2Authorization restored = OAuth2AuthorizationRecords.fromRecord(
+                OAuth2AuthorizationRecords.toRecord(authorization, codec), registeredClient, codec);
+
+        assertThat(AuthorizationTokenClaims.get(restored)).isEqualTo(CLAIMS);
+    }
+
+    @Test
+    void survivesJournalRoundTrip() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        InMemoryRegisteredClientRepository registeredClientRepository = new InMemoryRegisteredClientRepository(registeredClient);
+        OAuth2AuthorizationCodec codec = new JacksonOAuth2AuthorizationCodec(Format.JSON);
+
+        try (OAuth2AuthorizationJournal journal = new OAuth2AuthorizationJournal(directory, FsyncPolicy.ALWAYS, codec, registeredClientRepository)) {
+            journal.append(new Entry(authorization, false));
+        }
+        List<Entry> replayed = new ArrayList<>();
+        try (OAuth2AuthorizationJournal journal = new OAuth2AuthorizationJournal(directory, FsyncPolicy.ALWAYS, codec, registeredClientRepository)) {
+            journal.replay(replayed::add);
+        }
+
+        assertThat(replayed).hasSize(1);
+        assertThat(AuthorizationTokenClaims.get(replayed.get(0).authorization())).isEqualTo(CLAIMS);
+    }
+
+    @Test
+    void keepsNullClaims() {
+        OAuth2AuthorizationCodec codec = new JacksonOAuth2AuthorizationCodec(Format.JSON);
+        AuthorizationTokenClaims claims = new AuthorizationTokenClaims(null, null, null, "auth-1");
+        OAuth2Authorization authorization = OAuth2Authorization.from(TestOAuth2Authorizations.authorization(registeredClient))
+                .attribute(AuthorizationTokenClaims.ATTRIBUTE_NAME, claims)
+                .build();
+
+        OAuth2Authorization restored = OAuth2AuthorizationRecords.fromRecord(
+                OAuth2AuthorizationRecords.toRecord(authorization, codec), registeredClient, codec);
+
+        assertThat(AuthorizationTokenClaims.get(restored)).isEqualTo(claims);
+    }
+}
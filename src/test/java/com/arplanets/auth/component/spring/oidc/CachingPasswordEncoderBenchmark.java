@@ -0,0 +1,52 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較 Client Secret 驗證命中快取與每次執行 BCrypt 的耗時
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=CachingPasswordEncoderBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CachingPasswordEncoderBenchmark {
+
+    private PasswordEncoder bcrypt;
+    private PasswordEncoder caching;
+    private String encoded;
+
+    @Setup
+    public void setUp() {
+        bcrypt = new BCryptPasswordEncoder();
+        caching = new CachingPasswordEncoder(bcrypt, 1_000, Duration.ofMinutes(5), null);
+        encoded = bcrypt.encode("client-secret");
+        caching.matches("client-secret", encoded);
+    }
+
+    @Benchmark
+    public boolean bcrypt() {
+        return bcrypt.matches("client-secret", encoded);
+    }
+
+    @Benchmark
+    public boolean cached() {
+        return caching.matches("client-secret", encoded);
+    }
+}
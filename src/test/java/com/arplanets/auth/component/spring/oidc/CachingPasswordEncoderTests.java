@@ -0,0 +1,65 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class CachingPasswordEncoderTests {
+
+    private PasswordEncoder delegate;
+    private CachingPasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void setUp() {
+        delegate = spy(new BCryptPasswordEncoder(4));
+        passwordEncoder = new CachingPasswordEncoder(delegate, 100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void verifiesMatchingSecretOnlyOnce() {
+        String encoded = delegate.encode("secret");
+
+        assertThat(passwordEncoder.matches("secret", encoded)).isTrue();
+        assertThat(passwordEncoder.matches("secret", encoded)).isTrue();
+
+        verify(delegate, times(1)).matches("secret", encoded);
+    }
+
+    @Test
+    void doesNotCacheMismatches() {
+        String encoded = delegate.encode("secret");
+
+        assertThat(passwordEncoder.matches("wrong", encoded)).isFalse();
+        assertThat(passwordEncoder.matches("wrong", encoded)).isFalse();
+
+        verify(delegate, times(2)).matches("wrong", encoded);
+    }
+
+    @Test
+    void changedSecretIsVerifiedAgain() {
+        String encoded = delegate.encode("secret");
+        passwordEncoder.matches("secret", encoded);
+
+        // Secret 變更後加密值不同，舊的快取不會命中
+        String rotated = delegate.encode("rotated");
+        assertThat(passwordEncoder.matches("secret", rotated)).isFalse();
+        assertThat(passwordEncoder.matches("rotated", rotated)).isTrue();
+
+        verify(delegate, times(3)).matches(anyString(), anyString());
+    }
+
+    @Test
+    void delegatesNullArguments() {
+        assertThat(passwordEncoder.matches("secret", null)).isFalse();
+    }
+}
@@ -0,0 +1,100 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.arplanets.auth.component.spring.oidc.authorization.TestOAuth2Authorizations;
+import com.arplanets.auth.utils.StringUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.config.oauth2.client.CommonOAuth2Provider;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.client.authentication.OAuth2AuthenticationToken;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.DefaultOidcUser;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較 Refresh 時沿用登入時預先計算的 Claims 與每次重新計算 (查詢 ClientRegistration、雜湊 Session ID) 的 Customizer 耗時
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=CustomOAuth2TokenCustomizerBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CustomOAuth2TokenCustomizerBenchmark {
+
+    private CustomOAuth2TokenCustomizer tokenCustomizer;
+    private OAuth2AuthenticationToken principal;
+    private OAuth2Authorization precomputed;
+    private OAuth2Authorization computed;
+
+    @Setup
+    public void setUp() {
+        ClientRegistrationRepository clientRegistrationRepository = new InMemoryClientRegistrationRepository(
+                CommonOAuth2Provider.GOOGLE.getBuilder("google").clientId("client-1").clientSecret("secret").build());
+        tokenCustomizer = new CustomOAuth2TokenCustomizer(clientRegistrationRepository);
+
+        Instant issuedAt = Instant.now();
+        OidcIdToken idToken = OidcIdToken.withTokenValue("id-token")
+                .subject("user-1")
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plus(Duration.ofMinutes(5)))
+                .build();
+        List<GrantedAuthority> authorities = AuthorityUtils.createAuthorityList("OIDC_USER");
+        principal = new OAuth2AuthenticationToken(new DefaultOidcUser(authorities, idToken), authorities, "google");
+
+        // 舊的 Authorization 沒有預先計算的 Claims，每次簽發都重新計算
+        computed = OAuth2Authorization.from(TestOAuth2Authorizations.authorization(TestOAuth2Authorizations.registeredClient()))
+                .attributes(attributes -> {
+                    attributes.remove(AuthorizationTokenClaims.ATTRIBUTE_NAME);
+                    attributes.put(Principal.class.getName(), principal);
+                    attributes.put(StringUtil.AUTH_SESSION_ID, "session-1");
+                })
+                .build();
+        precomputed = OAuth2Authorization.from(computed)
+                .attribute(AuthorizationTokenClaims.ATTRIBUTE_NAME, AuthorizationTokenClaims.from(computed, clientRegistrationRepository))
+                .build();
+    }
+
+    @Benchmark
+    public JwtEncodingContext precomputedClaims() {
+        return customize(precomputed);
+    }
+
+    @Benchmark
+    public JwtEncodingContext computedClaims() {
+        return customize(computed);
+    }
+
+    private JwtEncodingContext customize(OAuth2Authorization authorization) {
+        JwtEncodingContext context = JwtEncodingContext.with(JwsHeader.with(SignatureAlgorithm.RS256), JwtClaimsSet.builder())
+                .principal(principal)
+                .authorization(authorization)
+                .tokenType(OAuth2TokenType.ACCESS_TOKEN)
+                .build();
+        tokenCustomizer.customize(context);
+        return context;
+    }
+}
@@ -0,0 +1,64 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較 RS256、ES256、EdDSA 簽發與驗證 Token 的吞吐量 (單執行緒)
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=JwsAlgorithmBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwsAlgorithmBenchmark {
+
+    @Param({"RS256", "ES256", "EdDSA"})
+    public String algorithm;
+
+    private TenantJwtEncoder encoder;
+    private TenantJwsVerifiers verifiers;
+    private JwtEncoderParameters parameters;
+    private SignedJWT signedJwt;
+
+    @Setup
+    public void setUp() throws JOSEException, ParseException {
+        JWKSet jwkSet = new JWKSet(TestJwks.signingKey(JWSAlgorithm.parse(algorithm), "key-1"));
+        encoder = new TenantJwtEncoder(jwkSet);
+        verifiers = new TenantJwsVerifiers(jwkSet.toPublicJWKSet());
+        // Tenant 沒有 RSA 金鑰時改用其金鑰的演算法
+        parameters = TestJwts.parameters(SignatureAlgorithm.RS256);
+        signedJwt = SignedJWT.parse(encoder.encode(parameters).getTokenValue());
+    }
+
+    @Benchmark
+    public Jwt sign() {
+        return encoder.encode(parameters);
+    }
+
+    @Benchmark
+    public boolean verify() throws JOSEException {
+        return verifiers.verify(signedJwt.getHeader(), signedJwt.getSigningInput(), signedJwt.getSignature());
+    }
+}
@@ -0,0 +1,92 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.util.Base64URL;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantJwsVerifiersTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "ES256", "EdDSA"})
+    void verifiesTokenSignedByTenantEncoder(String algorithmName) throws Exception {
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(algorithmName);
+        JWKSet jwkSet = new JWKSet(TestJwks.signingKey(algorithm, "key-1"));
+        TenantJwtEncoder encoder = new TenantJwtEncoder(jwkSet);
+        TenantJwsVerifiers verifiers = new TenantJwsVerifiers(jwkSet.toPublicJWKSet());
+
+        // Client 預設要求 RS256，Tenant 沒有 RSA 金鑰時改用其金鑰的演算法
+        SignedJWT signedJwt = SignedJWT.parse(encoder.encode(TestJwts.parameters(SignatureAlgorithm.RS256)).getTokenValue());
+
+        assertThat(encoder.getPreferredAlgorithm()).isEqualTo(algorithm);
+        assertThat(signedJwt.getHeader().getAlgorithm()).isEqualTo(algorithm);
+        assertThat(verifiers.verify(signedJwt.getHeader(), signedJwt.getSigningInput(), signedJwt.getSignature())).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"RS256", "ES256", "EdDSA"})
+    void rejectsTamperedSignature(String algorithmName) throws Exception {
+        JWKSet jwkSet = new JWKSet(TestJwks.signingKey(JWSAlgorithm.parse(algorithmName), "key-1"));
+        SignedJWT signedJwt = SignedJWT.parse(new TenantJwtEncoder(jwkSet).encode(TestJwts.parameters(SignatureAlgorithm.RS256)).getTokenValue());
+        byte[] signature = signedJwt.getSignature().decode();
+        signature[signature.length / 2] ^= 1;
+
+        TenantJwsVerifiers verifiers = new TenantJwsVerifiers(jwkSet);
+
+        assertThat(verifiers.verify(signedJwt.getHeader(), signedJwt.getSigningInput(), Base64URL.encode(signature))).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"ES256", "EdDSA"})
+    void rejectsTokenOfUnknownOrExpiredKey(String algorithmName) throws Exception {
+        JWSAlgorithm algorithm = JWSAlgorithm.parse(algorithmName);
+        JWK key = TestJwks.signingKey(algorithm, "key-1");
+        SignedJWT signedJwt = SignedJWT.parse(new TenantJwtEncoder(new JWKSet(key)).encode(TestJwts.parameters(SignatureAlgorithm.RS256)).getTokenValue());
+
+        TenantJwsVerifiers otherTenant = new TenantJwsVerifiers(new JWKSet(TestJwks.signingKey(algorithm, "key-2")));
+        assertThat(otherTenant.verify(signedJwt.getHeader(), signedJwt.getSigningInput(), signedJwt.getSignature())).isFalse();
+
+        // 已過 exp 的金鑰不再用於驗證
+        Map<String, Object> expired = new HashMap<>(key.toJSONObject());
+        expired.put("exp", Instant.now().minus(Duration.ofMinutes(1)).getEpochSecond());
+        TenantJwsVerifiers expiredKey = new TenantJwsVerifiers(new JWKSet(JWK.parse(expired)));
+        assertThat(expiredKey.verify(signedJwt.getHeader(), signedJwt.getSigningInput(), signedJwt.getSignature())).isFalse();
+    }
+
+    @Test
+    void rejectsTokenWhoseKeyIdDoesNotMatch() throws Exception {
+        JWK key = TestJwks.signingKey(JWSAlgorithm.ES256, "key-1");
+        SignedJWT signedJwt = SignedJWT.parse(new TenantJwtEncoder(new JWKSet(key)).encode(TestJwts.parameters(SignatureAlgorithm.RS256)).getTokenValue());
+
+        // 同一把金鑰但 kid 不同，不以其他 kid 的金鑰嘗試
+        Map<String, Object> renamed = new HashMap<>(key.toPublicJWK().toJSONObject());
+        renamed.put("kid", "key-2");
+        TenantJwsVerifiers verifiers = new TenantJwsVerifiers(new JWKSet(JWK.parse(renamed)));
+
+        assertThat(verifiers.verify(signedJwt.getHeader(), signedJwt.getSigningInput(), signedJwt.getSignature())).isFalse();
+    }
+
+    @Test
+    void rejectsTokenWhoseAlgorithmDoesNotMatchKey() throws Exception {
+        SignedJWT signedJwt = SignedJWT.parse(new TenantJwtEncoder(new JWKSet(TestJwks.signingKey(JWSAlgorithm.ES256, "key-1")))
+                .encode(TestJwts.parameters(SignatureAlgorithm.RS256)).getTokenValue());
+
+        // kid 相同但金鑰不支援 Token 的 alg
+        TenantJwsVerifiers verifiers = new TenantJwsVerifiers(new JWKSet(TestJwks.signingKey(JWSAlgorithm.RS256, "key-1")).toPublicJWKSet());
+
+        assertThat(signedJwt.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.ES256);
+        assertThat(verifiers.verify(signedJwt.getHeader(), signedJwt.getSigningInput(), signedJwt.getSignature())).isFalse();
+    }
+}
@@ -0,0 +1,133 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.TestTenantRuntimes;
+import com.arplanets.auth.service.inmemory.TenantLoader;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWKSet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TenantJwtDecoderTests {
+
+    private final TenantLoader tenantLoader = mock(TenantLoader.class);
+
+    private JWKSet jwkSet;
+
+    private TenantRuntime poolA;
+
+    private TenantJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        this.jwkSet = new JWKSet(TestJwks.signingKey(JWSAlgorithm.ES256, "key-1"));
+        this.poolA = TestTenantRuntimes.tenantRuntime("pool-a-id", "pool-a", this.jwkSet);
+        this.decoder = new TenantJwtDecoder(this.tenantLoader, 100, Duration.ofMinutes(10), new SimpleMeterRegistry());
+        when(this.tenantLoader.resolve()).thenReturn(this.poolA);
+    }
+
+    @Test
+    void returnsCachedResultForSameToken() {
+        String token = encode(this.poolA);
+
+        Jwt jwt = this.decoder.decode(token);
+
+        assertThat(jwt.getSubject()).isEqualTo("user-1");
+        assertThat(this.decoder.decode(token)).isSameAs(jwt);
+    }
+
+    @Test
+    void rejectsCachedTokenPastExpiry() {
+        String token = encode(this.poolA);
+        Jwt jwt = this.decoder.decode(token);
+
+        // 超過 exp 與預設的 60 秒時間誤差
+        Clock clock = Clock.fixed(jwt.getExpiresAt().plus(Duration.ofMinutes(2)), ZoneOffset.UTC);
+        JwtTimestampValidator timestampValidator = new JwtTimestampValidator();
+        timestampValidator.setClock(clock);
+        this.decoder.setJwtValidator(timestampValidator);
+        this.decoder.setClock(clock);
+
+        assertThatExceptionOfType(JwtValidationException.class)
+                .isThrownBy(() -> this.decoder.decode(token))
+                .withMessageContaining("expired");
+    }
+
+    @Test
+    void dropsCachedResultWhenTenantIsReplaced() {
+        String token = encode(this.poolA);
+        Jwt jwt = this.decoder.decode(token);
+
+        // 同一組 JWKSet 重新建立 TenantRuntime (例如重新載入)，需重新驗證
+        when(this.tenantLoader.resolve()).thenReturn(TestTenantRuntimes.tenantRuntime("pool-a-id", "pool-a", this.jwkSet));
+        Jwt reverified = this.decoder.decode(token);
+        assertThat(reverified).isNotSameAs(jwt);
+        assertThat(reverified.getTokenValue()).isEqualTo(token);
+    }
+
+    @Test
+    void rejectsCachedTokenAfterKeyRotation() throws Exception {
+        String token = encode(this.poolA);
+        this.decoder.decode(token);
+
+        // 輪替後舊金鑰已移除
+        JWKSet rotated = new JWKSet(TestJwks.signingKey(JWSAlgorithm.ES256, "key-2"));
+        when(this.tenantLoader.resolve()).thenReturn(TestTenantRuntimes.tenantRuntime("pool-a-id", "pool-a", rotated));
+
+        assertThatExceptionOfType(BadJwtException.class)
+                .isThrownBy(() -> this.decoder.decode(token))
+                .withMessageContaining("Invalid signature");
+    }
+
+    @Test
+    void doesNotServeCachedTokenToOtherUserPool() throws Exception {
+        String token = encode(this.poolA);
+        this.decoder.decode(token);
+
+        TenantRuntime poolB = TestTenantRuntimes.tenantRuntime("pool-b-id", "pool-b", new JWKSet(TestJwks.signingKey(JWSAlgorithm.ES256, "key-1")));
+        when(this.tenantLoader.resolve()).thenReturn(poolB);
+
+        assertThatExceptionOfType(BadJwtException.class)
+                .isThrownBy(() -> this.decoder.decode(token))
+                .withMessageContaining("Invalid signature");
+    }
+
+    @Test
+    void rejectsTokenOfKeyWithOtherAlgorithm() throws Exception {
+        String token = encode(this.poolA);
+        TenantRuntime rsaPool = TestTenantRuntimes.tenantRuntime("pool-a-id", "pool-a", new JWKSet(TestJwks.signingKey(JWSAlgorithm.RS256, "key-1")));
+        when(this.tenantLoader.resolve()).thenReturn(rsaPool);
+
+        assertThatExceptionOfType(BadJwtException.class)
+                .isThrownBy(() -> this.decoder.decode(token));
+    }
+
+    @Test
+    void rejectsWhenTenantIsNotResolved() {
+        when(this.tenantLoader.resolve()).thenReturn(null);
+
+        assertThatExceptionOfType(JwtException.class)
+                .isThrownBy(() -> this.decoder.decode(encode(this.poolA)))
+                .withMessageContaining("JwtDecoder not found");
+    }
+
+    private static String encode(TenantRuntime tenantRuntime) {
+        return tenantRuntime.jwtEncoder().encode(TestJwts.parameters(SignatureAlgorithm.RS256)).getTokenValue();
+    }
+}
@@ -0,0 +1,109 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.crypto.RSASSAVerifier;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class TenantJwtEncoderTests {
+
+    private static RSAKey key1;
+    private static RSAKey key2;
+
+    @BeforeAll
+    static void generateKeys() throws JOSEException {
+        key1 = new RSAKeyGenerator(2048).keyID("rsa-1").keyUse(KeyUse.SIGNATURE).generate();
+        key2 = new RSAKeyGenerator(2048).keyID("rsa-2").keyUse(KeyUse.SIGNATURE).generate();
+    }
+
+    @Test
+    void signsWithPrebuiltSignerAndAddsKeyId() throws Exception {
+        TenantJwtEncoder encoder = new TenantJwtEncoder(new JWKSet(key1));
+
+        Jwt jwt = encoder.encode(TestJwts.parameters(SignatureAlgorithm.RS256));
+
+        SignedJWT signedJwt = SignedJWT.parse(jwt.getTokenValue());
+        assertThat(signedJwt.getHeader().getKeyID()).isEqualTo("rsa-1");
+        assertThat(signedJwt.verify(new RSASSAVerifier(key1.toPublicJWK()))).isTrue();
+        assertThat(signedJwt.getJWTClaimsSet().getSubject()).isEqualTo("user-1");
+        assertThat(signedJwt.getJWTClaimsSet().getClaim("uuid")).isEqualTo("uuid-1");
+        assertThat(jwt.getHeaders()).containsEntry("kid", "rsa-1");
+    }
+
+    @Test
+    void signsWithRequestedKeyId() throws Exception {
+        TenantJwtEncoder encoder = new TenantJwtEncoder(new JWKSet(List.<JWK>of(key1, key2)));
+
+        Jwt jwt = encoder.encode(TestJwts.parameters(JwsHeader.with(SignatureAlgorithm.RS256).keyId("rsa-2").build()));
+
+        assertThat(SignedJWT.parse(jwt.getTokenValue()).verify(new RSASSAVerifier(key2.toPublicJWK()))).isTrue();
+    }
+
+    @Test
+    void rejectsUnknownKeyId() throws JOSEException {
+        TenantJwtEncoder encoder = new TenantJwtEncoder(new JWKSet(key1));
+
+        assertThatExceptionOfType(JwtEncodingException.class)
+                .isThrownBy(() -> encoder.encode(TestJwts.parameters(JwsHeader.with(SignatureAlgorithm.RS256).keyId("rsa-unknown").build())));
+    }
+
+    @Test
+    void signsWithNewestActiveKey() throws Exception {
+        Instant now = Instant.now();
+        RSAKey old = new RSAKey.Builder(key1).notBeforeTime(Date.from(now.minus(Duration.ofDays(30)))).build();
+        RSAKey current = new RSAKey.Builder(key2).notBeforeTime(Date.from(now.minus(Duration.ofMinutes(1)))).build();
+        RSAKey future = new RSAKey.Builder(new RSAKeyGenerator(2048).keyID("rsa-3").keyUse(KeyUse.SIGNATURE).generate())
+                .notBeforeTime(Date.from(now.plus(Duration.ofHours(1))))
+                .build();
+        TenantJwtEncoder encoder = new TenantJwtEncoder(new JWKSet(List.<JWK>of(old, future, current)));
+
+        // 尚未生效 (nbf) 的金鑰只發布不簽章，已有較新金鑰生效的舊金鑰不再簽章
+        assertThat(keyIdOf(encoder.encode(TestJwts.parameters(SignatureAlgorithm.RS256)))).isEqualTo("rsa-2");
+        assertThatExceptionOfType(JwtEncodingException.class)
+                .isThrownBy(() -> encoder.encode(TestJwts.parameters(JwsHeader.with(SignatureAlgorithm.RS256).keyId("rsa-3").build())));
+    }
+
+    @Test
+    void skipsExpiredKey() throws Exception {
+        RSAKey expired = new RSAKey.Builder(key2)
+                .notBeforeTime(Date.from(Instant.now().minus(Duration.ofDays(1))))
+                .expirationTime(Date.from(Instant.now().minus(Duration.ofMinutes(1))))
+                .build();
+
+        TenantJwtEncoder encoder = new TenantJwtEncoder(new JWKSet(List.<JWK>of(expired, key1)));
+        assertThat(keyIdOf(encoder.encode(TestJwts.parameters(SignatureAlgorithm.RS256)))).isEqualTo("rsa-1");
+
+        TenantJwtEncoder expiredOnly = new TenantJwtEncoder(new JWKSet(expired));
+        assertThatExceptionOfType(JwtEncodingException.class)
+                .isThrownBy(() -> expiredOnly.encode(TestJwts.parameters(SignatureAlgorithm.RS256)));
+    }
+
+    @Test
+    void rejectsJwkSetWithoutSigningKey() {
+        assertThatExceptionOfType(IllegalStateException.class)
+                .isThrownBy(() -> new TenantJwtEncoder(new JWKSet(key1.toPublicJWK())));
+    }
+
+    private static String keyIdOf(Jwt jwt) throws ParseException {
+        return SignedJWT.parse(jwt.getTokenValue()).getHeader().getKeyID();
+    }
+}
@@ -0,0 +1,30 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import com.arplanets.auth.component.spring.oidc.jose.Ed25519Keys;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+
+/**
+ * 依簽章演算法產生測試用的簽章金鑰
+ */
+final class TestJwks {
+
+    private TestJwks() {
+    }
+
+    static JWK signingKey(JWSAlgorithm algorithm, String keyId) throws JOSEException {
+        if (JWSAlgorithm.RS256.equals(algorithm)) {
+            return new RSAKeyGenerator(2048).keyID(keyId).keyUse(KeyUse.SIGNATURE).generate();
+        } else if (JWSAlgorithm.ES256.equals(algorithm)) {
+            return new ECKeyGenerator(Curve.P_256).keyID(keyId).keyUse(KeyUse.SIGNATURE).generate();
+        } else if (JWSAlgorithm.EdDSA.equals(algorithm)) {
+            return Ed25519Keys.generate().keyID(keyId).keyUse(KeyUse.SIGNATURE).build();
+        }
+        throw new IllegalArgumentException("Unsupported algorithm " + algorithm);
+    }
+}
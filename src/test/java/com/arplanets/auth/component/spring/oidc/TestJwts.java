@@ -0,0 +1,39 @@
+package com.arplanets.auth.component.spring.oidc;
+
+import org.springframework.security.oauth2.jose.jws.JwsAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 測試用 ID Token 大小的 JwtEncoderParameters
+ */
+final class TestJwts {
+
+    private TestJwts() {
+    }
+
+    static JwtEncoderParameters parameters(JwsAlgorithm algorithm) {
+        return parameters(JwsHeader.with(algorithm).build());
+    }
+
+    static JwtEncoderParameters parameters(JwsHeader header) {
+        Instant issuedAt = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .issuer("https://auth.example.com/pool-a")
+                .subject("user-1")
+                .audience(List.of("client-1"))
+                .issuedAt(issuedAt)
+                .expiresAt(issuedAt.plus(Duration.ofMinutes(5)))
+                .id("jti-1")
+                .claim("uuid", "uuid-1")
+                .claim("sid", "sid-1")
+                .claim("auth_id", "auth-1")
+                .build();
+        return JwtEncoderParameters.from(header, claims);
+    }
+}
@@ -0,0 +1,136 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingOAuth2AuthorizationServiceTests {
+
+    private OAuth2AuthorizationService delegate;
+    private CachingOAuth2AuthorizationService authorizationService;
+    private OAuth2Authorization authorization;
+
+    @BeforeEach
+    void setUp() {
+        delegate = mock(OAuth2AuthorizationService.class);
+        authorizationService = new CachingOAuth2AuthorizationService(delegate, 100, Duration.ofMinutes(5), null);
+        authorization = TestOAuth2Authorizations.authorization(TestOAuth2Authorizations.registeredClient());
+    }
+
+    @Test
+    void servesAccessTokenLookupFromCache() {
+        authorizationService.save(authorization);
+
+        assertThat(authorizationService.findByToken(accessToken(), OAuth2TokenType.ACCESS_TOKEN)).isSameAs(authorization);
+        assertThat(authorizationService.findById(authorization.getId())).isSameAs(authorization);
+
+        verify(delegate, never()).findByToken(anyString(), any());
+        verify(delegate, never()).findById(anyString());
+    }
+
+    @Test
+    void alwaysReadsRefreshTokenAndUntypedLookupsFromDelegate() {
+        authorizationService.save(authorization);
+        when(delegate.findByToken(refreshToken(), OAuth2TokenType.REFRESH_TOKEN)).thenReturn(authorization);
+        when(delegate.findByToken(refreshToken(), null)).thenReturn(authorization);
+
+        authorizationService.findByToken(refreshToken(), OAuth2TokenType.REFRESH_TOKEN);
+        authorizationService.findByToken(refreshToken(), OAuth2TokenType.REFRESH_TOKEN);
+        authorizationService.findByToken(refreshToken(), null);
+
+        verify(delegate, times(2)).findByToken(refreshToken(), OAuth2TokenType.REFRESH_TOKEN);
+        verify(delegate).findByToken(refreshToken(), null);
+    }
+
+    @Test
+    void evictsAuthorizationRevokedOnAnotherNode() {
+        authorizationService.save(authorization);
+        assertThat(authorizationService.findByToken(accessToken(), OAuth2TokenType.ACCESS_TOKEN)).isNotNull();
+
+        // 其他機器撤銷後，撤銷請求以未指定類型查詢時讀不到
+        assertThat(authorizationService.findByToken(refreshToken(), null)).isNull();
+
+        assertThat(authorizationService.findByToken(accessToken(), OAuth2TokenType.ACCESS_TOKEN)).isNull();
+        verify(delegate).findByToken(accessToken(), OAuth2TokenType.ACCESS_TOKEN);
+    }
+
+    @Test
+    void removeEvictsCachedAuthorization() {
+        authorizationService.save(authorization);
+
+        authorizationService.remove(authorization);
+
+        assertThat(authorizationService.findById(authorization.getId())).isNull();
+        assertThat(authorizationService.findByToken(accessToken(), OAuth2TokenType.ACCESS_TOKEN)).isNull();
+        verify(delegate).findById(authorization.getId());
+    }
+
+    @Test
+    void missFillDoesNotOverwriteConcurrentSave() {
+        OAuth2Authorization saved = withAccessToken(authorization, "saved-access-token", Instant.now().plusSeconds(60));
+        // delegate 回傳舊版本之前，另一個請求已 save 新版本
+        when(delegate.findById(authorization.getId())).thenAnswer(invocation -> {
+            authorizationService.save(saved);
+            return authorization;
+        });
+
+        assertThat(authorizationService.findById(authorization.getId())).isSameAs(authorization);
+
+        assertThat(authorizationService.findById(authorization.getId())).isSameAs(saved);
+        assertThat(authorizationService.findByToken("saved-access-token", OAuth2TokenType.ACCESS_TOKEN)).isSameAs(saved);
+        verify(delegate).findById(authorization.getId());
+    }
+
+    @Test
+    void missFillKeepsLaterIssuedVersion() {
+        OAuth2Authorization later = withAccessToken(authorization, "later-access-token", Instant.now().plusSeconds(60));
+        when(delegate.findByToken(refreshToken(), null)).thenReturn(later, authorization);
+
+        authorizationService.findByToken(refreshToken(), null);
+        // 較晚讀到、但 Token 簽發時間較早的舊版本不覆蓋
+        authorizationService.findByToken(refreshToken(), null);
+
+        assertThat(authorizationService.findById(authorization.getId())).isSameAs(later);
+        verify(delegate, never()).findById(anyString());
+    }
+
+    @Test
+    void missFillDoesNotOverwriteSavedVersion() {
+        authorizationService.save(authorization);
+        OAuth2Authorization loaded = withAccessToken(authorization, "loaded-access-token", Instant.now().plusSeconds(60));
+        when(delegate.findByToken(refreshToken(), OAuth2TokenType.REFRESH_TOKEN)).thenReturn(loaded);
+
+        assertThat(authorizationService.findByToken(refreshToken(), OAuth2TokenType.REFRESH_TOKEN)).isSameAs(loaded);
+
+        assertThat(authorizationService.findById(authorization.getId())).isSameAs(authorization);
+    }
+
+    private static OAuth2Authorization withAccessToken(OAuth2Authorization authorization, String tokenValue, Instant issuedAt) {
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, tokenValue,
+                issuedAt, issuedAt.plus(Duration.ofMinutes(5)));
+        return OAuth2Authorization.from(authorization).accessToken(accessToken).build();
+    }
+
+    private String accessToken() {
+        return authorization.getAccessToken().getToken().getTokenValue();
+    }
+
+    private String refreshToken() {
+        return authorization.getRefreshToken().getToken().getTokenValue();
+    }
+}
@@ -0,0 +1,135 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.AuthorizationTokenClaims;
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec.Format;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class JacksonOAuth2AuthorizationCodecTests {
+
+    private final RegisteredClient registeredClient = TestOAuth2Authorizations.registeredClient();
+
+    @ParameterizedTest
+    @EnumSource(Format.class)
+    void roundTripsAuthorizationRecord(Format format) {
+        OAuth2AuthorizationCodec codec = new JacksonOAuth2AuthorizationCodec(format);
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+
+        Map<String, Object> record = OAuth2AuthorizationRecords.toRecord(authorization, codec);
+        OAuth2Authorization restored = OAuth2AuthorizationRecords.fromRecord(record, registeredClient, codec);
+
+        assertSameAuthorization(restored, authorization);
+    }
+
+    @Test
+    void smileEncodingIsSmallerThanJson() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+
+        byte[] json = new JacksonOAuth2AuthorizationCodec(Format.JSON).encode(authorization.getAttributes());
+        byte[] smile = new JacksonOAuth2AuthorizationCodec(Format.SMILE).encode(authorization.getAttributes());
+
+        assertThat(smile.length).isLessThan(json.length);
+    }
+
+    @Test
+    void readsDataWrittenInEitherFormat() {
+        // 滾動部署期間新舊版本並存，兩種格式都必須能讀取
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        OAuth2AuthorizationCodec jsonCodec = new JacksonOAuth2AuthorizationCodec(Format.JSON);
+        OAuth2AuthorizationCodec smileCodec = new JacksonOAuth2AuthorizationCodec(Format.SMILE);
+
+        byte[] json = jsonCodec.encode(authorization.getAttributes());
+        byte[] smile = smileCodec.encode(authorization.getAttributes());
+
+        assertThat(smileCodec.decode(json)).containsOnlyKeys(authorization.getAttributes().keySet());
+        assertThat(jsonCodec.decode(smile)).containsOnlyKeys(authorization.getAttributes().keySet());
+        assertThat(jsonCodec.decode(smile).get(AuthorizationTokenClaims.ATTRIBUTE_NAME))
+                .isEqualTo(AuthorizationTokenClaims.get(authorization));
+    }
+
+    @Test
+    void prefixesEncodedDataWithFormat() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+
+        byte[] json = new JacksonOAuth2AuthorizationCodec(Format.JSON).encode(authorization.getAttributes());
+        byte[] smile = new JacksonOAuth2AuthorizationCodec(Format.SMILE).encode(authorization.getAttributes());
+
+        assertThat(json).startsWith(JacksonOAuth2AuthorizationCodec.PREFIX_MARKER, (byte) 1, (byte) '{');
+        assertThat(smile).startsWith(JacksonOAuth2AuthorizationCodec.PREFIX_MARKER, (byte) 2, (byte) ':', (byte) ')');
+    }
+
+    @Test
+    void readsLegacyDataWithoutPrefix() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        OAuth2AuthorizationCodec codec = new JacksonOAuth2AuthorizationCodec(Format.SMILE);
+
+        byte[] legacyJson = withoutPrefix(new JacksonOAuth2AuthorizationCodec(Format.JSON).encode(authorization.getAttributes()));
+        byte[] legacySmile = withoutPrefix(codec.encode(authorization.getAttributes()));
+
+        assertThat(new String(legacyJson, StandardCharsets.UTF_8)).startsWith("{");
+        assertThat(codec.decode(legacyJson)).containsOnlyKeys(authorization.getAttributes().keySet());
+        assertThat(codec.decode(legacySmile)).containsOnlyKeys(authorization.getAttributes().keySet());
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        OAuth2AuthorizationCodec codec = new JacksonOAuth2AuthorizationCodec(Format.JSON);
+
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> codec.decode(new byte[] {JacksonOAuth2AuthorizationCodec.PREFIX_MARKER, 99, '{', '}'}))
+                .withMessageContaining("99");
+    }
+
+    @Test
+    void decodesEmptyDataAsEmptyMap() {
+        OAuth2AuthorizationCodec codec = new JacksonOAuth2AuthorizationCodec(Format.JSON);
+
+        assertThat(codec.decode(null)).isEmpty();
+        assertThat(codec.decode(new byte[0])).isEmpty();
+    }
+
+    static byte[] withoutPrefix(byte[] data) {
+        return Arrays.copyOfRange(data, JacksonOAuth2AuthorizationCodec.PREFIX_LENGTH, data.length);
+    }
+
+    static void assertSameAuthorization(OAuth2Authorization actual, OAuth2Authorization expected) {
+        assertThat(actual.getId()).isEqualTo(expected.getId());
+        assertThat(actual.getRegisteredClientId()).isEqualTo(expected.getRegisteredClientId());
+        assertThat(actual.getPrincipalName()).isEqualTo(expected.getPrincipalName());
+        assertThat(actual.getAuthorizationGrantType()).isEqualTo(expected.getAuthorizationGrantType());
+        assertThat(actual.getAuthorizedScopes()).isEqualTo(expected.getAuthorizedScopes());
+
+        assertThat(actual.getAttributes()).containsOnlyKeys(expected.getAttributes().keySet());
+        assertThat(AuthorizationTokenClaims.get(actual)).isEqualTo(AuthorizationTokenClaims.get(expected));
+        OAuth2AuthorizationRequest authorizationRequest = actual.getAttribute(OAuth2AuthorizationRequest.class.getName());
+        assertThat(authorizationRequest).isNotNull();
+        assertThat(authorizationRequest.getState()).isEqualTo("state-1");
+
+        assertThat(actual.getToken(OAuth2AuthorizationCode.class).getToken())
+                .isEqualTo(expected.getToken(OAuth2AuthorizationCode.class).getToken());
+        assertThat(actual.getToken(OAuth2AuthorizationCode.class).isInvalidated()).isTrue();
+        assertThat(actual.getAccessToken().getToken()).isEqualTo(expected.getAccessToken().getToken());
+        assertThat(actual.getAccessToken().getToken().getTokenType()).isEqualTo(OAuth2AccessToken.TokenType.BEARER);
+        assertThat(actual.getToken(OAuth2RefreshToken.class).getToken())
+                .isEqualTo(expected.getToken(OAuth2RefreshToken.class).getToken());
+
+        OidcIdToken idToken = actual.getToken(OidcIdToken.class).getToken();
+        assertThat(idToken.getTokenValue()).isEqualTo(expected.getToken(OidcIdToken.class).getToken().getTokenValue());
+        assertThat(idToken.getSubject()).isEqualTo("user-1");
+    }
+}
@@ -0,0 +1,159 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec.Format;
+import com.arplanets.auth.model.UserPoolContext;
+import com.arplanets.auth.model.UserPoolContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+@Testcontainers(disabledWithoutDocker = true)
+class MySqlOAuth2AuthorizationServiceTests {
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0").withInitScript("db/schema.sql");
+
+    private JdbcTemplate jdbcTemplate;
+    private RegisteredClient registeredClient;
+    private MySqlOAuth2AuthorizationService authorizationService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword()));
+        jdbcTemplate.update("DELETE FROM oauth2_authorization");
+        jdbcTemplate.update("DELETE FROM oauth2_registered_client");
+        registeredClient = TestOAuth2Authorizations.registeredClient();
+        jdbcTemplate.update("INSERT INTO oauth2_registered_client (id, client_id, client_name, client_authentication_methods, " +
+                        "authorization_grant_types, scopes, client_settings, token_settings, user_pool_id) VALUES (?, ?, ?, ?, ?, ?, '{}', '{}', ?)",
+                registeredClient.getId(), registeredClient.getClientId(), registeredClient.getClientName(),
+                "client_secret_basic", "authorization_code,refresh_token", "openid,profile", "pool-1");
+
+        authorizationService = new MySqlOAuth2AuthorizationService(jdbcTemplate, new InMemoryRegisteredClientRepository(registeredClient),
+                new JacksonOAuth2AuthorizationCodec(Format.JSON));
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserPoolContextHolder.clearContext();
+    }
+
+    @Test
+    void findsSavedAuthorizationByEveryTokenHash() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        authorizationService.save(authorization);
+
+        assertThat(authorizationService.findById(authorization.getId())).isNotNull();
+        assertFoundBy(authorization.getToken(OAuth2AuthorizationCode.class).getToken().getTokenValue(), OAuth2AuthorizationTokens.CODE_TOKEN_TYPE, authorization);
+        assertFoundBy(authorization.getToken(OAuth2AccessToken.class).getToken().getTokenValue(), OAuth2TokenType.ACCESS_TOKEN, authorization);
+        assertFoundBy(authorization.getToken(OidcIdToken.class).getToken().getTokenValue(), OAuth2AuthorizationTokens.ID_TOKEN_TOKEN_TYPE, authorization);
+        assertFoundBy(authorization.getToken(OAuth2RefreshToken.class).getToken().getTokenValue(), OAuth2TokenType.REFRESH_TOKEN, authorization);
+        assertFoundBy(authorization.getToken(OAuth2RefreshToken.class).getToken().getTokenValue(), null, authorization);
+
+        // Token 類型不符時查不到
+        assertThat(authorizationService.findByToken(authorization.getAccessToken().getToken().getTokenValue(), OAuth2TokenType.REFRESH_TOKEN)).isNull();
+    }
+
+    @Test
+    void upsertReplacesRotatedTokens() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        authorizationService.save(authorization);
+        String oldRefreshToken = authorization.getRefreshToken().getToken().getTokenValue();
+
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        OAuth2RefreshToken rotated = new OAuth2RefreshToken("rotated-refresh-token", issuedAt, issuedAt.plus(1, ChronoUnit.DAYS));
+        authorizationService.save(OAuth2Authorization.from(authorization).refreshToken(rotated).build());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM oauth2_authorization", Integer.class)).isEqualTo(1);
+        assertThat(authorizationService.findByToken(oldRefreshToken, OAuth2TokenType.REFRESH_TOKEN)).isNull();
+        OAuth2Authorization found = authorizationService.findByToken("rotated-refresh-token", OAuth2TokenType.REFRESH_TOKEN);
+        assertThat(found).isNotNull();
+        assertThat(found.getRefreshToken().getToken()).isEqualTo(rotated);
+    }
+
+    @Test
+    void removeDeletesAuthorization() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        authorizationService.save(authorization);
+
+        authorizationService.remove(authorization);
+
+        assertThat(authorizationService.findById(authorization.getId())).isNull();
+    }
+
+    @Test
+    void partitionsByUserPoolOfContext() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        UserPoolContextHolder.setContext(UserPoolContext.builder().userPoolId("pool-2").build());
+        authorizationService.save(authorization);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT user_pool_id FROM oauth2_authorization WHERE id = ?", String.class, authorization.getId()))
+                .isEqualTo("pool-2");
+        assertThat(authorizationService.findById(authorization.getId())).isNotNull();
+
+        UserPoolContextHolder.setContext(UserPoolContext.builder().userPoolId("pool-1").build());
+        assertThat(authorizationService.findById(authorization.getId())).isNull();
+    }
+
+    @Test
+    void savesAndRemovesInBatch() {
+        OAuth2Authorization first = TestOAuth2Authorizations.authorization(registeredClient);
+        OAuth2Authorization second = TestOAuth2Authorizations.authorization(registeredClient);
+
+        authorizationService.saveAll(List.of(first, second));
+
+        assertFoundBy(second.getAccessToken().getToken().getTokenValue(), OAuth2TokenType.ACCESS_TOKEN, second);
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT user_pool_id FROM oauth2_authorization", String.class))
+                .containsExactly("pool-1");
+
+        authorizationService.removeAll(List.of(first, second));
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM oauth2_authorization", Integer.class)).isZero();
+    }
+
+    @Test
+    void resolvesUserPoolFromClientWithoutContext() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+
+        authorizationService.save(authorization);
+
+        assertThat(jdbcTemplate.queryForObject("SELECT user_pool_id FROM oauth2_authorization WHERE id = ?", String.class, authorization.getId()))
+                .isEqualTo("pool-1");
+    }
+
+    @Test
+    void failsFastWhenUserPoolCannotBeResolved() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        jdbcTemplate.update("DELETE FROM oauth2_registered_client");
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> authorizationService.save(authorization))
+                .withMessageContaining(registeredClient.getId());
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM oauth2_authorization", Integer.class)).isZero();
+    }
+
+    private void assertFoundBy(String token, OAuth2TokenType tokenType, OAuth2Authorization expected) {
+        OAuth2Authorization found = authorizationService.findByToken(token, tokenType);
+        assertThat(found).isNotNull();
+        JacksonOAuth2AuthorizationCodecTests.assertSameAuthorization(found, expected);
+    }
+}
@@ -0,0 +1,96 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec.Format;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較舊有 JSON (無格式前綴)、JSON 與 Smile 編碼 attributes 以及還原整筆 Authorization 的耗時
+ * 每組參數開始前印出編碼後的大小 (attributes 與整筆資料所有編碼欄位合計)
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=OAuth2AuthorizationCodecBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OAuth2AuthorizationCodecBenchmark {
+
+    @Param({"LEGACY_JSON", "JSON", "SMILE"})
+    public String encoding;
+
+    private OAuth2AuthorizationCodec codec;
+    private RegisteredClient registeredClient;
+    private OAuth2Authorization authorization;
+    private byte[] encodedAttributes;
+    private Map<String, Object> record;
+
+    @Setup
+    public void setUp() {
+        codec = "LEGACY_JSON".equals(encoding) ? new LegacyJsonCodec() : new JacksonOAuth2AuthorizationCodec(Format.valueOf(encoding));
+        registeredClient = TestOAuth2Authorizations.registeredClient();
+        authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        encodedAttributes = codec.encode(authorization.getAttributes());
+        record = OAuth2AuthorizationRecords.toRecord(authorization, codec);
+
+        int encodedColumns = record.values().stream()
+                .filter(byte[].class::isInstance)
+                .mapToInt(value -> ((byte[]) value).length)
+                .sum();
+        System.out.printf("%n%-12s encoded size: attributes = %d bytes, all encoded columns = %d bytes%n",
+                encoding, encodedAttributes.length, encodedColumns);
+    }
+
+    @Benchmark
+    public byte[] encodeAttributes() {
+        return codec.encode(authorization.getAttributes());
+    }
+
+    @Benchmark
+    public Map<String, Object> decodeAttributes() {
+        return codec.decode(encodedAttributes);
+    }
+
+    @Benchmark
+    public Map<String, Object> toRecord() {
+        return OAuth2AuthorizationRecords.toRecord(authorization, codec);
+    }
+
+    @Benchmark
+    public OAuth2Authorization fromRecord() {
+        return OAuth2AuthorizationRecords.fromRecord(record, registeredClient, codec);
+    }
+
+    /**
+     * 加上格式前綴之前的寫入方式，讀取沿用目前的解碼
+     */
+    private static final class LegacyJsonCodec implements OAuth2AuthorizationCodec {
+
+        private final OAuth2AuthorizationCodec delegate = new JacksonOAuth2AuthorizationCodec(Format.JSON);
+
+        @Override
+        public byte[] encode(Map<String, Object> data) {
+            return JacksonOAuth2AuthorizationCodecTests.withoutPrefix(this.delegate.encode(data));
+        }
+
+        @Override
+        public Map<String, Object> decode(byte[] data) {
+            return this.delegate.decode(data);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec.Format;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationJournal.Entry;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationJournal.FsyncPolicy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClientRepository;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OAuth2AuthorizationJournalTests {
+
+    @TempDir
+    Path directory;
+
+    private final OAuth2AuthorizationCodec codec = new JacksonOAuth2AuthorizationCodec(Format.JSON);
+    private RegisteredClient registeredClient;
+    private RegisteredClientRepository registeredClientRepository;
+
+    @BeforeEach
+    void setUp() {
+        registeredClient = TestOAuth2Authorizations.registeredClient();
+        registeredClientRepository = new InMemoryRegisteredClientRepository(registeredClient);
+    }
+
+    @Test
+    void replaysEntriesOfPreviousRun() {
+        OAuth2Authorization saved = TestOAuth2Authorizations.authorization(registeredClient);
+        OAuth2Authorization removed = TestOAuth2Authorizations.authorization(registeredClient);
+        try (OAuth2AuthorizationJournal journal = journal()) {
+            journal.append(new Entry(saved, false));
+            journal.append(new Entry(removed, true));
+        }
+
+        List<Entry> replayed = replay();
+
+        assertThat(replayed).hasSize(2);
+        JacksonOAuth2AuthorizationCodecTests.assertSameAuthorization(replayed.get(0).authorization(), saved);
+        assertThat(replayed.get(0).removal()).isFalse();
+        assertThat(replayed.get(1).id()).isEqualTo(removed.getId());
+        assertThat(replayed.get(1).removal()).isTrue();
+    }
+
+    @Test
+    void replaysEntriesWrittenWithEitherCodecFormat() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        try (OAuth2AuthorizationJournal journal = new OAuth2AuthorizationJournal(directory, FsyncPolicy.ALWAYS,
+                new JacksonOAuth2AuthorizationCodec(Format.SMILE), registeredClientRepository)) {
+            journal.append(new Entry(authorization, false));
+        }
+
+        List<Entry> replayed = replay();
+
+        assertThat(replayed).hasSize(1);
+        JacksonOAuth2AuthorizationCodecTests.assertSameAuthorization(replayed.get(0).authorization(), authorization);
+    }
+
+    @Test
+    void checkpointDeletesFlushedSegments() {
+        try (OAuth2AuthorizationJournal journal = journal()) {
+            journal.append(new Entry(TestOAuth2Authorizations.authorization(registeredClient), false));
+            long segment = journal.roll();
+            OAuth2Authorization pending = TestOAuth2Authorizations.authorization(registeredClient);
+            journal.append(new Entry(pending, false));
+            journal.checkpoint(segment);
+            journal.roll();
+
+            List<Entry> replayed = new ArrayList<>();
+            journal.replay(replayed::add);
+            assertThat(replayed).extracting(Entry::id).containsExactly(pending.getId());
+        }
+    }
+
+    @Test
+    void stopsReadingSegmentAtTornWrite() throws IOException {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        try (OAuth2AuthorizationJournal journal = journal()) {
+            journal.append(new Entry(authorization, false));
+        }
+        // 模擬最後一筆只寫入一半就當機
+        Path segment = segments().get(0);
+        Files.write(segment, new byte[]{0, 0, 1, 0, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        List<Entry> replayed = replay();
+
+        assertThat(replayed).extracting(Entry::id).containsExactly(authorization.getId());
+    }
+
+    @Test
+    void skipsEntriesOfDeletedClients() {
+        try (OAuth2AuthorizationJournal journal = journal()) {
+            journal.append(new Entry(TestOAuth2Authorizations.authorization(registeredClient), false));
+        }
+        RegisteredClient otherClient = RegisteredClient.from(registeredClient).id("registered-client-2").clientId("client-2").build();
+        registeredClientRepository = new InMemoryRegisteredClientRepository(otherClient);
+
+        assertThat(replay()).isEmpty();
+    }
+
+    private OAuth2AuthorizationJournal journal() {
+        return new OAuth2AuthorizationJournal(directory, FsyncPolicy.ALWAYS, codec, registeredClientRepository);
+    }
+
+    private List<Entry> replay() {
+        List<Entry> replayed = new ArrayList<>();
+        try (OAuth2AuthorizationJournal journal = journal()) {
+            journal.replay(replayed::add);
+        }
+        return replayed;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec.Format;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+import org.testcontainers.containers.GenericContainer;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 量測 Redis 儲存 save 與依 id、Token 查詢的耗時，需要可用的 Docker
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=RedisOAuth2AuthorizationServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisOAuth2AuthorizationServiceBenchmark {
+
+    @Param({"JSON", "SMILE"})
+    public Format format;
+
+    private GenericContainer<?> redis;
+    private LettuceConnectionFactory connectionFactory;
+    private RedisOAuth2AuthorizationService authorizationService;
+    private OAuth2Authorization authorization;
+    private String accessToken;
+
+    @Setup
+    public void setUp() {
+        redis = new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+        redis.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(redis.getHost(), redis.getMappedPort(6379)));
+        connectionFactory.afterPropertiesSet();
+
+        RegisteredClient registeredClient = TestOAuth2Authorizations.registeredClient();
+        authorizationService = new RedisOAuth2AuthorizationService(connectionFactory, new InMemoryRegisteredClientRepository(registeredClient),
+                new JacksonOAuth2AuthorizationCodec(format), Duration.ofMinutes(30));
+        authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        accessToken = authorization.getAccessToken().getToken().getTokenValue();
+        authorizationService.save(authorization);
+    }
+
+    @TearDown
+    public void tearDown() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Benchmark
+    public void save() {
+        authorizationService.save(authorization);
+    }
+
+    @Benchmark
+    public OAuth2Authorization findById() {
+        return authorizationService.findById(authorization.getId());
+    }
+
+    @Benchmark
+    public OAuth2Authorization findByToken() {
+        return authorizationService.findByToken(accessToken, OAuth2TokenType.ACCESS_TOKEN);
+    }
+
+    @Benchmark
+    public OAuth2Authorization findByTokenWithoutType() {
+        return authorizationService.findByToken(accessToken, null);
+    }
+}
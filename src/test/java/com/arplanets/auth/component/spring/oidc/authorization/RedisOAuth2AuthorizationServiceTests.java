@@ -0,0 +1,126 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec.Format;
+import com.github.fppt.jedismock.RedisServer;
+import io.lettuce.core.ClientOptions;
+import io.lettuce.core.protocol.ProtocolVersion;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 以 In-process 的 Redis 相容伺服器 (jedis-mock) 測試，不需要 Docker
+ */
+class RedisOAuth2AuthorizationServiceTests {
+
+    private static RedisServer redisServer;
+
+    private LettuceConnectionFactory connectionFactory;
+    private RegisteredClient registeredClient;
+    private RedisOAuth2AuthorizationService authorizationService;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        redisServer = RedisServer.newRedisServer().start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        redisServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        // jedis-mock 不支援 RESP3 的 HELLO
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .clientOptions(ClientOptions.builder().protocolVersion(ProtocolVersion.RESP2).build())
+                .build();
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(redisServer.getHost(), redisServer.getBindPort()), clientConfiguration);
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.getConnection().serverCommands().flushAll();
+        registeredClient = TestOAuth2Authorizations.registeredClient();
+        authorizationService = new RedisOAuth2AuthorizationService(connectionFactory, new InMemoryRegisteredClientRepository(registeredClient),
+                new JacksonOAuth2AuthorizationCodec(Format.JSON), Duration.ofMinutes(30));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void findsSavedAuthorizationByIdAndTokens() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        authorizationService.save(authorization);
+
+        JacksonOAuth2AuthorizationCodecTests.assertSameAuthorization(authorizationService.findById(authorization.getId()), authorization);
+        assertThat(authorizationService.findByToken(authorization.getToken(OAuth2AuthorizationCode.class).getToken().getTokenValue(),
+                OAuth2AuthorizationTokens.CODE_TOKEN_TYPE)).isNotNull();
+        assertThat(authorizationService.findByToken(authorization.getAccessToken().getToken().getTokenValue(), OAuth2TokenType.ACCESS_TOKEN)).isNotNull();
+        assertThat(authorizationService.findByToken(authorization.getToken(OidcIdToken.class).getToken().getTokenValue(),
+                OAuth2AuthorizationTokens.ID_TOKEN_TOKEN_TYPE)).isNotNull();
+        assertThat(authorizationService.findByToken(authorization.getRefreshToken().getToken().getTokenValue(), OAuth2TokenType.REFRESH_TOKEN)).isNotNull();
+        assertThat(authorizationService.findByToken(authorization.getRefreshToken().getToken().getTokenValue(), null)).isNotNull();
+        assertThat(authorizationService.findByToken(authorization.getAccessToken().getToken().getTokenValue(), OAuth2TokenType.REFRESH_TOKEN)).isNull();
+    }
+
+    @Test
+    void ignoresIndexOfRotatedToken() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        authorizationService.save(authorization);
+        String oldRefreshToken = authorization.getRefreshToken().getToken().getTokenValue();
+
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        authorizationService.save(OAuth2Authorization.from(authorization)
+                .refreshToken(new OAuth2RefreshToken("rotated-refresh-token", issuedAt, issuedAt.plus(1, ChronoUnit.DAYS)))
+                .build());
+
+        // 舊 Token 的索引 key 仍在，但指向的 Authorization 已不含該 Token
+        assertThat(authorizationService.findByToken(oldRefreshToken, OAuth2TokenType.REFRESH_TOKEN)).isNull();
+        assertThat(authorizationService.findByToken("rotated-refresh-token", OAuth2TokenType.REFRESH_TOKEN)).isNotNull();
+    }
+
+    @Test
+    void expiresKeysWithLatestTokenExpiry() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        authorizationService.save(authorization);
+
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        Long ttl = redisTemplate.getExpire("oauth2:authorization:" + authorization.getId(), TimeUnit.SECONDS);
+        long refreshTokenTtl = Duration.between(Instant.now(), authorization.getRefreshToken().getToken().getExpiresAt()).toSeconds();
+        assertThat(ttl).isBetween(refreshTokenTtl - 5, refreshTokenTtl + 1);
+    }
+
+    @Test
+    void removeDeletesAuthorizationAndIndexes() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        authorizationService.save(authorization);
+
+        authorizationService.remove(authorization);
+
+        assertThat(authorizationService.findById(authorization.getId())).isNull();
+        assertThat(new StringRedisTemplate(connectionFactory).keys("oauth2:*")).isEmpty();
+    }
+}
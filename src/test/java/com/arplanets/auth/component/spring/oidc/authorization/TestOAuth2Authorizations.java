@@ -0,0 +1,82 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.AuthorizationTokenClaims;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2RefreshToken;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcScopes;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationCode;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 測試用的 RegisteredClient 與 OAuth2Authorization (含授權碼、Access Token、ID Token、Refresh Token 與登入後計算的 Claims)
+ */
+public final class TestOAuth2Authorizations {
+
+    private TestOAuth2Authorizations() {
+    }
+
+    public static RegisteredClient registeredClient() {
+        return RegisteredClient.withId("registered-client-1")
+                .clientId("client-1")
+                .clientSecret("{noop}secret")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizationGrantType(AuthorizationGrantType.REFRESH_TOKEN)
+                .redirectUri("https://client.example.com/callback")
+                .scope(OidcScopes.OPENID)
+                .scope(OidcScopes.PROFILE)
+                .build();
+    }
+
+    public static OAuth2Authorization authorization(RegisteredClient registeredClient) {
+        // 以毫秒為單位，與資料庫 DATETIME(3) 相同精度
+        Instant issuedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Instant expiresAt = issuedAt.plus(Duration.ofMinutes(5));
+        Set<String> scopes = Set.of(OidcScopes.OPENID, OidcScopes.PROFILE);
+
+        OAuth2AuthorizationRequest authorizationRequest = OAuth2AuthorizationRequest.authorizationCode()
+                .authorizationUri("https://auth.example.com/pool-1/oauth2/authorize")
+                .clientId(registeredClient.getClientId())
+                .redirectUri("https://client.example.com/callback")
+                .scopes(scopes)
+                .state("state-1")
+                .build();
+        UsernamePasswordAuthenticationToken principal = UsernamePasswordAuthenticationToken.authenticated(
+                "user-1", null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+        OidcIdToken idToken = OidcIdToken.withTokenValue("id-token-" + UUID.randomUUID())
+                .issuer("https://auth.example.com/pool-1")
+                .subject("user-1")
+                .issuedAt(issuedAt)
+                .expiresAt(expiresAt)
+                .build();
+
+        return OAuth2Authorization.withRegisteredClient(registeredClient)
+                .id(UUID.randomUUID().toString())
+                .principalName("user-1")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .authorizedScopes(scopes)
+                .attribute(OAuth2AuthorizationRequest.class.getName(), authorizationRequest)
+                .attribute(Principal.class.getName(), principal)
+                .attribute(AuthorizationTokenClaims.ATTRIBUTE_NAME, new AuthorizationTokenClaims("uuid-1", "google", "sid-1", "auth-1"))
+                .token(new OAuth2AuthorizationCode("code-" + UUID.randomUUID(), issuedAt, expiresAt),
+                        metadata -> metadata.put(OAuth2Authorization.Token.INVALIDATED_METADATA_NAME, true))
+                .token(new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "access-token-" + UUID.randomUUID(), issuedAt, expiresAt, scopes))
+                .token(idToken, metadata -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, idToken.getClaims()))
+                .refreshToken(new OAuth2RefreshToken("refresh-token-" + UUID.randomUUID(), issuedAt, issuedAt.plus(Duration.ofDays(1))))
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package com.arplanets.auth.component.spring.oidc.authorization;
+
+import com.arplanets.auth.component.spring.oidc.authorization.JacksonOAuth2AuthorizationCodec.Format;
+import com.arplanets.auth.component.spring.oidc.authorization.OAuth2AuthorizationJournal.FsyncPolicy;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.InMemoryRegisteredClientRepository;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class WriteBehindOAuth2AuthorizationServiceTests {
+
+    @TempDir
+    Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RegisteredClient registeredClient;
+    private OAuth2AuthorizationService delegate;
+
+    @BeforeEach
+    void setUp() {
+        registeredClient = TestOAuth2Authorizations.registeredClient();
+        delegate = mock(OAuth2AuthorizationService.class);
+    }
+
+    @Test
+    void servesPendingChangesBeforeFlush() {
+        WriteBehindOAuth2AuthorizationService service = service(Duration.ofHours(1), 5);
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+
+        service.save(authorization);
+
+        assertThat(service.findById(authorization.getId())).isSameAs(authorization);
+        assertThat(service.findByToken(authorization.getRefreshToken().getToken().getTokenValue(), OAuth2TokenType.REFRESH_TOKEN))
+                .isSameAs(authorization);
+        verify(delegate, never()).save(any());
+
+        service.destroy();
+        verify(delegate).save(authorization);
+    }
+
+    @Test
+    void failingEntryDoesNotBlockOtherEntries() {
+        OAuth2Authorization failing = TestOAuth2Authorizations.authorization(registeredClient);
+        OAuth2Authorization healthy = TestOAuth2Authorizations.authorization(registeredClient);
+        doThrow(new TransientDataAccessResourceException("connection reset"))
+                .when(delegate).save(argThat(authorization -> authorization != null && failing.getId().equals(authorization.getId())));
+        WriteBehindOAuth2AuthorizationService service = service(Duration.ofMillis(20), 3);
+
+        service.save(failing);
+        service.save(healthy);
+
+        verify(delegate, timeout(2000)).save(healthy);
+        verify(delegate, timeout(2000).times(3)).save(failing);
+        service.destroy();
+
+        // 超過重試次數後放棄，不再無限重試
+        verify(delegate, times(3)).save(failing);
+        assertThat(meterRegistry.counter("oauth2_authorization_write_behind_dead_letter").count()).isEqualTo(1);
+        assertThat(service.findById(failing.getId())).isNull();
+    }
+
+    @Test
+    void writesPendingChangesInBatch() {
+        BatchOAuth2AuthorizationService batchDelegate = mock(BatchOAuth2AuthorizationService.class);
+        delegate = batchDelegate;
+        WriteBehindOAuth2AuthorizationService service = service(Duration.ofHours(1), 5);
+        OAuth2Authorization first = TestOAuth2Authorizations.authorization(registeredClient);
+        OAuth2Authorization second = TestOAuth2Authorizations.authorization(registeredClient);
+        OAuth2Authorization removed = TestOAuth2Authorizations.authorization(registeredClient);
+
+        service.save(first);
+        service.save(second);
+        service.remove(removed);
+        service.destroy();
+
+        verify(batchDelegate).saveAll(argThat(authorizations -> authorizations.size() == 2
+                && authorizations.containsAll(List.of(first, second))));
+        verify(batchDelegate).removeAll(List.of(removed));
+        verify(batchDelegate, never()).save(any());
+        verify(batchDelegate, never()).remove(any());
+    }
+
+    @Test
+    void fallsBackToSingleWritesWhenBatchFails() {
+        BatchOAuth2AuthorizationService batchDelegate = mock(BatchOAuth2AuthorizationService.class);
+        doThrow(new TransientDataAccessResourceException("deadlock")).when(batchDelegate).saveAll(anyList());
+        delegate = batchDelegate;
+        WriteBehindOAuth2AuthorizationService service = service(Duration.ofHours(1), 5);
+        OAuth2Authorization first = TestOAuth2Authorizations.authorization(registeredClient);
+        OAuth2Authorization second = TestOAuth2Authorizations.authorization(registeredClient);
+
+        service.save(first);
+        service.save(second);
+        service.destroy();
+
+        verify(batchDelegate).save(first);
+        verify(batchDelegate).save(second);
+        assertThat(meterRegistry.get("oauth2_authorization_write_behind_pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void recoversUnflushedChangesAfterRestart() {
+        OAuth2Authorization authorization = TestOAuth2Authorizations.authorization(registeredClient);
+        doThrow(new TransientDataAccessResourceException("database unavailable")).when(delegate).save(any());
+        WriteBehindOAuth2AuthorizationService service = service(Duration.ofHours(1), 100);
+        service.save(authorization);
+        service.destroy();
+
+        OAuth2AuthorizationService recovered = mock(OAuth2AuthorizationService.class);
+        delegate = recovered;
+        service(Duration.ofHours(1), 100).destroy();
+
+        verify(recovered).save(argThat(saved -> saved != null && authorization.getId().equals(saved.getId())));
+    }
+
+    private WriteBehindOAuth2AuthorizationService service(Duration flushInterval, int maxAttempts) {
+        OAuth2AuthorizationJournal journal = new OAuth2AuthorizationJournal(directory, FsyncPolicy.BATCH,
+                new JacksonOAuth2AuthorizationCodec(Format.JSON), new InMemoryRegisteredClientRepository(registeredClient));
+        return new WriteBehindOAuth2AuthorizationService(delegate, journal, flushInterval, maxAttempts, meterRegistry);
+    }
+}
@@ -0,0 +1,225 @@
+package com.arplanets.auth.filter;
+
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.TestTenantRuntimes;
+import com.arplanets.auth.service.inmemory.TenantLoader;
+import com.nimbusds.jose.jwk.JWKSet;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TenantMetadataCacheFilterTests {
+
+    private static final String JWKS_PATH = "/pool-a/oauth2/jwks";
+    private static final String DISCOVERY_PATH = "/pool-a/.well-known/openid-configuration";
+
+    private TenantLoader tenantLoader;
+    private TenantRuntime tenantRuntime;
+    private TenantMetadataCacheFilter filter;
+    private final AtomicInteger chainCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        tenantLoader = mock(TenantLoader.class);
+        tenantRuntime = TestTenantRuntimes.tenantRuntime("pool-id-a", "pool-a");
+        when(tenantLoader.find("pool-a")).thenReturn(tenantRuntime);
+        filter = new TenantMetadataCacheFilter(tenantLoader, "max-age=60", 100, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void servesCachedResponseWithoutFilterChain() throws Exception {
+        MockHttpServletResponse first = get(JWKS_PATH, "a.example.com", null);
+        MockHttpServletResponse second = get(JWKS_PATH, "a.example.com", null);
+
+        assertThat(chainCalls).hasValue(1);
+        assertThat(second.getStatus()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo(body(JWKS_PATH, "a.example.com"));
+        assertThat(second.getHeader(HttpHeaders.ETAG)).isEqualTo(first.getHeader(HttpHeaders.ETAG)).isNotBlank();
+        assertThat(second.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=60");
+    }
+
+    @Test
+    void returnsNotModifiedOnCacheHit() throws Exception {
+        String etag = get(JWKS_PATH, "a.example.com", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletResponse response = get(JWKS_PATH, "a.example.com", "W/" + etag);
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(response.getContentLength()).isZero();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+    }
+
+    @Test
+    void returnsNotModifiedWhenFillingCache() throws Exception {
+        TenantMetadataCacheFilter other = new TenantMetadataCacheFilter(tenantLoader, "max-age=60", 100, new SimpleMeterRegistry());
+        MockHttpServletRequest request = request(JWKS_PATH, "a.example.com", null);
+        MockHttpServletResponse previous = new MockHttpServletResponse();
+        other.doFilter(request, previous, chain());
+        String etag = previous.getHeader(HttpHeaders.ETAG);
+
+        // 其他機器發出的 ETag 在本機第一次產生回應時也要回傳 304
+        MockHttpServletResponse response = get(JWKS_PATH, "a.example.com", etag);
+
+        assertThat(response.getStatus()).isEqualTo(HttpServletResponse.SC_NOT_MODIFIED);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+
+        MockHttpServletResponse cached = get(JWKS_PATH, "a.example.com", null);
+        assertThat(cached.getContentAsString()).isEqualTo(body(JWKS_PATH, "a.example.com"));
+        assertThat(chainCalls).hasValue(2);
+    }
+
+    @Test
+    void servesDiscoveryOnlyToOriginThatFilledCache() throws Exception {
+        get(DISCOVERY_PATH, "a.example.com", null);
+
+        MockHttpServletResponse otherOrigin = get(DISCOVERY_PATH, "b.example.com", null);
+        assertThat(otherOrigin.getContentAsString()).isEqualTo(body(DISCOVERY_PATH, "b.example.com"));
+        assertThat(chainCalls).hasValue(2);
+
+        // 其他 Origin 的回應不覆蓋快取
+        MockHttpServletResponse sameOrigin = get(DISCOVERY_PATH, "a.example.com", null);
+        assertThat(sameOrigin.getContentAsString()).isEqualTo(body(DISCOVERY_PATH, "a.example.com"));
+        assertThat(chainCalls).hasValue(2);
+
+        get(DISCOVERY_PATH, "b.example.com", null);
+        assertThat(chainCalls).hasValue(3);
+    }
+
+    @Test
+    void replaysHeadersOfResponseThatFilledCache() throws Exception {
+        get(JWKS_PATH, "a.example.com", null);
+
+        MockHttpServletResponse cached = get(JWKS_PATH, "a.example.com", null);
+
+        assertThat(chainCalls).hasValue(1);
+        assertThat(cached.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+        assertThat(cached.getHeaders(HttpHeaders.VARY)).containsExactly(HttpHeaders.ORIGIN);
+        assertThat(cached.getHeader(HttpHeaders.SET_COOKIE)).isNull();
+        assertThat(cached.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("max-age=60");
+    }
+
+    @Test
+    void sendsCorsRequestsThroughFilterChain() throws Exception {
+        get(JWKS_PATH, "a.example.com", null);
+
+        MockHttpServletRequest request = request(JWKS_PATH, "a.example.com", null);
+        request.addHeader(HttpHeaders.ORIGIN, "http://localhost:3000");
+        MockHttpServletResponse corsResponse = new MockHttpServletResponse();
+        filter.doFilter(request, corsResponse, chain());
+
+        assertThat(chainCalls).hasValue(2);
+        assertThat(corsResponse.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isEqualTo("http://localhost:3000");
+        assertThat(corsResponse.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS)).isEqualTo("true");
+        assertThat(corsResponse.getContentAsString()).isEqualTo(body(JWKS_PATH, "a.example.com"));
+
+        // CORS 回應不寫入快取，其 Header 也不回放給其他請求
+        MockHttpServletResponse cached = get(JWKS_PATH, "a.example.com", null);
+        assertThat(chainCalls).hasValue(2);
+        assertThat(cached.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isNull();
+    }
+
+    @Test
+    void corsRequestDoesNotFillCache() throws Exception {
+        MockHttpServletRequest request = request(JWKS_PATH, "a.example.com", null);
+        request.addHeader(HttpHeaders.ORIGIN, "http://localhost:3000");
+        filter.doFilter(request, new MockHttpServletResponse(), chain());
+
+        MockHttpServletResponse response = get(JWKS_PATH, "a.example.com", null);
+
+        assertThat(chainCalls).hasValue(2);
+        assertThat(response.getHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN)).isNull();
+    }
+
+    @Test
+    void jwksIsSharedAcrossHosts() throws Exception {
+        get(JWKS_PATH, "a.example.com", null);
+        get(JWKS_PATH, "b.example.com", null);
+
+        assertThat(chainCalls).hasValue(1);
+    }
+
+    @Test
+    void regeneratesWhenJwkSetIsReplaced() throws Exception {
+        get(JWKS_PATH, "a.example.com", null);
+        TenantRuntime rotated = new TenantRuntime(tenantRuntime.userPoolInfo(), new JWKSet(tenantRuntime.jwkSet().getKeys()),
+                tenantRuntime.jwtEncoder(), tenantRuntime.jwsVerifiers(), tenantRuntime.scopes(), tenantRuntime.clientRegistrations());
+        when(tenantLoader.find("pool-a")).thenReturn(rotated);
+
+        get(JWKS_PATH, "a.example.com", null);
+        get(JWKS_PATH, "a.example.com", null);
+
+        assertThat(chainCalls).hasValue(2);
+    }
+
+    @Test
+    void passesThroughUnknownTenant() throws Exception {
+        get("/pool-unknown/oauth2/jwks", "a.example.com", null);
+        get("/pool-unknown/oauth2/jwks", "a.example.com", null);
+
+        assertThat(chainCalls).hasValue(2);
+    }
+
+    @Test
+    void ignoresOtherEndpoints() throws Exception {
+        get("/pool-a/oauth2/token", "a.example.com", null);
+        get("/pool-a/oauth2/token", "a.example.com", null);
+
+        assertThat(chainCalls).hasValue(2);
+        verifyNoInteractions(tenantLoader);
+    }
+
+    private MockHttpServletResponse get(String path, String host, String ifNoneMatch) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, host, ifNoneMatch), response, chain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String host, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setScheme("https");
+        request.setServerName(host);
+        request.setServerPort(443);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+
+    /**
+     * 模擬 Authorization Server 產生的回應，內容隨 Host 不同，並加上 CORS 與安全性 Header
+     */
+    private FilterChain chain() {
+        return (request, servletResponse) -> {
+            chainCalls.incrementAndGet();
+            MockHttpServletRequest httpRequest = (MockHttpServletRequest) request;
+            HttpServletResponse response = (HttpServletResponse) servletResponse;
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ORIGIN);
+            response.setHeader("X-Content-Type-Options", "nosniff");
+            response.addHeader(HttpHeaders.SET_COOKIE, "JSESSIONID=" + chainCalls.get());
+            String origin = httpRequest.getHeader(HttpHeaders.ORIGIN);
+            if (origin != null) {
+                response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
+                response.setHeader(HttpHeaders.ACCESS_CONTROL_ALLOW_CREDENTIALS, "true");
+            }
+            response.setContentType("application/json");
+            response.getWriter().write(body(httpRequest.getRequestURI(), httpRequest.getServerName()));
+        };
+    }
+
+    private static String body(String path, String host) {
+        return "{\"path\":\"" + path + "\",\"issuer\":\"https://" + host + "/pool-a\"}";
+    }
+}
@@ -0,0 +1,55 @@
+package com.arplanets.auth.model;
+
+import com.arplanets.auth.component.spring.oidc.TenantJwsVerifiers;
+import com.arplanets.auth.component.spring.oidc.TenantJwtEncoder;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 測試用 TenantRuntime，所有 Tenant 共用同一把 EC 金鑰
+ */
+public final class TestTenantRuntimes {
+
+    private static final JWKSet JWK_SET;
+
+    private static final TenantJwtEncoder JWT_ENCODER;
+
+    private static final TenantJwsVerifiers JWS_VERIFIERS;
+
+    static {
+        try {
+            JWK_SET = new JWKSet(new ECKeyGenerator(Curve.P_256).keyID("test-key").keyUse(KeyUse.SIGNATURE).generate());
+            JWT_ENCODER = new TenantJwtEncoder(JWK_SET);
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        JWS_VERIFIERS = new TenantJwsVerifiers(JWK_SET);
+    }
+
+    private TestTenantRuntimes() {
+    }
+
+    public static TenantRuntime tenantRuntime(String userPoolId, String poolName) {
+        UserPoolInfo userPoolInfo = UserPoolInfo.builder().userPoolId(userPoolId).poolName(poolName).build();
+        return new TenantRuntime(userPoolInfo, JWK_SET, JWT_ENCODER, JWS_VERIFIERS, Set.of("openid"), Map.of());
+    }
+
+    /**
+     * 使用指定 JWKSet 的 TenantRuntime，每次呼叫都建立新的 JwtEncoder 與驗證器 (與金鑰輪替後替換 Tenant 相同)
+     */
+    public static TenantRuntime tenantRuntime(String userPoolId, String poolName, JWKSet jwkSet) {
+        UserPoolInfo userPoolInfo = UserPoolInfo.builder().userPoolId(userPoolId).poolName(poolName).build();
+        try {
+            return new TenantRuntime(userPoolInfo, jwkSet, new TenantJwtEncoder(jwkSet), new TenantJwsVerifiers(jwkSet.toPublicJWKSet()),
+                    Set.of("openid"), Map.of());
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
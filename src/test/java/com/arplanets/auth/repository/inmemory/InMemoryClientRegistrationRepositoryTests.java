@@ -0,0 +1,90 @@
+package com.arplanets.auth.repository.inmemory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class InMemoryClientRegistrationRepositoryTests {
+
+    private final InMemoryClientRegistrationRepository repository = new InMemoryClientRegistrationRepository();
+
+    @Test
+    void indexesRegistrationsByUserPoolId() {
+        repository.register("pool-1", TestClientRegistrations.clientRegistration("registration-1"));
+        repository.register("pool-1", TestClientRegistrations.clientRegistration("registration-2"));
+        repository.register("pool-2", TestClientRegistrations.clientRegistration("registration-3"));
+
+        assertThat(repository.getRegistrationIdsByUserPoolId("pool-1")).containsExactlyInAnyOrder("registration-1", "registration-2");
+        assertThat(repository.getRegistrationIdsByUserPoolId("pool-2")).containsExactly("registration-3");
+        assertThat(repository.getRegistrationIdsByUserPoolId("pool-3")).isEmpty();
+    }
+
+    @Test
+    void movesRegistrationToNewUserPool() {
+        repository.register("pool-1", TestClientRegistrations.clientRegistration("registration-1"));
+
+        repository.register("pool-2", TestClientRegistrations.clientRegistration("registration-1"));
+
+        assertThat(repository.getRegistrationIdsByUserPoolId("pool-1")).isEmpty();
+        assertThat(repository.getRegistrationIdsByUserPoolId("pool-2")).containsExactly("registration-1");
+        assertThat(repository.get("registration-1").getUserPoolId()).isEqualTo("pool-2");
+    }
+
+    @Test
+    void removeUnindexesRegistration() {
+        repository.register("pool-1", TestClientRegistrations.clientRegistration("registration-1"));
+
+        repository.remove("registration-1");
+        repository.remove("registration-missing");
+
+        assertThat(repository.get("registration-1")).isNull();
+        assertThat(repository.getRegistrationIdsByUserPoolId("pool-1")).isEmpty();
+    }
+
+    @Test
+    void rejectsIncompleteRegistration() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> repository.register("", TestClientRegistrations.clientRegistration("registration-1")));
+    }
+
+    @Test
+    void keepsIndexConsistentUnderConcurrentRegisterAndRemove() {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                String registrationId = "registration-" + (i % 100);
+                String userPoolId = "pool-" + (i % 7);
+                boolean remove = i % 3 == 0;
+                futures.add(CompletableFuture.runAsync(() -> {
+                    if (remove) {
+                        repository.remove(registrationId);
+                    } else {
+                        repository.register(userPoolId, TestClientRegistrations.clientRegistration(registrationId));
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } finally {
+            executor.shutdown();
+        }
+
+        // 每筆 Registration 只出現在其所屬 User Pool 的索引中
+        List<String> indexed = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            String userPoolId = "pool-" + i;
+            repository.getRegistrationIdsByUserPoolId(userPoolId).forEach(registrationId -> {
+                assertThat(repository.get(registrationId).getUserPoolId()).isEqualTo(userPoolId);
+                indexed.add(registrationId);
+            });
+        }
+        assertThat(indexed).doesNotHaveDuplicates().hasSize(repository.getAll().size());
+    }
+}
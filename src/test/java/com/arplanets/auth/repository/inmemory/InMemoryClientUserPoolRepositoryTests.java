@@ -0,0 +1,34 @@
+package com.arplanets.auth.repository.inmemory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryClientUserPoolRepositoryTests {
+
+    private final InMemoryClientUserPoolRepository repository = new InMemoryClientUserPoolRepository();
+
+    @Test
+    void mapsClientIdToEveryUserPool() {
+        repository.put("client-1", "pool-1");
+        repository.put("client-1", "pool-2");
+        repository.put("client-2", "pool-1");
+
+        assertThat(repository.get("client-1")).containsExactlyInAnyOrder("pool-1", "pool-2");
+        assertThat(repository.get("client-3")).isEmpty();
+        assertThat(repository.size()).isEqualTo(2);
+    }
+
+    @Test
+    void dropsClientIdWithoutUserPools() {
+        repository.put("client-1", "pool-1");
+        repository.put("client-1", "pool-2");
+
+        repository.remove("client-1", "pool-1");
+        assertThat(repository.get("client-1")).containsExactly("pool-2");
+
+        repository.remove("client-1", "pool-2");
+        assertThat(repository.get("client-1")).isEmpty();
+        assertThat(repository.size()).isZero();
+    }
+}
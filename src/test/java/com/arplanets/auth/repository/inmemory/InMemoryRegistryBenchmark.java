@@ -0,0 +1,99 @@
+package com.arplanets.auth.repository.inmemory;
+
+import com.arplanets.auth.model.ClientRegistrationContext;
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.TestTenantRuntimes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 以 10k User Pools、50k ClientRegistrations 比較索引查詢與掃描全部資料的耗時
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=InMemoryRegistryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InMemoryRegistryBenchmark {
+
+    private static final int USER_POOLS = 10_000;
+
+    private static final int REGISTRATIONS = 50_000;
+
+    private TenantRepository tenantRepository;
+    private InMemoryClientRegistrationRepository registrationRepository;
+    private String userPoolId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        tenantRepository = new TenantRepository();
+        List<TenantRuntime> tenantRuntimes = new ArrayList<>(USER_POOLS);
+        for (int i = 0; i < USER_POOLS; i++) {
+            tenantRuntimes.add(TestTenantRuntimes.tenantRuntime("pool-id-" + i, "pool-" + i));
+        }
+        tenantRepository.registerAll(tenantRuntimes);
+
+        registrationRepository = new InMemoryClientRegistrationRepository();
+        for (int i = 0; i < REGISTRATIONS; i++) {
+            registrationRepository.register("pool-id-" + (i % USER_POOLS), TestClientRegistrations.clientRegistration("registration-" + i));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void pickUserPool() {
+        userPoolId = "pool-id-" + ThreadLocalRandom.current().nextInt(USER_POOLS);
+    }
+
+    @Benchmark
+    public TenantRuntime tenantByUserPoolIdIndex() {
+        return tenantRepository.getByUserPoolId(userPoolId);
+    }
+
+    /**
+     * 原本的做法：掃描所有 Tenant
+     */
+    @Benchmark
+    public TenantRuntime tenantByUserPoolIdScan() {
+        for (TenantRuntime tenantRuntime : tenantRepository.getAll()) {
+            if (tenantRuntime.userPoolId().equals(userPoolId)) {
+                return tenantRuntime;
+            }
+        }
+        return null;
+    }
+
+    @Benchmark
+    public List<String> registrationIdsIndex() {
+        return registrationRepository.getRegistrationIdsByUserPoolId(userPoolId);
+    }
+
+    /**
+     * 原本的做法：掃描所有 ClientRegistration
+     */
+    @Benchmark
+    public List<String> registrationIdsScan() {
+        List<String> registrationIds = new ArrayList<>();
+        for (ClientRegistrationContext context : registrationRepository.getAll()) {
+            if (userPoolId.equals(context.getUserPoolId())) {
+                registrationIds.add(context.getClientRegistration().getRegistrationId());
+            }
+        }
+        return registrationIds;
+    }
+}
@@ -0,0 +1,103 @@
+package com.arplanets.auth.repository.inmemory;
+
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.TestTenantRuntimes;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContext;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TenantRepositoryTests {
+
+    private final TenantRepository tenantRepository = new TenantRepository();
+
+    @AfterEach
+    void tearDown() {
+        AuthorizationServerContextHolder.resetContext();
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @ParameterizedTest
+    @CsvSource(value = {
+            "https://auth.example.com/pool-a, pool-a",
+            "https://auth.example.com/pool-a?x=1, pool-a",
+            "https://auth.example.com/pool-a#top, pool-a",
+            "https://auth.example.com/a/b, a/b",
+            "auth.example.com/pool-a, pool-a",
+            "https://auth.example.com, ''",
+            "'', ''"
+    })
+    void extractsPathAfterDomain(String issuer, String tenantId) {
+        assertThat(TenantRepository.extractTenantId(issuer)).isEqualTo(tenantId);
+    }
+
+    @Test
+    void extractsNothingFromNullIssuer() {
+        assertThat(TenantRepository.extractTenantId(null)).isEmpty();
+    }
+
+    @Test
+    void resolvesRegisteredTenantByIssuer() {
+        TenantRuntime tenantRuntime = TestTenantRuntimes.tenantRuntime("pool-id-a", "pool-a");
+        tenantRepository.register(tenantRuntime);
+
+        assertThat(tenantRepository.resolve("https://auth.example.com/pool-a")).isSameAs(tenantRuntime);
+        assertThat(tenantRepository.resolve("https://other.example.com/pool-a")).isSameAs(tenantRuntime);
+        assertThat(tenantRepository.resolve("https://auth.example.com/pool-b")).isNull();
+        assertThat(tenantRepository.resolve("https://auth.example.com")).isNull();
+    }
+
+    @Test
+    void resolvesTenantOncePerRequest() {
+        TenantRuntime tenantRuntime = TestTenantRuntimes.tenantRuntime("pool-id-a", "pool-a");
+        tenantRepository.register(tenantRuntime);
+        AuthorizationServerContext context = mock(AuthorizationServerContext.class);
+        when(context.getIssuer()).thenReturn("https://auth.example.com/pool-a");
+        AuthorizationServerContextHolder.setContext(context);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThat(tenantRepository.resolve()).isSameAs(tenantRuntime);
+        tenantRepository.remove("pool-a");
+
+        // 同一個 Request 內沿用第一次解析的結果
+        assertThat(tenantRepository.resolve()).isSameAs(tenantRuntime);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        assertThat(tenantRepository.resolve()).isNull();
+    }
+
+    @Test
+    void resolvesNothingWithoutContext() {
+        tenantRepository.register(TestTenantRuntimes.tenantRuntime("pool-id-a", "pool-a"));
+
+        assertThat(tenantRepository.resolve()).isNull();
+    }
+
+    @Test
+    void keepsUserPoolIdIndexInSyncWithUpdates() {
+        TenantRuntime tenantA = TestTenantRuntimes.tenantRuntime("pool-id-a", "pool-a");
+        TenantRuntime tenantB = TestTenantRuntimes.tenantRuntime("pool-id-b", "pool-b");
+        tenantRepository.registerAll(List.of(tenantA, tenantB));
+
+        TenantRuntime updated = TestTenantRuntimes.tenantRuntime("pool-id-a", "pool-a");
+        tenantRepository.updateAll(Map.of("pool-id-a", tenantRuntime -> updated, "pool-id-missing", tenantRuntime -> tenantRuntime));
+
+        assertThat(tenantRepository.get("pool-a")).isSameAs(updated);
+        assertThat(tenantRepository.getByUserPoolId("pool-id-a")).isSameAs(updated);
+        assertThat(tenantRepository.getAll()).containsExactlyInAnyOrder(updated, tenantB);
+
+        tenantRepository.remove("pool-b");
+        assertThat(tenantRepository.getByUserPoolId("pool-id-b")).isNull();
+    }
+}
@@ -0,0 +1,62 @@
+package com.arplanets.auth.repository.inmemory;
+
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.TestTenantRuntimes;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 比較以 URI 解析 Issuer 取得 Tenant 與查詢 Issuer -> Tenant ID 對應表的耗時
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark=TenantResolutionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantResolutionBenchmark {
+
+    private static final String ISSUER = "https://auth.example.com/pool-500";
+
+    private TenantRepository tenantRepository;
+
+    @Setup
+    public void setUp() {
+        tenantRepository = new TenantRepository();
+        for (int i = 0; i < 1_000; i++) {
+            tenantRepository.register(TestTenantRuntimes.tenantRuntime("pool-id-" + i, "pool-" + i));
+        }
+    }
+
+    /**
+     * 原本的做法：每次以 URI 解析 Issuer 後取出路徑
+     */
+    @Benchmark
+    public TenantRuntime uriParsing() throws URISyntaxException {
+        String path = new URI(ISSUER).getPath();
+        return tenantRepository.get(path.startsWith("/") ? path.substring(1) : path);
+    }
+
+    @Benchmark
+    public String extractTenantId() {
+        return TenantRepository.extractTenantId(ISSUER);
+    }
+
+    @Benchmark
+    public TenantRuntime issuerTable() {
+        return tenantRepository.resolve(ISSUER);
+    }
+}
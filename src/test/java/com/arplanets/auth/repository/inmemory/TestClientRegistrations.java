@@ -0,0 +1,34 @@
+package com.arplanets.auth.repository.inmemory;
+
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+
+import java.util.Map;
+
+/**
+ * 測試用 ClientRegistration，填滿 InMemoryClientRegistrationRepository 檢核的欄位
+ */
+final class TestClientRegistrations {
+
+    private TestClientRegistrations() {
+    }
+
+    static ClientRegistration clientRegistration(String registrationId) {
+        return ClientRegistration.withRegistrationId(registrationId)
+                .clientId("client-" + registrationId)
+                .clientSecret("secret")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .clientName("google")
+                .authorizationUri("https://idp.example.com/authorize")
+                .tokenUri("https://idp.example.com/token")
+                .userInfoUri("https://idp.example.com/userinfo")
+                .jwkSetUri("https://idp.example.com/jwks")
+                .userNameAttributeName("sub")
+                .providerConfigurationMetadata(Map.of("end_session_endpoint", "https://idp.example.com/logout"))
+                .scope("openid")
+                .build();
+    }
+}
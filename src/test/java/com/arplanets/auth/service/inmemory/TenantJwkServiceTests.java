@@ -0,0 +1,74 @@
+package com.arplanets.auth.service.inmemory;
+
+import com.arplanets.auth.component.spring.oidc.jose.Ed25519Keys;
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.OctetKeyPair;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalStateException;
+
+class TenantJwkServiceTests {
+
+    private final TenantJwkService tenantJwkService = new TenantJwkService();
+
+    @Test
+    void acceptsEcAndEd25519SigningKeys() throws Exception {
+        JWK ecKey = new ECKeyGenerator(Curve.P_256).keyID("ec-1").keyUse(KeyUse.SIGNATURE).generate();
+        JWK edKey = Ed25519Keys.generate().keyID("ed-1").keyUse(KeyUse.SIGNATURE).build();
+
+        JWKSet jwkSet = tenantJwkService.parseJwkSet(userPool(new JWKSet(List.of(ecKey, edKey))));
+
+        assertThat(jwkSet.getKeys()).extracting(JWK::getKeyID).containsExactly("ec-1", "ed-1");
+        assertThat(Ed25519Keys.isEd25519(jwkSet.getKeyByKeyId("ed-1"))).isTrue();
+    }
+
+    @Test
+    void rejectsShortRsaKey() throws JOSEException {
+        JWK rsaKey = new RSAKeyGenerator(1024, true).keyID("rsa-1").generate();
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> tenantJwkService.parseJwkSet(userPool(new JWKSet(rsaKey))))
+                .withMessageContaining("at least 2048 bits");
+    }
+
+    @Test
+    void rejectsKeyAgreementCurve() {
+        // X25519 只能用於金鑰協商，不能簽章
+        JWK x25519Key = new OctetKeyPair.Builder(Curve.X25519, Base64URL.encode(new byte[32]))
+                .d(Base64URL.encode(new byte[32]))
+                .keyID("x-1")
+                .build();
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> tenantJwkService.parseJwkSet(userPool(new JWKSet(x25519Key))))
+                .withMessageContaining("Unsupported key type");
+    }
+
+    @Test
+    void rejectsJwkSetWithoutSigningKey() throws JOSEException {
+        JWK publicKey = new ECKeyGenerator(Curve.P_256).keyID("ec-1").generate().toPublicJWK();
+
+        assertThatIllegalStateException()
+                .isThrownBy(() -> tenantJwkService.parseJwkSet(userPool(new JWKSet(publicKey))))
+                .withMessageContaining("does not contain any signing key");
+    }
+
+    private static UserPool userPool(JWKSet jwkSet) {
+        return UserPool.builder()
+                .userPoolId("pool-id-a")
+                .poolName("pool-a")
+                .jwkSet(jwkSet.toString(false))
+                .build();
+    }
+}
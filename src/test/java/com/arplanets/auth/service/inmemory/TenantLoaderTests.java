@@ -0,0 +1,154 @@
+package com.arplanets.auth.service.inmemory;
+
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.TestTenantRuntimes;
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.arplanets.auth.repository.persistence.UserPoolRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContext;
+import org.springframework.security.oauth2.server.authorization.context.AuthorizationServerContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TenantLoaderTests {
+
+    private final TenantRepository tenantRepository = new TenantRepository();
+    private final UserPoolRepository userPoolRepository = mock(UserPoolRepository.class);
+    private final TenantRuntimeService tenantRuntimeService = mock(TenantRuntimeService.class);
+    private final InMemoryClientRegistrationService inMemoryClientRegistrationService = mock(InMemoryClientRegistrationService.class);
+
+    private final UserPool poolA = UserPool.builder().userPoolId("pool-id-a").poolName("pool-a").build();
+    private final TenantRuntime tenantA = TestTenantRuntimes.tenantRuntime("pool-id-a", "pool-a");
+
+    private TenantLoader tenantLoader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(this.inMemoryClientRegistrationService.findClientRegistrationsByPoolId(anyString())).thenReturn(List.of());
+        when(this.tenantRuntimeService.create(eq(this.poolA), any())).thenReturn(this.tenantA);
+        this.tenantLoader = tenantLoader(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        AuthorizationServerContextHolder.resetContext();
+    }
+
+    @Test
+    void resolvesLoadedTenantWithoutQueryingDatabase() {
+        this.tenantRepository.register(this.tenantA);
+        issuer("https://auth.example.com/pool-a");
+
+        assertThat(this.tenantLoader.resolve()).isSameAs(this.tenantA);
+        verify(this.userPoolRepository, never()).findByPoolName(anyString());
+    }
+
+    @Test
+    void lazilyLoadsTenantOfIssuerOnce() {
+        when(this.userPoolRepository.findByPoolName("pool-a")).thenReturn(this.poolA);
+        issuer("https://auth.example.com/pool-a");
+
+        assertThat(this.tenantLoader.resolve()).isSameAs(this.tenantA);
+        assertThat(this.tenantRepository.get("pool-a")).isSameAs(this.tenantA);
+        assertThat(this.tenantLoader.resolve()).isSameAs(this.tenantA);
+        verify(this.userPoolRepository, times(1)).findByPoolName("pool-a");
+    }
+
+    @Test
+    void resolvesNothingWithoutIssuer() {
+        assertThat(this.tenantLoader.resolve()).isNull();
+
+        issuer("https://auth.example.com");
+        assertThat(this.tenantLoader.resolve()).isNull();
+        verify(this.userPoolRepository, never()).findByPoolName(anyString());
+    }
+
+    @Test
+    void cachesUnknownPoolNameUntilForgotten() {
+        assertThat(this.tenantLoader.load("pool-x")).isNull();
+        assertThat(this.tenantLoader.load("pool-x")).isNull();
+        verify(this.userPoolRepository, times(1)).findByPoolName("pool-x");
+
+        // User Pool 剛被新增
+        this.tenantLoader.forget("pool-x");
+        assertThat(this.tenantLoader.load("pool-x")).isNull();
+        verify(this.userPoolRepository, times(2)).findByPoolName("pool-x");
+    }
+
+    @Test
+    void cachesTenantThatCannotBeCreated() throws Exception {
+        UserPool broken = UserPool.builder().userPoolId("pool-id-b").poolName("pool-b").build();
+        when(this.userPoolRepository.findByPoolName("pool-b")).thenReturn(broken);
+        when(this.tenantRuntimeService.create(eq(broken), any())).thenThrow(new IllegalStateException("invalid jwk set"));
+
+        assertThat(this.tenantLoader.load("pool-b")).isNull();
+        assertThat(this.tenantLoader.load("pool-b")).isNull();
+        verify(this.userPoolRepository, times(1)).findByPoolName("pool-b");
+    }
+
+    @Test
+    void doesNotCacheDatabaseFailure() {
+        when(this.userPoolRepository.findByPoolName("pool-a"))
+                .thenThrow(new IllegalStateException("connection refused"))
+                .thenReturn(this.poolA);
+
+        assertThat(this.tenantLoader.load("pool-a")).isNull();
+        assertThat(this.tenantLoader.load("pool-a")).isSameAs(this.tenantA);
+    }
+
+    @Test
+    void reloadsTenantRemovedFromRepository() {
+        when(this.userPoolRepository.findByPoolName("pool-a")).thenReturn(this.poolA);
+        assertThat(this.tenantLoader.load("pool-a")).isSameAs(this.tenantA);
+
+        // 例如透過 API 刪除，下一次存取才重新載入
+        this.tenantRepository.remove("pool-a");
+        assertThat(this.tenantLoader.load("pool-a")).isNull();
+        assertThat(this.tenantLoader.load("pool-a")).isSameAs(this.tenantA);
+        verify(this.userPoolRepository, times(2)).findByPoolName("pool-a");
+    }
+
+    @Test
+    void findsOnlyLoadedTenantsWhenLazyLoadingIsDisabled() {
+        TenantLoader eagerLoader = tenantLoader(false);
+        this.tenantRepository.register(this.tenantA);
+
+        assertThat(eagerLoader.find("pool-a")).isSameAs(this.tenantA);
+        assertThat(eagerLoader.find("pool-b")).isNull();
+        verify(this.userPoolRepository, never()).findByPoolName(anyString());
+    }
+
+    private TenantLoader tenantLoader(boolean lazyLoadingEnabled) {
+        TenantLoader loader = new TenantLoader(this.tenantRepository, this.userPoolRepository, this.tenantRuntimeService,
+                this.inMemoryClientRegistrationService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(loader, "lazyLoadingEnabled", lazyLoadingEnabled);
+        ReflectionTestUtils.setField(loader, "cacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(loader, "cacheIdleTimeout", Duration.ofHours(1));
+        ReflectionTestUtils.setField(loader, "negativeCacheMaximumSize", 100L);
+        ReflectionTestUtils.setField(loader, "negativeCacheTtl", Duration.ofMinutes(5));
+        loader.initializeCaches();
+        return loader;
+    }
+
+    private static void issuer(String issuer) {
+        AuthorizationServerContext context = mock(AuthorizationServerContext.class);
+        when(context.getIssuer()).thenReturn(issuer);
+        AuthorizationServerContextHolder.setContext(context);
+    }
+}
@@ -0,0 +1,282 @@
+package com.arplanets.auth.service.sync;
+
+import com.arplanets.auth.component.spring.oidc.RegisteredClientRepositoryImpl;
+import com.arplanets.auth.model.TenantRuntime;
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.arplanets.auth.repository.inmemory.InMemoryClientRegistrationRepository;
+import com.arplanets.auth.repository.inmemory.InMemoryClientUserPoolRepository;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.arplanets.auth.repository.persistence.ClientRegistrationPersistentRepository;
+import com.arplanets.auth.repository.persistence.UserPoolRepository;
+import com.arplanets.auth.repository.persistence.impl.jdbc.ClaimMappingRepositoryJdbcImpl;
+import com.arplanets.auth.repository.persistence.impl.jdbc.ClientRegistrationPersistentRepositoryJdbcImpl;
+import com.arplanets.auth.repository.persistence.impl.jdbc.RegisteredClientPersistentRepositoryJdbcImpl;
+import com.arplanets.auth.repository.persistence.impl.jdbc.UserPoolRepositoryJdbcImpl;
+import com.arplanets.auth.service.inmemory.ClaimProjectionPlanService;
+import com.arplanets.auth.service.inmemory.InMemoryClientRegistrationService;
+import com.arplanets.auth.service.inmemory.InMemoryClientUserPoolService;
+import com.arplanets.auth.service.inmemory.TenantJwkService;
+import com.arplanets.auth.service.inmemory.TenantLoader;
+import com.arplanets.auth.service.inmemory.TenantRuntimeService;
+import com.arplanets.auth.service.inmemory.UserPoolInfoService;
+import com.arplanets.auth.service.persistence.UserPoolService;
+import com.arplanets.auth.service.persistence.impl.UserPoolServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 兩個 ApplicationContext 模擬兩台機器共用同一個資料庫，驗證異動會同步到每一台機器
+ * 使用 In-memory H2 (MODE=MySQL)，不需要 Docker
+ */
+class ConfigurationSyncEngineTests {
+
+    private static final String JDBC_URL = "jdbc:h2:mem:config-sync;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    private static final String TOUCH = "updated_at = GREATEST(LOCALTIMESTAMP(3), TIMESTAMPADD(MICROSECOND, 1000, updated_at))";
+
+    private JdbcTemplate jdbcTemplate;
+    private String jwkSet;
+    private AnnotationConfigApplicationContext node1;
+    private AnnotationConfigApplicationContext node2;
+
+    @BeforeAll
+    static void createSchema() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/sync-schema.sql")).execute(dataSource());
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jdbcTemplate = new JdbcTemplate(dataSource());
+        List.of("user_pool", "client_registration", "oauth2_registered_client", "user_attribute_mapping")
+                .forEach(table -> jdbcTemplate.update("DELETE FROM " + table));
+        jwkSet = new JWKSet(new ECKeyGenerator(Curve.P_256).keyID("key-1").keyUse(KeyUse.SIGNATURE).generate()).toString(false);
+        node1 = node();
+        node2 = node();
+    }
+
+    @AfterEach
+    void tearDown() {
+        node1.close();
+        node2.close();
+    }
+
+    @Test
+    void appliesChangesOnEveryNode() {
+        insertUserPool("pool-id-a", "pool-a", jwkSet);
+        insertClientRegistration("registration-1", "pool-id-a");
+        syncAll();
+
+        for (AnnotationConfigApplicationContext node : List.of(node1, node2)) {
+            TenantRuntime tenantRuntime = node.getBean(TenantRepository.class).get("pool-a");
+            assertThat(tenantRuntime).isNotNull();
+            assertThat(tenantRuntime.clientRegistrations()).containsOnlyKeys("registration-1");
+        }
+
+        jdbcTemplate.update("UPDATE client_registration SET deleted_at = CURRENT_TIMESTAMP(3), " + TOUCH + " WHERE registration_id = ?", "registration-1");
+        syncAll();
+
+        for (AnnotationConfigApplicationContext node : List.of(node1, node2)) {
+            assertThat(node.getBean(InMemoryClientRegistrationRepository.class).get("registration-1")).isNull();
+            assertThat(node.getBean(TenantRepository.class).get("pool-a").clientRegistrations()).isEmpty();
+        }
+
+        jdbcTemplate.update("UPDATE user_pool SET is_active = 0, " + TOUCH + " WHERE user_pool_id = ?", "pool-id-a");
+        syncAll();
+
+        for (AnnotationConfigApplicationContext node : List.of(node1, node2)) {
+            assertThat(node.getBean(TenantRepository.class).get("pool-a")).isNull();
+        }
+    }
+
+    @Test
+    void retriesFailedChangeWithoutSkippingIt() {
+        // pool-a 沒有簽章金鑰，套用失敗；較晚異動的 pool-b 套用成功不可讓進度越過 pool-a
+        insertUserPool("pool-id-a", "pool-a", "{\"keys\":[]}");
+        insertUserPool("pool-id-b", "pool-b", jwkSet);
+        jdbcTemplate.update("UPDATE user_pool SET updated_at = TIMESTAMPADD(MICROSECOND, 1000, updated_at) WHERE user_pool_id = ?", "pool-id-b");
+        ConfigurationSyncEngine engine = node1.getBean(ConfigurationSyncEngine.class);
+        TenantRepository tenantRepository = node1.getBean(TenantRepository.class);
+
+        engine.sync();
+        assertThat(tenantRepository.get("pool-b")).isNotNull();
+        assertThat(tenantRepository.get("pool-a")).isNull();
+
+        engine.sync();
+        engine.sync();
+        engine.sync();
+
+        // 重試 max-attempts (3) 次後略過，不再重試
+        assertThat(appliedCount(node1, "retry")).isEqualTo(2);
+        assertThat(appliedCount(node1, "failure")).isEqualTo(1);
+
+        jdbcTemplate.update("UPDATE user_pool SET jwk_set = ?, " + TOUCH + " WHERE user_pool_id = ?", jwkSet, "pool-id-a");
+        engine.sync();
+
+        assertThat(tenantRepository.get("pool-a")).isNotNull();
+    }
+
+    @Test
+    void spreadsRegisteredAndRemovedUserPools() {
+        UserPoolService userPoolService = new UserPoolServiceImpl(
+                node1.getBean(UserPoolRepository.class), node1.getBean(ClientRegistrationPersistentRepository.class));
+        UserPool userPool = UserPool.builder()
+                .userPoolId("pool-id-a")
+                .poolName("pool-a")
+                .scopes(Set.of("openid"))
+                .jwkSet(jwkSet)
+                .build();
+
+        userPoolService.save(userPool, List.of(clientRegistration("registration-1")));
+        syncAll();
+
+        for (AnnotationConfigApplicationContext node : List.of(node1, node2)) {
+            TenantRuntime tenantRuntime = node.getBean(TenantRepository.class).get("pool-a");
+            assertThat(tenantRuntime).isNotNull();
+            assertThat(tenantRuntime.clientRegistrations()).containsOnlyKeys("registration-1");
+        }
+
+        userPoolService.remove("pool-id-a");
+        syncAll();
+
+        for (AnnotationConfigApplicationContext node : List.of(node1, node2)) {
+            assertThat(node.getBean(TenantRepository.class).get("pool-a")).isNull();
+            assertThat(node.getBean(InMemoryClientRegistrationRepository.class).get("registration-1")).isNull();
+        }
+
+        // 刪除後的異動 (例如金鑰輪替) 不會讓 User Pool 重新生效
+        assertThat(node1.getBean(UserPoolRepository.class).updateJwkSet("pool-id-a", jwkSet, "{\"keys\":[]}")).isFalse();
+        jdbcTemplate.update("UPDATE user_pool SET " + TOUCH + " WHERE user_pool_id = ?", "pool-id-a");
+        syncAll();
+
+        for (AnnotationConfigApplicationContext node : List.of(node1, node2)) {
+            assertThat(node.getBean(TenantRepository.class).get("pool-a")).isNull();
+        }
+
+        // 重新註冊時恢復啟用
+        userPoolService.save(userPool, List.of(clientRegistration("registration-1")));
+        syncAll();
+
+        for (AnnotationConfigApplicationContext node : List.of(node1, node2)) {
+            assertThat(node.getBean(TenantRepository.class).get("pool-a")).isNotNull();
+        }
+    }
+
+    private void syncAll() {
+        node1.getBean(ConfigurationSyncEngine.class).sync();
+        node2.getBean(ConfigurationSyncEngine.class).sync();
+    }
+
+    private double appliedCount(AnnotationConfigApplicationContext node, String result) {
+        return node.getBean(MeterRegistry.class).counter("config_sync_applied", "table", "user_pool", "result", result).count();
+    }
+
+    private void insertUserPool(String userPoolId, String poolName, String jwkSet) {
+        jdbcTemplate.update("INSERT INTO user_pool (user_pool_id, pool_name, scopes, jwk_set) VALUES (?, ?, '[\"openid\"]', ?)",
+                userPoolId, poolName, jwkSet);
+    }
+
+    private void insertClientRegistration(String registrationId, String userPoolId) {
+        jdbcTemplate.update("INSERT INTO client_registration (registration_id, user_pool_id, provider_name, client_id, client_secret, " +
+                        "client_authentication_method, authorization_grant_type, redirect_uri, authorization_uri, post_logout_redirect_uris, " +
+                        "token_uri, user_info_uri, jwk_set_uri, user_name_attribute_name, scopes) " +
+                        "VALUES (?, ?, 'google', 'client-1', 'secret', 'client_secret_basic', 'authorization_code', " +
+                        "'{baseUrl}/login/oauth2/code/{registrationId}', 'https://idp.example.com/authorize', 'https://idp.example.com/logout', " +
+                        "'https://idp.example.com/token', 'https://idp.example.com/userinfo', 'https://idp.example.com/jwks', 'sub', '[\"openid\"]')",
+                registrationId, userPoolId);
+    }
+
+    private static ClientRegistration clientRegistration(String registrationId) {
+        return ClientRegistration.withRegistrationId(registrationId)
+                .clientName("google")
+                .clientId("client-1")
+                .clientSecret("secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .scope("openid")
+                .authorizationUri("https://idp.example.com/authorize")
+                .tokenUri("https://idp.example.com/token")
+                .userInfoUri("https://idp.example.com/userinfo")
+                .jwkSetUri("https://idp.example.com/jwks")
+                .userNameAttributeName("sub")
+                .providerConfigurationMetadata(Map.of("end_session_endpoint", "https://idp.example.com/logout"))
+                .build();
+    }
+
+    private AnnotationConfigApplicationContext node() {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        // 不重疊讀取，進度若越過失敗的資料就不會再讀到該筆
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("test", Map.of(
+                "auth.sync.overlap", "0s",
+                "auth.sync.initial-lookback", "1m",
+                "auth.sync.max-attempts", "3")));
+        context.registerBean(DataSource.class, ConfigurationSyncEngineTests::dataSource);
+        context.register(SyncNodeConfiguration.class);
+        context.refresh();
+        return context;
+    }
+
+    private static DataSource dataSource() {
+        return new DriverManagerDataSource(JDBC_URL, "sa", "");
+    }
+
+    @Configuration
+    @Import({
+            UserPoolRepositoryJdbcImpl.class, ClientRegistrationPersistentRepositoryJdbcImpl.class,
+            RegisteredClientPersistentRepositoryJdbcImpl.class, ClaimMappingRepositoryJdbcImpl.class,
+            TenantRepository.class, TenantJwkService.class, UserPoolInfoService.class, TenantRuntimeService.class, TenantLoader.class,
+            InMemoryClientRegistrationRepository.class, InMemoryClientRegistrationService.class,
+            InMemoryClientUserPoolRepository.class, InMemoryClientUserPoolService.class,
+            RegisteredClientRepositoryImpl.class, ClaimProjectionPlanService.class, ConfigurationSyncEngine.class})
+    static class SyncNodeConfiguration {
+
+        @Bean
+        static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+            return new PropertySourcesPlaceholderConfigurer();
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
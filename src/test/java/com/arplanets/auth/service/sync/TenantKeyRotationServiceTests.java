@@ -0,0 +1,171 @@
+package com.arplanets.auth.service.sync;
+
+import com.arplanets.auth.model.TestTenantRuntimes;
+import com.arplanets.auth.model.po.domain.UserPool;
+import com.arplanets.auth.repository.inmemory.TenantRepository;
+import com.arplanets.auth.repository.persistence.UserPoolRepository;
+import com.arplanets.auth.service.inmemory.TenantRuntimeService;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.KeyUse;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TenantKeyRotationServiceTests {
+
+    private static final Duration ROTATION_PERIOD = Duration.ofDays(90);
+    private static final Duration PRE_PUBLISH = Duration.ofDays(1);
+    private static final Duration RETENTION = Duration.ofDays(2);
+
+    private UserPoolRepository userPoolRepository;
+    private TenantRepository tenantRepository;
+    private TenantRuntimeService tenantRuntimeService;
+    private SimpleMeterRegistry meterRegistry;
+    private TenantKeyRotationService rotationService;
+
+    @BeforeEach
+    void setUp() {
+        userPoolRepository = mock(UserPoolRepository.class);
+        tenantRepository = mock(TenantRepository.class);
+        tenantRuntimeService = mock(TenantRuntimeService.class);
+        meterRegistry = new SimpleMeterRegistry();
+        rotationService = new TenantKeyRotationService(userPoolRepository, tenantRepository, tenantRuntimeService, meterRegistry);
+        ReflectionTestUtils.setField(rotationService, "rotationPeriod", ROTATION_PERIOD);
+        ReflectionTestUtils.setField(rotationService, "prePublish", PRE_PUBLISH);
+        ReflectionTestUtils.setField(rotationService, "retention", RETENTION);
+        when(userPoolRepository.updateJwkSet(anyString(), anyString(), anyString())).thenReturn(true);
+    }
+
+    @Test
+    void prePublishesSuccessorWhenCurrentKeyIsDue() throws Exception {
+        Instant now = Instant.now();
+        JWK current = key("current", Map.of("iat", now.minus(ROTATION_PERIOD).getEpochSecond()));
+        UserPool userPool = userPool(current);
+        when(userPoolRepository.findAll()).thenReturn(List.of(userPool));
+        when(tenantRepository.getByUserPoolId("pool-id-a")).thenReturn(TestTenantRuntimes.tenantRuntime("pool-id-a", "pool-a"));
+
+        rotationService.rotate();
+
+        String rotatedJwkSet = captureUpdatedJwkSet();
+        JWKSet rotated = JWKSet.parse(rotatedJwkSet);
+        assertThat(rotated.getKeys()).hasSize(2);
+        // 舊金鑰保留到新金鑰生效後再加上 retention，供驗證已簽發的 Token
+        JWK retired = rotated.getKeyByKeyId("current");
+        assertThat(retired.getExpirationTime().toInstant()).isCloseTo(now.plus(PRE_PUBLISH).plus(RETENTION), within(1, ChronoUnit.MINUTES));
+        // 新金鑰先發布於 JWKS，nbf 到了才開始簽章
+        JWK successor = rotated.getKeys().stream().filter(jwk -> !"current".equals(jwk.getKeyID())).findFirst().orElseThrow();
+        assertThat(successor).isInstanceOf(ECKey.class);
+        assertThat(((ECKey) successor).getCurve()).isEqualTo(Curve.P_256);
+        assertThat(successor.isPrivate()).isTrue();
+        assertThat(successor.getNotBeforeTime().toInstant()).isCloseTo(now.plus(PRE_PUBLISH), within(1, ChronoUnit.MINUTES));
+        assertThat(successor.getExpirationTime()).isNull();
+
+        // 已載入的 Tenant 立即以新的 JWKSet 重建
+        verify(tenantRuntimeService).register(any(UserPool.class), any());
+        assertThat(userPool.getJwkSet()).isEqualTo(rotatedJwkSet);
+        assertThat(meterRegistry.counter("tenant_key_rotation", "result", "success").count()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsKeyBeforeRotationIsDue() throws Exception {
+        JWK current = key("current", Map.of("iat", Instant.now().minus(Duration.ofDays(1)).getEpochSecond()));
+        when(userPoolRepository.findAll()).thenReturn(List.of(userPool(current)));
+
+        rotationService.rotate();
+
+        verify(userPoolRepository, never()).updateJwkSet(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void doesNotRotateWhileSuccessorIsPending() throws Exception {
+        Instant now = Instant.now();
+        JWK current = key("current", Map.of("iat", now.minus(ROTATION_PERIOD).getEpochSecond()));
+        JWK pending = key("pending", Map.of("nbf", now.plus(Duration.ofHours(12)).getEpochSecond()));
+        when(userPoolRepository.findAll()).thenReturn(List.of(userPool(current, pending)));
+
+        rotationService.rotate();
+
+        verify(userPoolRepository, never()).updateJwkSet(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void removesExpiredKeys() throws Exception {
+        Instant now = Instant.now();
+        JWK expired = key("expired", Map.of("exp", now.minus(Duration.ofMinutes(1)).getEpochSecond()));
+        JWK current = key("current", Map.of("iat", now.minus(Duration.ofDays(1)).getEpochSecond()));
+        when(userPoolRepository.findAll()).thenReturn(List.of(userPool(expired, current)));
+
+        rotationService.rotate();
+
+        assertThat(JWKSet.parse(captureUpdatedJwkSet()).getKeys()).extracting(JWK::getKeyID).containsExactly("current");
+        assertThat(meterRegistry.counter("tenant_key_rotation", "result", "success").count()).isZero();
+    }
+
+    @Test
+    void skipsTenantRebuildWhenAnotherNodeRotatedFirst() throws Exception {
+        JWK current = key("current", Map.of("iat", Instant.now().minus(ROTATION_PERIOD).getEpochSecond()));
+        when(userPoolRepository.findAll()).thenReturn(List.of(userPool(current)));
+        when(userPoolRepository.updateJwkSet(anyString(), anyString(), anyString())).thenReturn(false);
+        when(tenantRepository.getByUserPoolId("pool-id-a")).thenReturn(TestTenantRuntimes.tenantRuntime("pool-id-a", "pool-a"));
+
+        rotationService.rotate();
+
+        verify(tenantRuntimeService, never()).register(any(UserPool.class), any());
+        assertThat(meterRegistry.counter("tenant_key_rotation", "result", "success").count()).isZero();
+    }
+
+    @Test
+    void failureOfOnePoolDoesNotStopOthers() throws Exception {
+        UserPool broken = UserPool.builder().userPoolId("pool-id-broken").poolName("pool-broken").jwkSet("not json").build();
+        JWK current = key("current", Map.of("iat", Instant.now().minus(ROTATION_PERIOD).getEpochSecond()));
+        when(userPoolRepository.findAll()).thenReturn(List.of(broken, userPool(current)));
+
+        rotationService.rotate();
+
+        assertThat(meterRegistry.counter("tenant_key_rotation", "result", "failure").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("tenant_key_rotation", "result", "success").count()).isEqualTo(1);
+    }
+
+    private String captureUpdatedJwkSet() {
+        ArgumentCaptor<String> jwkSet = ArgumentCaptor.forClass(String.class);
+        verify(userPoolRepository).updateJwkSet(eq("pool-id-a"), anyString(), jwkSet.capture());
+        return jwkSet.getValue();
+    }
+
+    private static JWK key(String keyId, Map<String, Long> times) throws Exception {
+        Map<String, Object> json = new HashMap<>(new ECKeyGenerator(Curve.P_256).keyID(keyId).keyUse(KeyUse.SIGNATURE).generate().toJSONObject());
+        json.putAll(times);
+        return JWK.parse(json);
+    }
+
+    private static UserPool userPool(JWK... keys) {
+        return UserPool.builder()
+                .userPoolId("pool-id-a")
+                .poolName("pool-a")
+                .jwkSet(new JWKSet(List.of(keys)).toString(false))
+                .build();
+    }
+}
@@ -0,0 +1,131 @@
+-- 測試用 schema：Spring Authorization Server 預設資料表加上 db/migration 中的異動
+
+CREATE TABLE oauth2_registered_client
+(
+    id                            VARCHAR(100)  NOT NULL,
+    client_id                     VARCHAR(100)  NOT NULL,
+    client_id_issued_at           TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    client_secret                 VARCHAR(200)  NULL,
+    client_secret_expires_at      TIMESTAMP     NULL,
+    client_name                   VARCHAR(200)  NOT NULL,
+    client_authentication_methods VARCHAR(1000) NOT NULL,
+    authorization_grant_types     VARCHAR(1000) NOT NULL,
+    redirect_uris                 VARCHAR(1000) NULL,
+    post_logout_redirect_uris     VARCHAR(1000) NULL,
+    scopes                        VARCHAR(1000) NOT NULL,
+    client_settings               VARCHAR(2000) NOT NULL,
+    token_settings                VARCHAR(2000) NOT NULL,
+    user_pool_id                  VARCHAR(100)  NOT NULL,
+    is_active                     TINYINT(1)    NOT NULL DEFAULT 1,
+    deleted_at                    DATETIME(3)   NULL,
+    updated_at                    DATETIME(3)   NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (id),
+    INDEX idx_oauth2_registered_client_updated_at (updated_at)
+);
+
+CREATE TABLE oauth2_authorization
+(
+    id                            VARCHAR(100)  NOT NULL,
+    registered_client_id          VARCHAR(100)  NOT NULL,
+    principal_name                VARCHAR(200)  NOT NULL,
+    authorization_grant_type      VARCHAR(100)  NOT NULL,
+    authorized_scopes             VARCHAR(1000) NULL,
+    attributes                    BLOB          NULL,
+    state                         VARCHAR(500)  NULL,
+    authorization_code_value      BLOB          NULL,
+    authorization_code_issued_at  TIMESTAMP(3)  NULL,
+    authorization_code_expires_at TIMESTAMP(3)  NULL,
+    authorization_code_metadata   BLOB          NULL,
+    access_token_value            BLOB          NULL,
+    access_token_issued_at        TIMESTAMP(3)  NULL,
+    access_token_expires_at       TIMESTAMP(3)  NULL,
+    access_token_metadata         BLOB          NULL,
+    access_token_type             VARCHAR(100)  NULL,
+    access_token_scopes           VARCHAR(1000) NULL,
+    oidc_id_token_value           BLOB          NULL,
+    oidc_id_token_issued_at       TIMESTAMP(3)  NULL,
+    oidc_id_token_expires_at      TIMESTAMP(3)  NULL,
+    oidc_id_token_metadata        BLOB          NULL,
+    refresh_token_value           BLOB          NULL,
+    refresh_token_issued_at       TIMESTAMP(3)  NULL,
+    refresh_token_expires_at      TIMESTAMP(3)  NULL,
+    refresh_token_metadata        BLOB          NULL,
+    user_code_value               BLOB          NULL,
+    user_code_issued_at           TIMESTAMP(3)  NULL,
+    user_code_expires_at          TIMESTAMP(3)  NULL,
+    user_code_metadata            BLOB          NULL,
+    device_code_value             BLOB          NULL,
+    device_code_issued_at         TIMESTAMP(3)  NULL,
+    device_code_expires_at        TIMESTAMP(3)  NULL,
+    device_code_metadata          BLOB          NULL,
+    state_hash                    BINARY(32)    NULL,
+    authorization_code_hash       BINARY(32)    NULL,
+    access_token_hash             BINARY(32)    NULL,
+    oidc_id_token_hash            BINARY(32)    NULL,
+    refresh_token_hash            BINARY(32)    NULL,
+    user_code_hash                BINARY(32)    NULL,
+    device_code_hash              BINARY(32)    NULL,
+    user_pool_id                  VARCHAR(100)  NOT NULL,
+    PRIMARY KEY (id, user_pool_id),
+    INDEX idx_oauth2_authorization_state_hash (state_hash),
+    INDEX idx_oauth2_authorization_authorization_code_hash (authorization_code_hash),
+    INDEX idx_oauth2_authorization_access_token_hash (access_token_hash),
+    INDEX idx_oauth2_authorization_oidc_id_token_hash (oidc_id_token_hash),
+    INDEX idx_oauth2_authorization_refresh_token_hash (refresh_token_hash),
+    INDEX idx_oauth2_authorization_user_code_hash (user_code_hash),
+    INDEX idx_oauth2_authorization_device_code_hash (device_code_hash),
+    INDEX idx_oauth2_authorization_user_pool_refresh_expires (user_pool_id, refresh_token_expires_at),
+    INDEX idx_oauth2_authorization_user_pool_access_expires (user_pool_id, access_token_expires_at)
+) PARTITION BY KEY (user_pool_id) PARTITIONS 16;
+
+CREATE TABLE user_pool
+(
+    user_pool_id VARCHAR(100) NOT NULL,
+    pool_name    VARCHAR(100) NOT NULL,
+    scopes       JSON         NULL,
+    jwk_set      TEXT         NULL,
+    is_active    TINYINT(1)   NOT NULL DEFAULT 1,
+    created_at   DATETIME(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    updated_at   DATETIME(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    deleted_at   DATETIME(3)  NULL,
+    PRIMARY KEY (user_pool_id),
+    INDEX idx_user_pool_updated_at (updated_at)
+);
+
+CREATE TABLE client_registration
+(
+    registration_id              VARCHAR(100)  NOT NULL,
+    user_pool_id                 VARCHAR(100)  NOT NULL,
+    provider_name                VARCHAR(100)  NOT NULL,
+    client_id                    VARCHAR(200)  NOT NULL,
+    client_secret                VARCHAR(200)  NOT NULL,
+    client_authentication_method VARCHAR(100)  NOT NULL,
+    authorization_grant_type     VARCHAR(100)  NOT NULL,
+    redirect_uri                 VARCHAR(1000) NOT NULL,
+    authorization_uri            VARCHAR(1000) NOT NULL,
+    post_logout_redirect_uris    VARCHAR(1000) NULL,
+    token_uri                    VARCHAR(1000) NOT NULL,
+    user_info_uri                VARCHAR(1000) NOT NULL,
+    jwk_set_uri                  VARCHAR(1000) NOT NULL,
+    user_name_attribute_name     VARCHAR(100)  NOT NULL,
+    scopes                       JSON          NULL,
+    is_active                    TINYINT(1)    NOT NULL DEFAULT 1,
+    deleted_at                   DATETIME(3)   NULL,
+    updated_at                   DATETIME(3)   NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (registration_id),
+    INDEX idx_client_registration_updated_at (updated_at)
+);
+
+CREATE TABLE user_attribute_mapping
+(
+    registration_id VARCHAR(100) NOT NULL,
+    claim_name      VARCHAR(100) NOT NULL,
+    idp_claim_name  VARCHAR(100) NOT NULL,
+    scope           VARCHAR(100) NOT NULL,
+    is_active       TINYINT(1)   NOT NULL DEFAULT 1,
+    created_at      DATETIME(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    updated_at      DATETIME(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    deleted_at      DATETIME(3)  NULL,
+    PRIMARY KEY (registration_id, claim_name, scope),
+    INDEX idx_user_attribute_mapping_updated_at (updated_at)
+);
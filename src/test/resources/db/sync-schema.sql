@@ -0,0 +1,77 @@
+-- 設定同步測試用 schema：與 db/schema.sql 相同的設定資料表，改寫為 H2 (MODE=MySQL) 可執行的語法
+-- JSON、TEXT 欄位改為 VARCHAR，索引另外建立
+
+CREATE TABLE oauth2_registered_client
+(
+    id                            VARCHAR(100)  NOT NULL,
+    client_id                     VARCHAR(100)  NOT NULL,
+    client_id_issued_at           TIMESTAMP     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    client_secret                 VARCHAR(200)  NULL,
+    client_secret_expires_at      TIMESTAMP     NULL,
+    client_name                   VARCHAR(200)  NOT NULL,
+    client_authentication_methods VARCHAR(1000) NOT NULL,
+    authorization_grant_types     VARCHAR(1000) NOT NULL,
+    redirect_uris                 VARCHAR(1000) NULL,
+    post_logout_redirect_uris     VARCHAR(1000) NULL,
+    scopes                        VARCHAR(1000) NOT NULL,
+    client_settings               VARCHAR(2000) NOT NULL,
+    token_settings                VARCHAR(2000) NOT NULL,
+    user_pool_id                  VARCHAR(100)  NOT NULL,
+    is_active                     TINYINT       NOT NULL DEFAULT 1,
+    deleted_at                    DATETIME(3)   NULL,
+    updated_at                    DATETIME(3)   NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (id)
+);
+CREATE INDEX idx_oauth2_registered_client_updated_at ON oauth2_registered_client (updated_at);
+
+CREATE TABLE user_pool
+(
+    user_pool_id VARCHAR(100)   NOT NULL,
+    pool_name    VARCHAR(100)   NOT NULL,
+    scopes       VARCHAR(1000)  NULL,
+    jwk_set      VARCHAR(20000) NULL,
+    is_active    TINYINT        NOT NULL DEFAULT 1,
+    created_at   DATETIME(3)    NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    updated_at   DATETIME(3)    NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    deleted_at   DATETIME(3)    NULL,
+    PRIMARY KEY (user_pool_id)
+);
+CREATE INDEX idx_user_pool_updated_at ON user_pool (updated_at);
+
+CREATE TABLE client_registration
+(
+    registration_id              VARCHAR(100)  NOT NULL,
+    user_pool_id                 VARCHAR(100)  NOT NULL,
+    provider_name                VARCHAR(100)  NOT NULL,
+    client_id                    VARCHAR(200)  NOT NULL,
+    client_secret                VARCHAR(200)  NOT NULL,
+    client_authentication_method VARCHAR(100)  NOT NULL,
+    authorization_grant_type     VARCHAR(100)  NOT NULL,
+    redirect_uri                 VARCHAR(1000) NOT NULL,
+    authorization_uri            VARCHAR(1000) NOT NULL,
+    post_logout_redirect_uris    VARCHAR(1000) NULL,
+    token_uri                    VARCHAR(1000) NOT NULL,
+    user_info_uri                VARCHAR(1000) NOT NULL,
+    jwk_set_uri                  VARCHAR(1000) NOT NULL,
+    user_name_attribute_name     VARCHAR(100)  NOT NULL,
+    scopes                       VARCHAR(1000) NULL,
+    is_active                    TINYINT       NOT NULL DEFAULT 1,
+    deleted_at                   DATETIME(3)   NULL,
+    updated_at                   DATETIME(3)   NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    PRIMARY KEY (registration_id)
+);
+CREATE INDEX idx_client_registration_updated_at ON client_registration (updated_at);
+
+CREATE TABLE user_attribute_mapping
+(
+    registration_id VARCHAR(100) NOT NULL,
+    claim_name      VARCHAR(100) NOT NULL,
+    idp_claim_name  VARCHAR(100) NOT NULL,
+    scope           VARCHAR(100) NOT NULL,
+    is_active       TINYINT      NOT NULL DEFAULT 1,
+    created_at      DATETIME(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+    updated_at      DATETIME(3)  NOT NULL DEFAULT CURRENT_TIMESTAMP(3) ON UPDATE CURRENT_TIMESTAMP(3),
+    deleted_at      DATETIME(3)  NULL,
+    PRIMARY KEY (registration_id, claim_name, scope)
+);
+CREATE INDEX idx_user_attribute_mapping_updated_at ON user_attribute_mapping (updated_at);